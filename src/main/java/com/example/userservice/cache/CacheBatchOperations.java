@@ -0,0 +1,281 @@
+package com.example.userservice.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пакетные операции над кэшем: чтение многих ключей одним {@code MGET} и запись одним pipeline.
+ *
+ * <p>Представления пользователя в режиме хэша читаются {@code HMGET} всех хэшей в одном pipeline,
+ * см. {@link UserHashCache#lookupAll}.
+ *
+ * <p>Сначала проверяются локальные уровни ({@link NearCache}, затем {@link MappedCache}), в Redis
+ * уходят только оставшиеся ключи. Обращения к Redis идут через тот же {@link CircuitBreakerCache},
+ * что и поштучные: пока breaker разомкнут, пакет сразу считается промахом и не дозаписывается. Если
+ * кэш не Redis (например, в тестовом профиле), операции выполняются поштучно через {@link Cache}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheBatchOperations {
+
+  private final CacheManager cacheManager;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final CacheStatistics statistics;
+
+  /** Значения из кэша для найденных ключей; отсутствующих ключей в результате нет. */
+  public <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys, Class<V> type) {
+    Map<K, V> found = new HashMap<>();
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache == null || keys.isEmpty()) {
+      return found;
+    }
+    RedisCache redisCache = DelegatingCache.unwrap(cache, RedisCache.class);
+    UserHashCache userHash = DelegatingCache.unwrap(cache, UserHashCache.class);
+    if (redisCache == null && userHash == null) {
+      for (K key : keys) {
+        V value = cache.get(key, type);
+        if (value != null) {
+          found.put(key, value);
+        }
+      }
+      return found;
+    }
+
+    NearCache nearCache = DelegatingCache.unwrap(cache, NearCache.class);
+    MappedCache mappedCache = DelegatingCache.unwrap(cache, MappedCache.class);
+    List<K> remote = new ArrayList<>(keys.size());
+    for (K key : keys) {
+      Object local = peekLocal(key, nearCache, mappedCache);
+      if (type.isInstance(local)) {
+        found.put(key, type.cast(local));
+      } else {
+        remote.add(key);
+      }
+    }
+
+    if (!remote.isEmpty() && userHash != null) {
+      readUserHashes(cache, userHash, remote, type, found);
+    } else if (!remote.isEmpty()) {
+      readRemote(cache, redisCache.getCacheConfiguration(), remote, type, found);
+    }
+
+    CacheCounters counters = statistics.counters(cacheName);
+    for (int i = 0; i < found.size(); i++) {
+      counters.recordHit();
+    }
+    for (int i = found.size(); i < keys.size(); i++) {
+      counters.recordMiss();
+    }
+    return found;
+  }
+
+  /** Записывает значения в кэш одним pipeline вместе с индексом записей. */
+  public void putAll(String cacheName, Map<?, ?> entries) {
+    write(cacheName, entries, false);
+  }
+
+  /**
+   * Как {@link #putAll}, но записывает только отсутствующие ключи ({@code SET NX}): значение,
+   * положенное в кэш после чтения из БД, новее записываемого и остаётся на месте.
+   */
+  public void putAllIfAbsent(String cacheName, Map<?, ?> entries) {
+    write(cacheName, entries, true);
+  }
+
+  private void write(String cacheName, Map<?, ?> entries, boolean ifAbsent) {
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache == null || entries.isEmpty()) {
+      return;
+    }
+    RedisCache redisCache = DelegatingCache.unwrap(cache, RedisCache.class);
+    if (redisCache == null) {
+      if (ifAbsent) {
+        entries.forEach(cache::putIfAbsent);
+      } else {
+        entries.forEach(cache::put);
+      }
+      return;
+    }
+
+    RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+    String prefix = generations.prefixFor(cacheName);
+    byte[] indexKey = bytes(CacheEntryIndex.indexKey(cacheName));
+    List<Map.Entry<?, ?>> ordered = new ArrayList<>(entries.entrySet());
+    RedisStringCommands.SetOption option =
+        ifAbsent
+            ? RedisStringCommands.SetOption.ifAbsent()
+            : RedisStringCommands.SetOption.upsert();
+    RedisZSetCommands.ZAddArgs indexArgs =
+        ifAbsent ? RedisZSetCommands.ZAddArgs.ifNotExists() : RedisZSetCommands.ZAddArgs.empty();
+    long now = System.currentTimeMillis();
+    RedisCallback<Object> pipeline =
+        connection -> {
+          for (Map.Entry<?, ?> entry : ordered) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+            byte[] rawKey = bytes(prefix + key);
+            byte[] rawValue = toBytes(config.getValueSerializationPair().write(value));
+            boolean expires = ttl != null && !ttl.isZero() && !ttl.isNegative();
+            connection
+                .stringCommands()
+                .set(
+                    rawKey,
+                    rawValue,
+                    expires ? Expiration.from(ttl) : Expiration.persistent(),
+                    option);
+            double expiresAt = expires ? now + ttl.toMillis() : Double.POSITIVE_INFINITY;
+            connection.zSetCommands().zAdd(indexKey, expiresAt, bytes(key.toString()), indexArgs);
+          }
+          return null;
+        };
+    List<Object> results;
+    try {
+      results = guarded(cache, () -> stringRedisTemplate.executePipelined(pipeline));
+    } catch (Exception e) {
+      // Не заполненные записи загрузятся обычным путём при следующем чтении
+      log.warn("Batch back-fill of cache {} failed: {}", cacheName, e.getMessage());
+      return;
+    }
+    if (results == null) {
+      // Breaker разомкнут или Redis не ответил: записи загрузятся обычным путём
+      log.debug("Batch back-fill of cache {} skipped: Redis is unavailable", cacheName);
+      return;
+    }
+
+    CacheCounters counters = statistics.counters(cacheName);
+    NearCache nearCache = DelegatingCache.unwrap(cache, NearCache.class);
+    MappedCache mappedCache = DelegatingCache.unwrap(cache, MappedCache.class);
+    for (int i = 0; i < ordered.size(); i++) {
+      // На каждую запись в pipeline две команды: SET и ZADD
+      if (ifAbsent && !Boolean.TRUE.equals(results.get(2 * i))) {
+        continue;
+      }
+      counters.recordPut();
+      putLocal(ordered.get(i).getKey(), ordered.get(i).getValue(), nearCache, mappedCache);
+    }
+  }
+
+  private <K, V> void readRemote(
+      Cache cache, RedisCacheConfiguration config, List<K> keys, Class<V> type, Map<K, V> found) {
+    String prefix = generations.prefixFor(cache.getName());
+    byte[][] rawKeys = new byte[keys.size()][];
+    for (int i = 0; i < keys.size(); i++) {
+      rawKeys[i] = bytes(prefix + keys.get(i));
+    }
+    NearCache nearCache = DelegatingCache.unwrap(cache, NearCache.class);
+    MappedCache mappedCache = DelegatingCache.unwrap(cache, MappedCache.class);
+    try {
+      List<byte[]> values =
+          guarded(
+              cache,
+              () ->
+                  stringRedisTemplate.execute(
+                      (RedisCallback<List<byte[]>>)
+                          connection -> connection.stringCommands().mGet(rawKeys)));
+      if (values == null) {
+        return;
+      }
+      for (int i = 0; i < keys.size() && i < values.size(); i++) {
+        byte[] raw = values.get(i);
+        if (raw == null) {
+          continue;
+        }
+        Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+        if (type.isInstance(value)) {
+          K key = keys.get(i);
+          found.put(key, type.cast(value));
+          putLocal(key, value, nearCache, mappedCache);
+        }
+      }
+    } catch (Exception e) {
+      // Промахи будут загружены из БД
+      log.warn("Batch read of cache {} failed: {}", cache.getName(), e.getMessage());
+    }
+  }
+
+  /** Представления пользователей из их хэшей: {@code HMGET} всех ключей одним pipeline. */
+  private <K, V> void readUserHashes(
+      Cache cache, UserHashCache userHash, List<K> keys, Class<V> type, Map<K, V> found) {
+    NearCache nearCache = DelegatingCache.unwrap(cache, NearCache.class);
+    MappedCache mappedCache = DelegatingCache.unwrap(cache, MappedCache.class);
+    try {
+      Map<Object, Object> values = guarded(cache, () -> userHash.lookupAll(keys));
+      if (values == null) {
+        return;
+      }
+      for (K key : keys) {
+        Object value = values.get(key);
+        if (type.isInstance(value)) {
+          found.put(key, type.cast(value));
+          putLocal(key, value, nearCache, mappedCache);
+        }
+      }
+    } catch (Exception e) {
+      // Промахи будут загружены из БД
+      log.warn("Batch read of user hashes of cache {} failed: {}", cache.getName(), e.getMessage());
+    }
+  }
+
+  /** Локальное значение ключа в порядке цепочки: сначала L1, затем уровень вне heap. */
+  private static Object peekLocal(Object key, NearCache nearCache, MappedCache mappedCache) {
+    Object value = nearCache != null ? nearCache.peekLocal(key) : null;
+    if (value == null && mappedCache != null) {
+      value = mappedCache.peekLocal(key);
+      if (value != null && nearCache != null) {
+        nearCache.putLocal(key, value);
+      }
+    }
+    return value;
+  }
+
+  private static void putLocal(
+      Object key, Object value, NearCache nearCache, MappedCache mappedCache) {
+    if (nearCache != null) {
+      nearCache.putLocal(key, value);
+    }
+    if (mappedCache != null) {
+      mappedCache.putLocal(key, value);
+    }
+  }
+
+  /**
+   * Обращение к Redis в обход цепочки кэша, но через её breaker: пока он разомкнут, возвращает
+   * {@code null} без обращения, а исход засчитывается так же, как у поштучных операций.
+   */
+  private static <T> T guarded(Cache cache, Supplier<T> operation) {
+    CircuitBreakerCache breaker = DelegatingCache.unwrap(cache, CircuitBreakerCache.class);
+    return breaker != null ? breaker.call(operation, null) : operation.get();
+  }
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
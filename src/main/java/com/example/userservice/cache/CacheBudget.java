@@ -0,0 +1,31 @@
+package com.example.userservice.cache;
+
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Бюджет кэша: максимум записей и/или байт. Байтовый бюджет переводится в число записей по среднему
+ * размеру значения, записанного этим узлом.
+ */
+public class CacheBudget {
+
+  private final Long maxEntries;
+  private final DataSize maxBytes;
+  private final CacheCounters counters;
+
+  public CacheBudget(Long maxEntries, DataSize maxBytes, CacheCounters counters) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.counters = counters;
+  }
+
+  /** Допустимое число записей или {@code Long.MAX_VALUE}, если ограничения пока нет. */
+  public long entryLimit() {
+    long limit = maxEntries != null ? maxEntries : Long.MAX_VALUE;
+    long payloads = counters.payloads();
+    if (maxBytes != null && payloads > 0) {
+      long averageBytes = Math.max(1, counters.payloadBytes() / payloads);
+      limit = Math.min(limit, maxBytes.toBytes() / averageBytes);
+    }
+    return limit;
+  }
+}
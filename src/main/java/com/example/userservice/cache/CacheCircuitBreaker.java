@@ -0,0 +1,222 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker для обращений к Redis из слоя кэша.
+ *
+ * <p>Исходы последних вызовов хранятся в кольцевом окне; вызов дольше {@code slow-call-threshold}
+ * считается ошибкой. Когда доля ошибок в окне достигает порога, breaker размыкается: кэш Redis
+ * пропускается, чтения идут в БД (или в локальный уровень), записи не кэшируются. Через {@code
+ * open-duration} breaker пропускает несколько пробных вызовов и замыкается, если все они успешны.
+ *
+ * <p>Исход вызова в замкнутом состоянии записывается без блокировки: монитор берётся только при
+ * смене состояния и для учёта пробных вызовов.
+ */
+@Slf4j
+@Component
+public class CacheCircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final boolean enabled;
+  private final double failureRateThreshold;
+  private final int minimumCalls;
+  private final long slowCallNanos;
+  private final long openDurationMillis;
+  private final int halfOpenProbes;
+
+  private final int windowSize;
+  private volatile Window window;
+
+  private volatile State state = State.CLOSED;
+  private volatile Instant stateSince = Instant.now();
+  private int probesIssued;
+  private int probesSucceeded;
+
+  private final AtomicLong rejected = new AtomicLong();
+  private final Counter rejectedCounter;
+  private final MeterRegistry meterRegistry;
+
+  public CacheCircuitBreaker(UserCacheProperties properties, MeterRegistry meterRegistry) {
+    UserCacheProperties.CircuitBreaker config = properties.getCircuitBreaker();
+    this.enabled = config.isEnabled();
+    this.failureRateThreshold = config.getFailureRateThreshold();
+    this.minimumCalls = config.getMinimumCalls();
+    this.slowCallNanos = config.getSlowCallThreshold().toNanos();
+    this.openDurationMillis = config.getOpenDuration().toMillis();
+    this.halfOpenProbes = config.getHalfOpenProbes();
+    this.windowSize = Math.max(config.getWindowSize(), 1);
+    this.window = new Window(windowSize);
+    this.meterRegistry = meterRegistry;
+    this.rejectedCounter =
+        Counter.builder("cache.circuit.rejected")
+            .description("Cache calls short-circuited while Redis was considered unhealthy")
+            .register(meterRegistry);
+    Gauge.builder("cache.circuit.state", this, breaker -> breaker.getState().ordinal())
+        .description("Cache circuit breaker state: 0 closed, 1 open, 2 half-open")
+        .register(meterRegistry);
+  }
+
+  /** Можно ли сейчас обращаться к Redis; в полуоткрытом состоянии выдаёт пробные вызовы. */
+  public boolean tryAcquire() {
+    if (!enabled || state == State.CLOSED) {
+      return true;
+    }
+    synchronized (this) {
+      if (state == State.OPEN
+          && System.currentTimeMillis() - stateSince.toEpochMilli() >= openDurationMillis) {
+        transitionTo(State.HALF_OPEN);
+      }
+      if (state == State.HALF_OPEN && probesIssued < halfOpenProbes) {
+        probesIssued++;
+        return true;
+      }
+      if (state == State.CLOSED) {
+        return true;
+      }
+    }
+    rejected.incrementAndGet();
+    rejectedCounter.increment();
+    return false;
+  }
+
+  /** Не расходует пробные вызовы: для вспомогательных обращений, без которых можно обойтись. */
+  public boolean isClosed() {
+    return !enabled || state == State.CLOSED;
+  }
+
+  public void onSuccess(long elapsedNanos) {
+    if (!enabled) {
+      return;
+    }
+    if (elapsedNanos > slowCallNanos) {
+      onFailure();
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      synchronized (this) {
+        if (state == State.HALF_OPEN) {
+          probesSucceeded++;
+          if (probesSucceeded >= halfOpenProbes) {
+            transitionTo(State.CLOSED);
+          }
+          return;
+        }
+      }
+    }
+    window.record(false);
+  }
+
+  public void onFailure() {
+    if (!enabled) {
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      synchronized (this) {
+        if (state == State.HALF_OPEN) {
+          transitionTo(State.OPEN);
+          return;
+        }
+      }
+    }
+    if (state != State.CLOSED) {
+      return;
+    }
+    Window current = window;
+    current.record(true);
+    if (current.recorded() >= minimumCalls && current.failureRate() >= failureRateThreshold) {
+      synchronized (this) {
+        if (state == State.CLOSED && window == current) {
+          transitionTo(State.OPEN);
+        }
+      }
+    }
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public CircuitBreakerSnapshot snapshot() {
+    synchronized (this) {
+      Window current = window;
+      return new CircuitBreakerSnapshot(
+          state,
+          stateSince,
+          current.recorded(),
+          current.failureRate(),
+          rejected.get(),
+          Duration.ofMillis(openDurationMillis));
+    }
+  }
+
+  private void transitionTo(State next) {
+    log.warn("Cache circuit breaker: {} -> {}", state, next);
+    meterRegistry.counter("cache.circuit.transitions", "to", next.name()).increment();
+    state = next;
+    stateSince = Instant.now();
+    probesIssued = 0;
+    probesSucceeded = 0;
+    if (next == State.CLOSED || next == State.OPEN) {
+      // Запоздалые записи в старое окно на новое не влияют
+      window = new Window(windowSize);
+    }
+  }
+
+  /** Кольцевое окно исходов последних вызовов. */
+  private static final class Window {
+
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    Window(int size) {
+      this.outcomes = new AtomicIntegerArray(size);
+    }
+
+    void record(boolean failure) {
+      int slot = (int) (calls.getAndIncrement() % outcomes.length());
+      int previous = outcomes.getAndSet(slot, failure ? FAILURE : SUCCESS);
+      int delta = (failure ? 1 : 0) - (previous == FAILURE ? 1 : 0);
+      if (delta != 0) {
+        failed.addAndGet(delta);
+      }
+    }
+
+    int recorded() {
+      return (int) Math.min(calls.get(), outcomes.length());
+    }
+
+    double failureRate() {
+      int recorded = recorded();
+      return recorded == 0 ? 0 : (double) Math.max(failed.get(), 0) / recorded;
+    }
+  }
+
+  /** Состояние breaker для actuator. */
+  public record CircuitBreakerSnapshot(
+      State state,
+      Instant since,
+      int recordedCalls,
+      double failureRate,
+      long rejectedCalls,
+      Duration openDuration) {}
+}
@@ -0,0 +1,20 @@
+package com.example.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** Состояние {@link CacheCircuitBreaker}: {@code GET /actuator/cachecircuitbreaker}. */
+@Component
+@Endpoint(id = "cachecircuitbreaker")
+@RequiredArgsConstructor
+public class CacheCircuitBreakerEndpoint {
+
+  private final CacheCircuitBreaker circuitBreaker;
+
+  @ReadOperation
+  public CacheCircuitBreaker.CircuitBreakerSnapshot state() {
+    return circuitBreaker.snapshot();
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.userservice.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики одного кэша на этом узле. Обновляются без блокировок и без аллокаций.
+ *
+ * <p>Счётчики попаданий, промахов, записей и удалений публикуются в Micrometer как {@link
+ * FunctionCounter} поверх тех же {@link LongAdder}, поэтому путь попадания ничего не добавляет к
+ * инкременту. Время загрузки и размер значений пишутся в таймер и распределение с перцентилями -
+ * это пути промаха и записи.
+ */
+public class CacheCounters {
+
+  private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadTimeNanos = new LongAdder();
+  private final LongAdder payloads = new LongAdder();
+  private final LongAdder payloadBytes = new LongAdder();
+  private final Timer loadTimer;
+  private final DistributionSummary payloadSize;
+
+  public CacheCounters() {
+    this.loadTimer = null;
+    this.payloadSize = null;
+  }
+
+  public CacheCounters(String cacheName, MeterRegistry registry) {
+    Tags tags = Tags.of("cache", cacheName, "cache.manager", "cacheManager");
+    functionCounter(registry, "cache.gets", tags.and("result", "hit"), hits, "Cache hits");
+    functionCounter(registry, "cache.gets", tags.and("result", "miss"), misses, "Cache misses");
+    functionCounter(registry, "cache.puts", tags, puts, "Entries added to the cache");
+    functionCounter(registry, "cache.evictions", tags, evictions, "Entries removed from the cache");
+    this.loadTimer =
+        Timer.builder("cache.load.duration")
+            .description("Time to load a value on a cache miss")
+            .tags(tags)
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .register(registry);
+    this.payloadSize =
+        DistributionSummary.builder("cache.payload.size")
+            .description("Serialized size of values written to Redis")
+            .baseUnit("bytes")
+            .tags(tags)
+            .publishPercentiles(PERCENTILES)
+            .register(registry);
+  }
+
+  private static void functionCounter(
+      MeterRegistry registry, String name, Tags tags, LongAdder adder, String description) {
+    FunctionCounter.builder(name, adder, LongAdder::sum)
+        .description(description)
+        .tags(tags)
+        .register(registry);
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut() {
+    puts.increment();
+  }
+
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  public void recordEvictions(long count) {
+    evictions.add(count);
+  }
+
+  public void recordPayload(int bytes) {
+    payloads.increment();
+    payloadBytes.add(bytes);
+    if (payloadSize != null) {
+      payloadSize.record(bytes);
+    }
+  }
+
+  public void recordLoad(long nanos) {
+    loads.increment();
+    loadTimeNanos.add(nanos);
+    if (loadTimer != null) {
+      loadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  public long puts() {
+    return puts.sum();
+  }
+
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  public long loads() {
+    return loads.sum();
+  }
+
+  public long loadTimeNanos() {
+    return loadTimeNanos.sum();
+  }
+
+  public long payloads() {
+    return payloads.sum();
+  }
+
+  public long payloadBytes() {
+    return payloadBytes.sum();
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.userservice.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Точка расширения {@link UserCacheManager}: оборачивает кэш Redis дополнительной логикой.
+ *
+ * <p>Декораторы применяются по возрастанию {@link org.springframework.core.annotation.Order}: чем
+ * меньше значение, тем ближе декоратор к Redis. Если декоратор не относится к данному кэшу, он
+ * возвращает его без изменений.
+ */
+@FunctionalInterface
+public interface CacheDecorator {
+
+  Cache decorate(Cache cache);
+}
@@ -0,0 +1,162 @@
+package com.example.userservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индекс записей кэша в Redis: sorted set на кэш, где элемент - ключ, а score - момент истечения.
+ *
+ * <p>Число живых записей считается через {@code ZCOUNT} за O(log N), истёкшие элементы подрезаются
+ * при подсчёте.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheEntryIndex {
+
+  private static final String INDEX_PREFIX = "user-service:index:";
+
+  // Верхние границы корзин распределения оставшегося времени жизни
+  private static final List<Duration> EXPIRY_BUCKETS =
+      List.of(
+          Duration.ofMinutes(1),
+          Duration.ofMinutes(5),
+          Duration.ofMinutes(15),
+          Duration.ofMinutes(30),
+          Duration.ofHours(1),
+          Duration.ofHours(2),
+          Duration.ofHours(6));
+
+  private final StringRedisTemplate stringRedisTemplate;
+
+  public void record(String cacheName, Object key, Duration ttl) {
+    double expiresAt =
+        ttl == null || ttl.isZero() || ttl.isNegative()
+            ? Double.POSITIVE_INFINITY
+            : System.currentTimeMillis() + ttl.toMillis();
+    try {
+      stringRedisTemplate.opsForZSet().add(indexKey(cacheName), String.valueOf(key), expiresAt);
+    } catch (Exception e) {
+      log.debug("Could not index cache entry {}::{}: {}", cacheName, key, e.getMessage());
+    }
+  }
+
+  /** Убирает ключ из индекса; {@code true}, если он там был. */
+  public boolean remove(String cacheName, Object key) {
+    try {
+      Long removed =
+          stringRedisTemplate.opsForZSet().remove(indexKey(cacheName), String.valueOf(key));
+      return removed != null && removed > 0;
+    } catch (Exception e) {
+      log.debug("Could not unindex cache entry {}::{}: {}", cacheName, key, e.getMessage());
+      return false;
+    }
+  }
+
+  public void clear(String cacheName) {
+    try {
+      stringRedisTemplate.unlink(indexKey(cacheName));
+    } catch (Exception e) {
+      log.debug("Could not clear cache index {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  /** Число неистёкших записей кэша или {@code -1}, если Redis недоступен. */
+  public long count(String cacheName) {
+    String indexKey = indexKey(cacheName);
+    try {
+      double now = System.currentTimeMillis();
+      stringRedisTemplate.opsForZSet().removeRangeByScore(indexKey, Double.NEGATIVE_INFINITY, now);
+      Long count = stringRedisTemplate.opsForZSet().count(indexKey, now, Double.POSITIVE_INFINITY);
+      return count != null ? count : 0;
+    } catch (Exception e) {
+      log.warn("Could not count entries of cache {}: {}", cacheName, e.getMessage());
+      return -1;
+    }
+  }
+
+  /**
+   * Удаляет записи сверх {@code maxEntries}, начиная с ближайших к истечению. Возвращает число
+   * удалённых записей.
+   */
+  public long trimTo(String cacheName, long maxEntries, String keyPrefix) {
+    String indexKey = indexKey(cacheName);
+    try {
+      stringRedisTemplate
+          .opsForZSet()
+          .removeRangeByScore(indexKey, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+      Long size = stringRedisTemplate.opsForZSet().zCard(indexKey);
+      if (size == null || size <= maxEntries) {
+        return 0;
+      }
+      Set<String> victims =
+          stringRedisTemplate.opsForZSet().range(indexKey, 0, size - maxEntries - 1);
+      if (victims == null || victims.isEmpty()) {
+        return 0;
+      }
+      stringRedisTemplate.unlink(victims.stream().map(keyPrefix::concat).toList());
+      stringRedisTemplate.opsForZSet().remove(indexKey, victims.toArray());
+      log.debug(
+          "Cache {} over budget of {} entries, evicted {}", cacheName, maxEntries, victims.size());
+      return victims.size();
+    } catch (Exception e) {
+      log.warn("Could not enforce budget of cache {}: {}", cacheName, e.getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Распределение записей по оставшемуся времени жизни. Все {@code ZCOUNT} уходят одним pipeline.
+   */
+  public Map<String, Long> expiryDistribution(String cacheName) {
+    Map<String, Long> distribution = new LinkedHashMap<>();
+    byte[] rawKey = indexKey(cacheName).getBytes(StandardCharsets.UTF_8);
+    long now = System.currentTimeMillis();
+    try {
+      List<Object> counts =
+          stringRedisTemplate.executePipelined(
+              (RedisCallback<Object>)
+                  connection -> {
+                    double from = now;
+                    for (Duration bucket : EXPIRY_BUCKETS) {
+                      double to = now + bucket.toMillis();
+                      connection.zSetCommands().zCount(rawKey, from, to - 1);
+                      from = to;
+                    }
+                    connection.zSetCommands().zCount(rawKey, from, Double.POSITIVE_INFINITY);
+                    return null;
+                  });
+      Duration lower = Duration.ZERO;
+      for (int i = 0; i < EXPIRY_BUCKETS.size(); i++) {
+        Duration upper = EXPIRY_BUCKETS.get(i);
+        distribution.put(format(lower) + "-" + format(upper), toLong(counts.get(i)));
+        lower = upper;
+      }
+      distribution.put(">" + format(lower), toLong(counts.get(EXPIRY_BUCKETS.size())));
+    } catch (Exception e) {
+      log.warn("Could not read expiry distribution of cache {}: {}", cacheName, e.getMessage());
+    }
+    return distribution;
+  }
+
+  private static String format(Duration duration) {
+    return duration.toMinutes() < 60 ? duration.toMinutes() + "m" : duration.toHours() + "h";
+  }
+
+  private static long toLong(Object value) {
+    return value instanceof Long count ? count : 0;
+  }
+
+  static String indexKey(String cacheName) {
+    return INDEX_PREFIX + cacheName;
+  }
+}
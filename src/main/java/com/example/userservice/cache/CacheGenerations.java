@@ -0,0 +1,130 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Поколения кэшей. Номер поколения хранится в Redis и входит в префикс ключа, поэтому полный сброс
+ * кэша - это один INCR: старые записи перестают адресоваться и доживают до своего TTL.
+ *
+ * <p>Текущее поколение держится локально и перечитывается из Redis по сообщению о сбросе от других
+ * узлов или по истечении {@code app.cache.generations.refresh-interval}.
+ */
+@Slf4j
+@Component
+public class CacheGenerations {
+
+  public static final String KEY_PREFIX = "user-service:generation:";
+
+  private final ConcurrentMap<String, Generation> generations = new ConcurrentHashMap<>();
+  private final Set<String> tracked = ConcurrentHashMap.newKeySet();
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final NearCacheInvalidator invalidator;
+  private final boolean enabled;
+  private final long refreshIntervalMillis;
+
+  public CacheGenerations(
+      StringRedisTemplate stringRedisTemplate,
+      NearCacheInvalidator invalidator,
+      UserCacheProperties properties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.invalidator = invalidator;
+    this.enabled = properties.getGenerations().isEnabled();
+    this.refreshIntervalMillis = properties.getGenerations().getRefreshInterval().toMillis();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Подписывает кэш на сообщения о сбросе. Вызывается при создании кэша раньше, чем регистрируется
+   * локальный уровень, поэтому к моменту его сброса поколение уже перечитано.
+   */
+  public void track(String cacheName) {
+    if (tracked.add(cacheName)) {
+      invalidator.register(cacheName, new Listener(cacheName));
+    }
+  }
+
+  /** Префикс ключей текущего поколения, например {@code user-service:users:v3::}. */
+  public String prefixFor(String cacheName) {
+    if (!enabled) {
+      return "user-service:" + cacheName + "::";
+    }
+    return "user-service:" + cacheName + ":v" + current(cacheName) + "::";
+  }
+
+  public long current(String cacheName) {
+    if (!enabled) {
+      return 0;
+    }
+    Generation generation = generations.get(cacheName);
+    if (generation != null && generation.isFresh(refreshIntervalMillis)) {
+      return generation.value();
+    }
+    return generations
+        .compute(
+            cacheName,
+            (name, existing) ->
+                existing != null && existing.isFresh(refreshIntervalMillis)
+                    ? existing
+                    : load(name, existing))
+        .value();
+  }
+
+  /** Переводит кэш на следующее поколение и сообщает об этом остальным узлам. */
+  public long advance(String cacheName) {
+    Long value = stringRedisTemplate.opsForValue().increment(KEY_PREFIX + cacheName);
+    long next = value != null ? value : current(cacheName) + 1;
+    generations.put(cacheName, new Generation(next, System.currentTimeMillis()));
+    invalidator.publishClear(cacheName);
+    log.info("Cache '{}' moved to generation {}", cacheName, next);
+    return next;
+  }
+
+  private Generation load(String cacheName, Generation previous) {
+    try {
+      String raw = stringRedisTemplate.opsForValue().get(KEY_PREFIX + cacheName);
+      return new Generation(raw != null ? Long.parseLong(raw) : 0, System.currentTimeMillis());
+    } catch (Exception e) {
+      // Продолжаем с известным поколением, следующая попытка - через refresh-interval
+      log.warn("Failed to read generation of cache '{}': {}", cacheName, e.getMessage());
+      return new Generation(previous != null ? previous.value() : 0, System.currentTimeMillis());
+    }
+  }
+
+  private record Generation(long value, long loadedAt) {
+
+    boolean isFresh(long refreshIntervalMillis) {
+      return System.currentTimeMillis() - loadedAt < refreshIntervalMillis;
+    }
+  }
+
+  /** Сброс кэша на другом узле означает смену поколения - перечитываем его. */
+  private class Listener implements LocalCacheTier {
+
+    private final String cacheName;
+
+    Listener(String cacheName) {
+      this.cacheName = cacheName;
+    }
+
+    @Override
+    public void invalidateLocal(Collection<String> keys) {
+      // Точечные инвалидации поколение не меняют
+    }
+
+    @Override
+    public void clearLocal() {
+      generations.remove(cacheName);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.userservice.cache;
+
+import java.util.List;
+
+/**
+ * Страница ключей одного кэша для {@code /api/cache/{cacheName}/keys}.
+ *
+ * @param keys ключи кэша без префикса Redis; SCAN может вернуть ключ повторно на разных страницах
+ * @param nextCursor курсор следующей страницы, {@code "0"} после последней
+ * @param finished обход закончен
+ */
+public record CacheKeyPage(
+    String cacheName, List<String> keys, String nextCursor, boolean finished) {}
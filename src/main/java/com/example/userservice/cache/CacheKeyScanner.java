@@ -0,0 +1,107 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Постраничный обход ключей одного кэша в Redis курсором {@code SCAN}.
+ *
+ * <p>Курсор Redis отдаётся клиенту как есть, поэтому между запросами сервис ничего не хранит, а в
+ * памяти держится только текущая страница. Размер страницы - ориентир: {@code COUNT} для SCAN лишь
+ * подсказка, страница может оказаться немного больше или, при редких совпадениях, меньше - тогда
+ * обход продолжается со следующим курсором.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheKeyScanner {
+
+  private static final String INITIAL_CURSOR = "0";
+  private static final Duration SCAN_TIMEOUT = Duration.ofSeconds(2);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final UserCacheProperties properties;
+
+  public CacheKeyPage page(String cacheName, String cursor, String prefix, int size) {
+    if (!CacheNames.ALL_CACHES.contains(cacheName)) {
+      throw new IllegalArgumentException("Unknown cache: " + cacheName);
+    }
+    int maxPageSize = properties.getStats().getMaxKeyPageSize();
+    if (size < 1 || size > maxPageSize) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+    }
+    String current = cursor == null || cursor.isBlank() ? INITIAL_CURSOR : cursor;
+    if (!current.chars().allMatch(Character::isDigit)) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    String keyPrefix = keyPrefix(cacheName);
+    String pattern = escape(keyPrefix + (prefix != null ? prefix : "")) + "*";
+    List<String> keys = new ArrayList<>(size);
+    int scans = 0;
+    do {
+      KeyScanCursor<byte[]> result = scan(current, pattern, size - keys.size());
+      for (byte[] key : result.getKeys()) {
+        keys.add(new String(key, StandardCharsets.UTF_8).substring(keyPrefix.length()));
+      }
+      current = result.isFinished() ? INITIAL_CURSOR : result.getCursor();
+      scans++;
+    } while (!INITIAL_CURSOR.equals(current)
+        && keys.size() < size
+        && scans < properties.getStats().getMaxScansPerPage());
+    return new CacheKeyPage(cacheName, keys, current, INITIAL_CURSOR.equals(current));
+  }
+
+  /** Префикс ключей кэша в Redis; представления пользователя в режиме хэша делят один ключ. */
+  private String keyPrefix(String cacheName) {
+    if (properties.getUserHash().isEnabled() && CacheNames.USER_CACHES.contains(cacheName)) {
+      return UserHashCache.KEY_PREFIX;
+    }
+    return generations.prefixFor(cacheName);
+  }
+
+  @SuppressWarnings("unchecked")
+  private KeyScanCursor<byte[]> scan(String cursor, String pattern, int count) {
+    // У RedisTemplate курсор SCAN всегда начинается с нуля, продолжить обход можно только через
+    // команды Lettuce
+    return stringRedisTemplate.execute(
+        (RedisCallback<KeyScanCursor<byte[]>>)
+            connection -> {
+              if (!(connection.getNativeConnection() instanceof RedisKeyAsyncCommands<?, ?> raw)) {
+                throw new IllegalStateException("Cursor paging requires a Lettuce connection");
+              }
+              RedisKeyAsyncCommands<byte[], byte[]> commands =
+                  (RedisKeyAsyncCommands<byte[], byte[]>) raw;
+              return LettuceFutures.awaitOrCancel(
+                  commands.scan(
+                      ScanCursor.of(cursor), ScanArgs.Builder.matches(pattern).limit(count)),
+                  SCAN_TIMEOUT.toMillis(),
+                  TimeUnit.MILLISECONDS);
+            });
+  }
+
+  /** Экранирует спецсимволы glob-шаблона SCAN, чтобы префикс искался буквально. */
+  static String escape(String value) {
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+        escaped.append('\\');
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+}
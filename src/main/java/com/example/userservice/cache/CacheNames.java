@@ -0,0 +1,36 @@
+package com.example.userservice.cache;
+
+import java.util.List;
+
+public final class CacheNames {
+
+  public static final String USERS = "users";
+  public static final String USERS_WITH_CARDS = "usersWithCards";
+  public static final String USER_CARDS = "userCards";
+  public static final String CARDS = "cards";
+
+  // Вторичные индексы: значение - идентификатор записи в первичном кэше
+  public static final String USER_IDS_BY_EMAIL = "userIdsByEmail";
+  public static final String CARD_IDS_BY_NUMBER = "cardIdsByNumber";
+
+  // Страницы списочных запросов, сбрасываются целиком при изменении сущностей своего типа
+  public static final String USER_PAGES = "userPages";
+  public static final String CARD_PAGES = "cardPages";
+
+  public static final List<String> USER_CACHES = List.of(USERS, USERS_WITH_CARDS, USER_CARDS);
+
+  public static final List<String> ALL_CACHES =
+      List.of(
+          USERS,
+          USERS_WITH_CARDS,
+          USER_CARDS,
+          CARDS,
+          USER_IDS_BY_EMAIL,
+          CARD_IDS_BY_NUMBER,
+          USER_PAGES,
+          CARD_PAGES);
+
+  private CacheNames() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+  }
+}
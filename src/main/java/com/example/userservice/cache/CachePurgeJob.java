@@ -0,0 +1,105 @@
+package com.example.userservice.cache;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Состояние фоновой очистки ключей кэша; отдаётся в API для опроса прогресса. Отмена кооперативная:
+ * очистка замечает её перед следующим ключом, уже удалённые порции не восстанавливаются.
+ */
+public class CachePurgeJob {
+
+  public enum Status {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final String pattern;
+  private final LocalDateTime startedAt = LocalDateTime.now();
+  private final AtomicLong scannedKeys = new AtomicLong();
+  private final AtomicLong deletedKeys = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private volatile Status status = Status.RUNNING;
+  private volatile boolean cancelRequested;
+  private volatile LocalDateTime finishedAt;
+  private volatile String error;
+
+  public CachePurgeJob(String pattern) {
+    this.pattern = pattern;
+  }
+
+  void recordBatch(int scanned, long deleted) {
+    scannedKeys.addAndGet(scanned);
+    deletedKeys.addAndGet(deleted);
+    batches.incrementAndGet();
+  }
+
+  void complete() {
+    finishedAt = LocalDateTime.now();
+    status = Status.COMPLETED;
+  }
+
+  /** Просит остановить очистку; {@code false}, если она уже завершилась. */
+  public boolean cancel() {
+    if (status != Status.RUNNING) {
+      return false;
+    }
+    cancelRequested = true;
+    return true;
+  }
+
+  boolean isCancelRequested() {
+    return cancelRequested;
+  }
+
+  void cancelled() {
+    finishedAt = LocalDateTime.now();
+    status = Status.CANCELLED;
+  }
+
+  void fail(String message) {
+    finishedAt = LocalDateTime.now();
+    error = message;
+    status = Status.FAILED;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getPattern() {
+    return pattern;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public LocalDateTime getStartedAt() {
+    return startedAt;
+  }
+
+  public LocalDateTime getFinishedAt() {
+    return finishedAt;
+  }
+
+  public long getScannedKeys() {
+    return scannedKeys.get();
+  }
+
+  public long getDeletedKeys() {
+    return deletedKeys.get();
+  }
+
+  public long getBatches() {
+    return batches.get();
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Потоковая очистка ключей по шаблону: SCAN порциями, каждая порция удаляется пачкой UNLINK в одном
+ * pipeline. В памяти держится только текущая порция, между порциями делается пауза, чтобы не
+ * занимать Redis надолго. Отмена задачи проверяется перед каждым ключом.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CachePurger {
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final UserCacheProperties properties;
+
+  public void purge(CachePurgeJob job) {
+    UserCacheProperties.Purge purge = properties.getPurge();
+    List<String> batch = new ArrayList<>(purge.getBatchSize());
+    ScanOptions options =
+        ScanOptions.scanOptions().match(job.getPattern()).count(purge.getBatchSize()).build();
+
+    try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        if (job.isCancelRequested()) {
+          job.cancelled();
+          log.info(
+              "Cache purge {} cancelled: scanned={}, deleted={}",
+              job.getId(),
+              job.getScannedKeys(),
+              job.getDeletedKeys());
+          return;
+        }
+        String key = cursor.next();
+        if (key.startsWith(CacheGenerations.KEY_PREFIX)) {
+          // Счётчики поколений не сбрасываем, иначе узлы вернутся к уже использованным префиксам
+          continue;
+        }
+        if (key.startsWith(OffHeapChangeLog.KEY_PREFIX)) {
+          // Без журнала изменений выключенные узлы оставили бы записи, изменённые до сброса
+          continue;
+        }
+        batch.add(key);
+        if (batch.size() >= purge.getBatchSize()) {
+          unlinkBatch(job, batch);
+          pause(purge.getPauseBetweenBatches().toMillis());
+        }
+      }
+      if (!batch.isEmpty()) {
+        unlinkBatch(job, batch);
+      }
+      job.complete();
+      log.info(
+          "Cache purge {} finished: scanned={}, deleted={}, batches={}",
+          job.getId(),
+          job.getScannedKeys(),
+          job.getDeletedKeys(),
+          job.getBatches());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.fail("Interrupted");
+      log.warn("Cache purge {} interrupted", job.getId());
+    } catch (Exception e) {
+      job.fail(e.getMessage());
+      log.error("Cache purge {} failed: {}", job.getId(), e.getMessage(), e);
+    }
+  }
+
+  private void unlinkBatch(CachePurgeJob job, List<String> batch) {
+    int chunkSize = properties.getPurge().getUnlinkChunkSize();
+    List<Object> results =
+        stringRedisTemplate.executePipelined(
+            (RedisCallback<Object>)
+                connection -> {
+                  for (int from = 0; from < batch.size(); from += chunkSize) {
+                    int to = Math.min(from + chunkSize, batch.size());
+                    unlink(connection, batch.subList(from, to));
+                  }
+                  return null;
+                });
+
+    long deleted = 0;
+    for (Object result : results) {
+      if (result instanceof Long count) {
+        deleted += count;
+      }
+    }
+    job.recordBatch(batch.size(), deleted);
+    log.debug(
+        "Cache purge {}: batch {} unlinked {} of {} keys",
+        job.getId(),
+        job.getBatches(),
+        deleted,
+        batch.size());
+    batch.clear();
+  }
+
+  private static void unlink(RedisConnection connection, List<String> keys) {
+    byte[][] rawKeys = new byte[keys.size()][];
+    for (int i = 0; i < keys.size(); i++) {
+      rawKeys[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+    }
+    connection.keyCommands().unlink(rawKeys);
+  }
+
+  private static void pause(long millis) throws InterruptedException {
+    if (millis > 0) {
+      Thread.sleep(millis);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.userservice.cache;
+
+import java.util.function.Function;
+
+/**
+ * Загрузчик записей одного кэша для фоновой перезагрузки в {@link RefreshAheadCache}.
+ *
+ * <p>Загрузчик из {@code get(key, valueLoader)} принадлежит вызову, который нашёл запись: он может
+ * держать состояние запроса и не обязан работать повторно в другом потоке. Поэтому перезагрузка
+ * идёт через отдельный загрузчик, который сам читает данные по ключу.
+ */
+public interface CacheRefreshLoader {
+
+  String getCacheName();
+
+  /** Свежее значение ключа; если записи больше нет, бросает исключение. */
+  Object load(Object key);
+
+  static CacheRefreshLoader of(String cacheName, Function<Object, ?> loader) {
+    return new CacheRefreshLoader() {
+      @Override
+      public String getCacheName() {
+        return cacheName;
+      }
+
+      @Override
+      public Object load(Object key) {
+        return loader.apply(key);
+      }
+    };
+  }
+}
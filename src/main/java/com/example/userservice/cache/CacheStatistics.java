@@ -0,0 +1,34 @@
+package com.example.userservice.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика кэшей, которая ведётся инкрементально и отдаётся за константное время, без обхода
+ * ключей в Redis.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheStatistics {
+
+  private final ConcurrentMap<String, CacheCounters> counters = new ConcurrentHashMap<>();
+  private final CacheEntryIndex entryIndex;
+  private final CacheGenerations generations;
+  private final MeterRegistry meterRegistry;
+
+  public CacheCounters counters(String cacheName) {
+    return counters.computeIfAbsent(cacheName, name -> new CacheCounters(name, meterRegistry));
+  }
+
+  public CacheStatsSnapshot snapshot(String cacheName) {
+    return CacheStatsSnapshot.of(
+        cacheName,
+        generations.current(cacheName),
+        entryIndex.count(cacheName),
+        counters(cacheName),
+        entryIndex.expiryDistribution(cacheName));
+  }
+}
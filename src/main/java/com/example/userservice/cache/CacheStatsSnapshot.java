@@ -0,0 +1,45 @@
+package com.example.userservice.cache;
+
+import java.util.Map;
+
+/** Сводка по одному кэшу для {@code /api/cache/stats}. */
+public record CacheStatsSnapshot(
+    String cacheName,
+    long generation,
+    long entries,
+    long hits,
+    long misses,
+    double hitRatio,
+    long puts,
+    long evictions,
+    long loads,
+    double averageLoadMillis,
+    long averagePayloadBytes,
+    Map<String, Long> expiryDistribution) {
+
+  static CacheStatsSnapshot of(
+      String cacheName,
+      long generation,
+      long entries,
+      CacheCounters counters,
+      Map<String, Long> expiryDistribution) {
+    long hits = counters.hits();
+    long misses = counters.misses();
+    long lookups = hits + misses;
+    long loads = counters.loads();
+    long payloads = counters.payloads();
+    return new CacheStatsSnapshot(
+        cacheName,
+        generation,
+        entries,
+        hits,
+        misses,
+        lookups == 0 ? 0.0 : (double) hits / lookups,
+        counters.puts(),
+        counters.evictions(),
+        loads,
+        loads == 0 ? 0.0 : counters.loadTimeNanos() / 1_000_000.0 / loads,
+        payloads == 0 ? 0 : counters.payloadBytes() / payloads,
+        expiryDistribution);
+  }
+}
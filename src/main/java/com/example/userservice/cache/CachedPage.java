@@ -0,0 +1,18 @@
+package com.example.userservice.cache;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Страница списочного запроса в кэше: содержимое и общее число элементов для ответа. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedPage {
+
+  private List<Object> content;
+  private long totalElements;
+}
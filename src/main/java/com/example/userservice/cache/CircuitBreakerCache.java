@@ -0,0 +1,171 @@
+package com.example.userservice.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Пропускает обращения к Redis через {@link CacheCircuitBreaker}.
+ *
+ * <p>Пока breaker разомкнут, чтения возвращают промах (значение грузится из БД, локальный уровень
+ * выше продолжает работать), записи в кэш пропускаются. Ошибки Redis не пробрасываются в сервисы, а
+ * засчитываются breaker'у. Удаления, которые пришлось пропустить, нельзя просто забыть: после
+ * восстановления кэш целиком сбрасывается сменой поколения.
+ */
+@Slf4j
+public class CircuitBreakerCache extends DelegatingCache {
+
+  private final CacheCircuitBreaker breaker;
+  private final AtomicBoolean stale = new AtomicBoolean();
+
+  public CircuitBreakerCache(Cache delegate, CacheCircuitBreaker breaker) {
+    super(delegate);
+    this.breaker = breaker;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return call(() -> delegate.get(key), null);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return call(() -> delegate.get(key, type), null);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    // Загрузка из БД не должна засчитываться как медленный вызов Redis, поэтому чтение, загрузка и
+    // запись разнесены; параллельные промахи схлопывает SingleFlightCache выше по цепочке
+    ValueWrapper cached = get(key);
+    if (cached != null && cached.get() != null) {
+      return (T) cached.get();
+    }
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    run(() -> delegate.put(key, value), false);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return call(() -> delegate.putIfAbsent(key, value), null);
+  }
+
+  @Override
+  public void evict(Object key) {
+    run(() -> delegate.evict(key), true);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    Boolean evicted = call(() -> delegate.evictIfPresent(key), null);
+    if (evicted == null) {
+      stale.set(true);
+      return false;
+    }
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    run(delegate::clear, true);
+  }
+
+  @Override
+  public boolean invalidate() {
+    Boolean invalidated = call(delegate::invalidate, null);
+    if (invalidated == null) {
+      stale.set(true);
+      return false;
+    }
+    return invalidated;
+  }
+
+  boolean isStale() {
+    return stale.get();
+  }
+
+  private void run(Runnable operation, boolean invalidating) {
+    Boolean done =
+        call(
+            () -> {
+              operation.run();
+              return Boolean.TRUE;
+            },
+            null);
+    if (done == null && invalidating) {
+      stale.set(true);
+    }
+  }
+
+  /**
+   * Выполняет обращение к Redis через breaker: при разомкнутом breaker или сбое Redis возвращает
+   * {@code fallback}. Через него же идут пакетные операции в обход цепочки, см. {@link
+   * CacheBatchOperations}.
+   */
+  <T> T call(Supplier<T> operation, T fallback) {
+    if (!breaker.tryAcquire()) {
+      return fallback;
+    }
+    if (!reconcile()) {
+      return fallback;
+    }
+    long start = System.nanoTime();
+    boolean failed = false;
+    try {
+      return operation.get();
+    } catch (DataAccessException e) {
+      failed = true;
+      log.debug("Cache {} unavailable, falling back: {}", getName(), e.getMessage());
+      return fallback;
+    } finally {
+      // Прочие исключения (например, сериализации) - не сбой Redis, но исход нужно учесть, иначе
+      // пробный вызов в полуоткрытом состоянии не вернётся в breaker
+      record(failed, start);
+    }
+  }
+
+  /** Сбрасывает кэш, если пока Redis был недоступен, удаления пропускались. */
+  private boolean reconcile() {
+    if (!stale.compareAndSet(true, false)) {
+      return true;
+    }
+    long start = System.nanoTime();
+    boolean failed = false;
+    try {
+      delegate.clear();
+      log.info("Cache {} cleared after Redis recovery: evictions were skipped", getName());
+      return true;
+    } catch (DataAccessException e) {
+      failed = true;
+      stale.set(true);
+      return false;
+    } finally {
+      record(failed, start);
+    }
+  }
+
+  private void record(boolean failed, long start) {
+    if (failed) {
+      breaker.onFailure();
+    } else {
+      breaker.onSuccess(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(60)
+@RequiredArgsConstructor
+public class CircuitBreakerCacheDecorator implements CacheDecorator {
+
+  private final UserCacheProperties properties;
+  private final CacheCircuitBreaker breaker;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    if (!properties.getCircuitBreaker().isEnabled()) {
+      return cache;
+    }
+    // Над Redis и учётом записей, но под локальным уровнем: он продолжает отвечать при аварии
+    return new CircuitBreakerCache(cache, breaker);
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.userservice.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+/** Базовый декоратор {@link Cache}: по умолчанию все операции делегируются обёрнутому кэшу. */
+public abstract class DelegatingCache implements Cache {
+
+  protected final Cache delegate;
+
+  protected DelegatingCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return delegate.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return delegate.get(key, type);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    return delegate.get(key, valueLoader);
+  }
+
+  @Override
+  public CompletableFuture<?> retrieve(Object key) {
+    return delegate.retrieve(key);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+    return delegate.retrieve(key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return delegate.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    return delegate.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    return delegate.invalidate();
+  }
+
+  /** Ищет в цепочке декораторов кэш заданного типа, {@code null} если его нет. */
+  public static <T extends Cache> T unwrap(Cache cache, Class<T> type) {
+    Cache current = cache;
+    while (current != null) {
+      if (type.isInstance(current)) {
+        return type.cast(current);
+      }
+      current = current instanceof DelegatingCache delegating ? delegating.getDelegate() : null;
+    }
+    return null;
+  }
+
+  /** TTL записи по конфигурации Redis-кэша в основании цепочки, {@code null} если он неизвестен. */
+  protected Duration redisTtl(Object key, Object value) {
+    UserHashCache userHashCache = unwrap(delegate, UserHashCache.class);
+    if (userHashCache != null) {
+      return userHashCache.ttl(key, value);
+    }
+    RedisCache redisCache = unwrap(delegate, RedisCache.class);
+    if (redisCache == null) {
+      return null;
+    }
+    return redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+  }
+
+  protected static <T> T requireType(Object value, Class<T> type) {
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    @SuppressWarnings("unchecked")
+    T result = (T) value;
+    return result;
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.userservice.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.cache.Cache;
+
+/**
+ * Декоратор непосредственно над Redis: ведёт {@link CacheEntryIndex} и считает записи и удаления,
+ * которые действительно дошли до Redis.
+ *
+ * <p>Если для кэша задан бюджет, раз в {@value #BUDGET_CHECK_INTERVAL} записей лишние записи
+ * удаляются, начиная с ближайших к истечению.
+ */
+public class EntryTrackingCache extends DelegatingCache {
+
+  static final int BUDGET_CHECK_INTERVAL = 64;
+
+  private final CacheEntryIndex entryIndex;
+  private final CacheCounters counters;
+  private final CacheBudget budget;
+  private final CacheGenerations generations;
+  private final AtomicLong putsSinceBudgetCheck = new AtomicLong();
+
+  public EntryTrackingCache(
+      Cache delegate,
+      CacheEntryIndex entryIndex,
+      CacheCounters counters,
+      CacheBudget budget,
+      CacheGenerations generations) {
+    super(delegate);
+    this.entryIndex = entryIndex;
+    this.counters = counters;
+    this.budget = budget;
+    this.generations = generations;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper cached = delegate.get(key);
+    if (cached != null) {
+      return (T) cached.get();
+    }
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+    if (value != null) {
+      counters.recordPut();
+      entryIndex.record(getName(), key, redisTtl(key, value));
+      enforceBudget();
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = delegate.putIfAbsent(key, value);
+    if (existing == null && value != null) {
+      counters.recordPut();
+      entryIndex.record(getName(), key, redisTtl(key, value));
+      enforceBudget();
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+    // RedisCache не сообщает, была ли запись, поэтому её наличие подтверждает индекс
+    if (entryIndex.remove(getName(), key)) {
+      counters.recordEviction();
+    }
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = delegate.evictIfPresent(key);
+    boolean indexed = entryIndex.remove(getName(), key);
+    if (evicted || indexed) {
+      counters.recordEviction();
+    }
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    entryIndex.clear(getName());
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = delegate.invalidate();
+    entryIndex.clear(getName());
+    return invalidated;
+  }
+
+  private void enforceBudget() {
+    if (budget == null || putsSinceBudgetCheck.incrementAndGet() % BUDGET_CHECK_INTERVAL != 0) {
+      return;
+    }
+    long limit = budget.entryLimit();
+    if (limit == Long.MAX_VALUE) {
+      return;
+    }
+    String keyPrefix =
+        unwrap(delegate, UserHashCache.class) != null
+            ? UserHashCache.KEY_PREFIX
+            : generations.prefixFor(getName());
+    long evicted = entryIndex.trimTo(getName(), limit, keyPrefix);
+    if (evicted > 0) {
+      counters.recordEvictions(evicted);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.CachePolicyProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(50)
+@RequiredArgsConstructor
+public class EntryTrackingCacheDecorator implements CacheDecorator {
+
+  private final CacheEntryIndex entryIndex;
+  private final CacheStatistics statistics;
+  private final CachePolicyProperties policies;
+  private final CacheGenerations generations;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    CacheCounters counters = statistics.counters(cache.getName());
+    CachePolicyProperties.Policy policy = policies.policyFor(cache.getName());
+    CacheBudget budget =
+        policy.hasBudget()
+            ? new CacheBudget(policy.getMaxEntries(), policy.getMaxBytes(), counters)
+            : null;
+    return new EntryTrackingCache(cache, entryIndex, counters, budget, generations);
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.userservice.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Кэш, у которого полный сброс заменён сменой поколения: вместо обхода и удаления ключей делается
+ * один INCR, старые записи истекают по TTL.
+ */
+public class GenerationalCache extends DelegatingCache {
+
+  private final CacheGenerations generations;
+
+  public GenerationalCache(Cache delegate, CacheGenerations generations) {
+    super(delegate);
+    this.generations = generations;
+  }
+
+  @Override
+  public void clear() {
+    generations.advance(getName());
+  }
+
+  @Override
+  public boolean invalidate() {
+    generations.advance(getName());
+    return true;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(10)
+@RequiredArgsConstructor
+public class GenerationalCacheDecorator implements CacheDecorator {
+
+  private final CacheGenerations generations;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    if (!generations.isEnabled()) {
+      return cache;
+    }
+    generations.track(cache.getName());
+    return new GenerationalCache(cache, generations);
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Считает обращения к ключам пользователей и периодически сбрасывает счётчики в ZSET Redis, откуда
+ * их читает прогрев кэша при следующем запуске.
+ *
+ * <p>Счёт ведётся локально и уходит в Redis одним pipeline раз в {@code flush-interval} и при
+ * остановке узла. В ZSET остаются только {@code max-keys} самых частых ключей. Локально ключи
+ * хранятся как есть, в строку они переводятся только при сбросе, а не на каждом чтении.
+ */
+@Slf4j
+@Component
+public class HotKeyRecorder {
+
+  public static final String HOT_KEYS_KEY = "user-service:hotkeys:users";
+
+  private static final Duration HOT_KEYS_TTL = Duration.ofDays(7);
+
+  private final Map<Object, LongAdder> counts = new ConcurrentHashMap<>();
+  private final AtomicLong lastFlushAt = new AtomicLong(System.currentTimeMillis());
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ThreadPoolTaskExecutor cacheMaintenanceExecutor;
+  private final Set<String> cacheNames;
+  private final int maxKeys;
+  private final long maxTrackedKeys;
+  private final long flushIntervalMillis;
+
+  public HotKeyRecorder(
+      StringRedisTemplate stringRedisTemplate,
+      ThreadPoolTaskExecutor cacheMaintenanceExecutor,
+      UserCacheProperties properties) {
+    UserCacheProperties.WarmUp warmUp = properties.getWarmUp();
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.cacheMaintenanceExecutor = cacheMaintenanceExecutor;
+    this.cacheNames = warmUp.isEnabled() ? Set.copyOf(warmUp.getCacheNames()) : Set.of();
+    this.maxKeys = warmUp.getMaxKeys();
+    this.maxTrackedKeys = warmUp.getMaxTrackedKeys();
+    this.flushIntervalMillis = warmUp.getFlushInterval().toMillis();
+  }
+
+  public boolean isTracked(String cacheName) {
+    return cacheNames.contains(cacheName);
+  }
+
+  public void record(Object key) {
+    if (key == null) {
+      return;
+    }
+    LongAdder count = counts.get(key);
+    if (count == null) {
+      if (counts.size() >= maxTrackedKeys) {
+        // Новые ключи сверх лимита не учитываем до следующего сброса
+        return;
+      }
+      count = counts.computeIfAbsent(key, k -> new LongAdder());
+    }
+    count.increment();
+    scheduleFlushIfDue();
+  }
+
+  private void scheduleFlushIfDue() {
+    long last = lastFlushAt.get();
+    long now = System.currentTimeMillis();
+    if (now - last < flushIntervalMillis || !lastFlushAt.compareAndSet(last, now)) {
+      return;
+    }
+    try {
+      cacheMaintenanceExecutor.execute(this::flush);
+    } catch (TaskRejectedException e) {
+      log.debug("Hot key flush skipped, maintenance executor is busy");
+    }
+  }
+
+  @PreDestroy
+  public void flush() {
+    if (counts.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<String, Long>> snapshot = new ArrayList<>(counts.size());
+    counts.forEach(
+        (key, count) -> snapshot.add(Map.entry(String.valueOf(key), count.sumThenReset())));
+    counts.clear();
+    byte[] rawKey = HOT_KEYS_KEY.getBytes(StandardCharsets.UTF_8);
+    try {
+      stringRedisTemplate.executePipelined(
+          (RedisCallback<Object>)
+              connection -> {
+                for (Map.Entry<String, Long> entry : snapshot) {
+                  if (entry.getValue() > 0) {
+                    connection
+                        .zSetCommands()
+                        .zIncrBy(
+                            rawKey,
+                            entry.getValue(),
+                            entry.getKey().getBytes(StandardCharsets.UTF_8));
+                  }
+                }
+                connection.zSetCommands().zRemRange(rawKey, 0, -(maxKeys + 1L));
+                connection.keyCommands().pExpire(rawKey, HOT_KEYS_TTL.toMillis());
+                return null;
+              });
+      log.debug("Flushed access counts of {} hot keys", snapshot.size());
+    } catch (Exception e) {
+      // Потеря одного интервала счётчиков лишь немного ухудшит прогрев
+      log.warn("Failed to flush hot keys: {}", e.getMessage());
+    }
+  }
+
+  /** Самые частые ключи по убыванию числа обращений. */
+  public List<String> hotKeys(int limit) {
+    Set<String> keys = stringRedisTemplate.opsForZSet().reverseRange(HOT_KEYS_KEY, 0, limit - 1L);
+    return keys != null ? new ArrayList<>(keys) : List.of();
+  }
+}
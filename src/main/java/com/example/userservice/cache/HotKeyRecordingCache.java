@@ -0,0 +1,33 @@
+package com.example.userservice.cache;
+
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+
+/** Передаёт {@link HotKeyRecorder} каждое чтение ключа. */
+public class HotKeyRecordingCache extends DelegatingCache {
+
+  private final HotKeyRecorder recorder;
+
+  public HotKeyRecordingCache(Cache delegate, HotKeyRecorder recorder) {
+    super(delegate);
+    this.recorder = recorder;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    recorder.record(key);
+    return delegate.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    recorder.record(key);
+    return delegate.get(key, type);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    recorder.record(key);
+    return delegate.get(key, valueLoader);
+  }
+}
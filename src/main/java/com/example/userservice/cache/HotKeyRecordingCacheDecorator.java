@@ -0,0 +1,22 @@
+package com.example.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(1100)
+@RequiredArgsConstructor
+public class HotKeyRecordingCacheDecorator implements CacheDecorator {
+
+  private final HotKeyRecorder recorder;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    if (!recorder.isTracked(cache.getName())) {
+      return cache;
+    }
+    return new HotKeyRecordingCache(cache, recorder);
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.userservice.cache;
+
+import java.time.Duration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * TTL с разбросом {@code ±jitter} от базового значения, чтобы записи, созданные одновременно, не
+ * истекали одновременно.
+ *
+ * <p>Разброс вычисляется из хэша ключа, а не случайно при каждом вызове: один и тот же ключ всегда
+ * получает один и тот же TTL, поэтому индекс записей и refresh-ahead видят реальный срок истечения.
+ */
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+
+  private final Duration ttl;
+  private final double jitter;
+
+  public JitteredTtlFunction(Duration ttl, double jitter) {
+    this.ttl = ttl;
+    this.jitter = Math.max(0.0, Math.min(jitter, 1.0));
+  }
+
+  @Override
+  public Duration getTimeToLive(Object key, Object value) {
+    if (jitter == 0.0 || ttl.isZero() || ttl.isNegative()) {
+      return ttl;
+    }
+    double factor = 1.0 + jitter * (2.0 * unitHash(key) - 1.0);
+    return Duration.ofMillis(Math.max(1, Math.round(ttl.toMillis() * factor)));
+  }
+
+  /** Равномерно распределённое значение из {@code [0, 1)}, детерминированное для ключа. */
+  static double unitHash(Object key) {
+    // Финализатор SplitMix64 перемешивает слабый String.hashCode()
+    long z = String.valueOf(key).hashCode() + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (z >>> 11) * 0x1.0p-53;
+  }
+}
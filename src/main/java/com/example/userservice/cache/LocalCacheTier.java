@@ -0,0 +1,11 @@
+package com.example.userservice.cache;
+
+import java.util.Collection;
+
+/** Локальный (in-process) уровень кэша, который сбрасывается по сообщениям от других узлов. */
+public interface LocalCacheTier {
+
+  void invalidateLocal(Collection<String> keys);
+
+  void clearLocal();
+}
@@ -0,0 +1,137 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import com.github.benmanes.caffeine.cache.Weigher;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.cache.Cache;
+
+/**
+ * Оценка занимаемой записью памяти кучи в байтах для ограничения локального уровня по весу.
+ *
+ * <p>Оценка грубая (64-битная JVM со сжатыми указателями), но пропорциональная: пользователь с
+ * десятком карт весит в несколько раз больше, чем {@link UserResponseDTO}. Обход не рефлексивный,
+ * чтобы не нагружать путь записи.
+ */
+public final class LocalCacheWeigher implements Weigher<String, Object> {
+
+  // Заголовок объекта и выравнивание
+  private static final int OBJECT = 16;
+  private static final int REFERENCE = 4;
+  private static final int BOXED = 16;
+  private static final int LOCAL_DATE = 24;
+  // LocalDateTime + LocalDate + LocalTime
+  private static final int LOCAL_DATE_TIME = 72;
+  // Запись в хэш-таблице Caffeine: узел, ссылки, метаданные политики
+  private static final int ENTRY = 64;
+  private static final int UNKNOWN = 256;
+
+  @Override
+  public int weigh(String key, Object value) {
+    long weight = ENTRY + string(key) + estimate(value);
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  static long estimate(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof Cache.ValueWrapper wrapper) {
+      // Обёртка, в которой значения лежат в L1
+      return OBJECT + estimate(wrapper.get());
+    }
+    if (value instanceof UserResponseDTO user) {
+      return user(user);
+    }
+    if (value instanceof UserWithCardsResponseDTO user) {
+      return userWithCards(user);
+    }
+    if (value instanceof PaymentCardResponseDTO card) {
+      return card(card);
+    }
+    if (value instanceof String string) {
+      return string(string);
+    }
+    if (value instanceof Number || value instanceof Boolean) {
+      return BOXED;
+    }
+    if (value instanceof Collection<?> collection) {
+      long weight = collection(collection.size());
+      for (Object element : collection) {
+        weight += estimate(element);
+      }
+      return weight;
+    }
+    return UNKNOWN;
+  }
+
+  private static long user(UserResponseDTO user) {
+    return OBJECT
+        + 8 * REFERENCE
+        + boxed(user.getId())
+        + string(user.getName())
+        + string(user.getSurname())
+        + date(user.getBirthDate())
+        + string(user.getEmail())
+        + dateTime(user.getCreatedAt())
+        + dateTime(user.getUpdatedAt());
+  }
+
+  private static long userWithCards(UserWithCardsResponseDTO user) {
+    long weight =
+        OBJECT
+            + 9 * REFERENCE
+            + boxed(user.getId())
+            + string(user.getName())
+            + string(user.getSurname())
+            + date(user.getBirthDate())
+            + string(user.getEmail())
+            + dateTime(user.getCreatedAt())
+            + dateTime(user.getUpdatedAt());
+    if (user.getPaymentCards() != null) {
+      weight += estimate(user.getPaymentCards());
+    }
+    return weight;
+  }
+
+  private static long card(PaymentCardResponseDTO card) {
+    return OBJECT
+        + 8 * REFERENCE
+        + boxed(card.getId())
+        + boxed(card.getUserId())
+        + string(card.getNumber())
+        + string(card.getHolder())
+        + date(card.getExpirationDate())
+        + dateTime(card.getCreatedAt())
+        + dateTime(card.getUpdatedAt());
+  }
+
+  private static long collection(int size) {
+    // ArrayList и его массив
+    return 24 + OBJECT + (long) size * REFERENCE;
+  }
+
+  private static long string(String value) {
+    // String + byte[]; считаем по два байта на символ - имена обычно не Latin-1
+    return value != null ? 24 + align(OBJECT + 2L * value.length()) : 0;
+  }
+
+  private static long boxed(Object value) {
+    return value != null ? BOXED : 0;
+  }
+
+  private static long date(LocalDate value) {
+    return value != null ? LOCAL_DATE : 0;
+  }
+
+  private static long dateTime(LocalDateTime value) {
+    return value != null ? LOCAL_DATE_TIME : 0;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики политики вытеснения локального уровня (W-TinyLFU Caffeine) одного кэша.
+ *
+ * <p>Каждая запись в L1 - кандидат на допуск. Caffeine не сообщает, кто проиграл сравнение частот -
+ * кандидат или жертва, поэтому отказом в допуске считается вытеснение по весу записи, которую ни
+ * разу не прочитали из L1: так выглядит вытеснение разового значения, например от сканирующего
+ * списочного запроса. Вытеснение прочитанной записи учитывается как обычное.
+ */
+public class LocalTierMetrics implements RemovalListener<String, Object> {
+
+  private final LongAdder admissions = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final Set<String> hitKeys = ConcurrentHashMap.newKeySet();
+  private final String cacheName;
+  private final MeterRegistry registry;
+
+  public LocalTierMetrics() {
+    this.cacheName = null;
+    this.registry = null;
+  }
+
+  public LocalTierMetrics(String cacheName, MeterRegistry registry) {
+    this.cacheName = cacheName;
+    this.registry = registry;
+    Tags tags = Tags.of("cache", cacheName);
+    functionCounter("cache.local.admissions", tags, admissions, "Entries offered to the L1 tier");
+    functionCounter(
+        "cache.local.rejections",
+        tags,
+        rejections,
+        "L1 entries evicted by weight before their first local hit");
+    functionCounter(
+        "cache.local.evictions", tags, evictions, "L1 entries evicted by weight after a local hit");
+  }
+
+  private void functionCounter(String name, Tags tags, LongAdder adder, String description) {
+    FunctionCounter.builder(name, adder, LongAdder::sum)
+        .description(description)
+        .tags(tags)
+        .register(registry);
+  }
+
+  /** Публикует текущий и предельный вес уровня; вызывается после создания кэша Caffeine. */
+  public void bind(Cache<String, Object> local) {
+    if (registry == null) {
+      return;
+    }
+    Tags tags = Tags.of("cache", cacheName);
+    Gauge.builder("cache.local.weight", local, LocalTierMetrics::weightedSize)
+        .description("Estimated heap size of L1 entries")
+        .baseUnit("bytes")
+        .tags(tags)
+        .register(registry);
+    Gauge.builder("cache.local.max.weight", local, LocalTierMetrics::maximumWeight)
+        .description("L1 weight bound")
+        .baseUnit("bytes")
+        .tags(tags)
+        .register(registry);
+  }
+
+  private static double weightedSize(Cache<String, Object> local) {
+    return local.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+  }
+
+  private static double maximumWeight(Cache<String, Object> local) {
+    return local.policy().eviction().map(eviction -> eviction.getMaximum()).orElse(0L);
+  }
+
+  public void recordAdmission(String key) {
+    admissions.increment();
+    hitKeys.remove(key);
+  }
+
+  public void recordHit(String key) {
+    hitKeys.add(key);
+  }
+
+  @Override
+  public void onRemoval(String key, Object value, RemovalCause cause) {
+    boolean hit = key != null && hitKeys.remove(key);
+    if (cause != RemovalCause.SIZE) {
+      return;
+    }
+    if (hit) {
+      evictions.increment();
+    } else {
+      rejections.increment();
+    }
+  }
+
+  public long getAdmissions() {
+    return admissions.sum();
+  }
+
+  public long getRejections() {
+    return rejections.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+}
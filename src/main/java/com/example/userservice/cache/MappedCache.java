@@ -0,0 +1,234 @@
+package com.example.userservice.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Локальный уровень кэша вне heap: сериализованные значения лежат в {@link MappedSegmentStore} и
+ * переживают перезапуск узла.
+ *
+ * <p>Работает как {@link NearCache}, но без объектов в heap: при чтении значение каждый раз
+ * десериализуется. Записи проверяются по поколению кэша, поэтому сброс, сделанный, пока узел был
+ * выключен, не вернёт старые данные; о поштучных изменениях за это время узнаём по {@link
+ * OffHeapChangeLog}, куда попадает каждая запись и удаление ключа. Если над уровнем нет {@link
+ * NearCache}, инвалидации остальным узлам рассылает этот уровень в том же обращении к Redis.
+ *
+ * <p>Как и у {@link NearCache}, пока {@code localEnabled} возвращает {@code false}, уровень не
+ * используется и все обращения идут прямо в Redis.
+ */
+@Slf4j
+public class MappedCache extends DelegatingCache implements LocalCacheTier {
+
+  private final MappedSegmentStore store;
+  private final RedisSerializer<Object> serializer;
+  private final CacheGenerations generations;
+  private final NearCacheInvalidator invalidator;
+  private final OffHeapChangeLog changes;
+  private final long ttlMillis;
+  private final boolean publish;
+  private final BooleanSupplier localEnabled;
+
+  public MappedCache(
+      Cache delegate,
+      MappedSegmentStore store,
+      RedisSerializer<Object> serializer,
+      CacheGenerations generations,
+      NearCacheInvalidator invalidator,
+      OffHeapChangeLog changes,
+      long ttlMillis,
+      boolean publish) {
+    this(
+        delegate,
+        store,
+        serializer,
+        generations,
+        invalidator,
+        changes,
+        ttlMillis,
+        publish,
+        () -> true);
+  }
+
+  public MappedCache(
+      Cache delegate,
+      MappedSegmentStore store,
+      RedisSerializer<Object> serializer,
+      CacheGenerations generations,
+      NearCacheInvalidator invalidator,
+      OffHeapChangeLog changes,
+      long ttlMillis,
+      boolean publish,
+      BooleanSupplier localEnabled) {
+    super(delegate);
+    this.store = store;
+    this.serializer = serializer;
+    this.generations = generations;
+    this.invalidator = invalidator;
+    this.changes = changes;
+    this.ttlMillis = ttlMillis;
+    this.publish = publish;
+    this.localEnabled = localEnabled;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    if (!localEnabled.getAsBoolean()) {
+      return delegate.get(key);
+    }
+    Object value = peekLocal(key);
+    if (value != null) {
+      return new SimpleValueWrapper(value);
+    }
+    ValueWrapper wrapper = delegate.get(key);
+    if (wrapper != null) {
+      putLocal(key, wrapper.get());
+    }
+    return wrapper;
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    return wrapper != null ? requireType(wrapper.get(), type) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    if (!localEnabled.getAsBoolean()) {
+      return delegate.get(key, valueLoader);
+    }
+    Object value = peekLocal(key);
+    if (value != null) {
+      return (T) value;
+    }
+    T loaded = delegate.get(key, valueLoader);
+    putLocal(key, loaded);
+    return loaded;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+    if (value != null && localEnabled.getAsBoolean()) {
+      putLocal(key, value);
+    } else {
+      store.remove(List.of(localKey(key)));
+    }
+    changed(key);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = delegate.putIfAbsent(key, value);
+    store.remove(List.of(localKey(key)));
+    if (existing == null) {
+      changed(key);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+    store.remove(List.of(localKey(key)));
+    changed(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = delegate.evictIfPresent(key);
+    store.remove(List.of(localKey(key)));
+    changed(key);
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    store.clear();
+    if (publish) {
+      invalidator.publishClear(getName());
+    }
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = delegate.invalidate();
+    store.clear();
+    if (publish) {
+      invalidator.publishClear(getName());
+    }
+    return invalidated;
+  }
+
+  @Override
+  public void invalidateLocal(Collection<String> keys) {
+    store.remove(keys);
+  }
+
+  @Override
+  public void clearLocal() {
+    store.clear();
+  }
+
+  /** Значение из локального уровня без обращения к Redis, {@code null} при промахе. */
+  public Object peekLocal(Object key) {
+    if (!localEnabled.getAsBoolean()) {
+      return null;
+    }
+    String localKey = localKey(key);
+    byte[] bytes = store.get(localKey, generations.current(getName()), System.currentTimeMillis());
+    if (bytes == null) {
+      return null;
+    }
+    try {
+      return serializer.deserialize(bytes);
+    } catch (SerializationException e) {
+      log.debug("Dropping unreadable off-heap entry {} of cache {}", localKey, getName());
+      store.remove(List.of(localKey));
+      return null;
+    }
+  }
+
+  /** Кладёт в локальный уровень значение, которое уже записано в Redis. */
+  public void putLocal(Object key, Object value) {
+    if (value == null || !localEnabled.getAsBoolean()) {
+      return;
+    }
+    try {
+      byte[] bytes = serializer.serialize(value);
+      if (bytes != null) {
+        store.put(
+            localKey(key),
+            bytes,
+            generations.current(getName()),
+            System.currentTimeMillis() + ttlMillis);
+      }
+    } catch (SerializationException e) {
+      log.debug("Value of cache {} is not stored off-heap: {}", getName(), e.getMessage());
+    }
+  }
+
+  public int localSize() {
+    return store.size();
+  }
+
+  private void changed(Object key) {
+    // Изменение записывается и тогда, когда рассылает NearCache: по журналу решают узлы после
+    // рестарта
+    List<String> keys = List.of(localKey(key));
+    changes.record(getName(), keys, publish ? invalidator.evictMessage(getName(), keys) : null);
+  }
+
+  static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
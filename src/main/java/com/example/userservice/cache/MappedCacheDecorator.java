@@ -0,0 +1,95 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(90)
+public class MappedCacheDecorator implements CacheDecorator, DisposableBean {
+
+  private final UserCacheProperties properties;
+  private final RedisSerializer<Object> cacheValueSerializer;
+  private final CacheGenerations generations;
+  private final NearCacheInvalidator invalidator;
+  private final OffHeapChangeLog changes;
+  private final RedisTrackingInvalidator trackingInvalidator;
+  private final Map<String, MappedSegmentStore> stores = new ConcurrentHashMap<>();
+  private final Map<String, Long> openedAt = new ConcurrentHashMap<>();
+
+  public MappedCacheDecorator(
+      UserCacheProperties properties,
+      RedisSerializer<Object> cacheValueSerializer,
+      CacheGenerations generations,
+      NearCacheInvalidator invalidator,
+      OffHeapChangeLog changes,
+      RedisTrackingInvalidator trackingInvalidator) {
+    this.properties = properties;
+    this.cacheValueSerializer = cacheValueSerializer;
+    this.generations = generations;
+    this.invalidator = invalidator;
+    this.changes = changes;
+    this.trackingInvalidator = trackingInvalidator;
+  }
+
+  @Override
+  public Cache decorate(Cache cache) {
+    UserCacheProperties.OffHeap offHeap = properties.getOffHeap();
+    if (!offHeap.isEnabled() || !offHeap.getCacheNames().contains(cache.getName())) {
+      return cache;
+    }
+    MappedSegmentStore store =
+        new MappedSegmentStore(
+            Path.of(offHeap.getDirectory()).resolve(cache.getName()),
+            offHeap.getSegmentCount(),
+            (int) offHeap.getSegmentSize().toBytes());
+    // Изменения ищутся с момента остановки; открытие запоминается, чтобы после старта подобрать
+    // изменения, сделанные, пока узел ещё не подписался на инвалидации
+    long opened = System.currentTimeMillis();
+    Long closedAt = store.closedAt();
+    store.retainUnchanged(
+        closedAt != null ? changes.changedSince(cache.getName(), closedAt) : null);
+    stores.put(cache.getName(), store);
+    openedAt.put(cache.getName(), opened);
+    UserCacheProperties.NearCache nearCache = properties.getNearCache();
+    // Над уровнем вне heap инвалидации рассылает NearCache, если он включён для этого кэша
+    boolean publish =
+        !nearCache.isEnabled() || !nearCache.getCacheNames().contains(cache.getName());
+    MappedCache mapped =
+        new MappedCache(
+            cache,
+            store,
+            cacheValueSerializer,
+            generations,
+            invalidator,
+            changes,
+            offHeap.getTtl().toMillis(),
+            publish,
+            trackingInvalidator::isLocalCachingAllowed);
+    invalidator.register(cache.getName(), mapped);
+    return mapped;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void catchUp() {
+    openedAt.forEach(
+        (cacheName, since) -> {
+          // Если журнал не прочитать, уровень сбрасывается: иначе пропущенные изменения потеряются
+          stores.get(cacheName).retainUnchanged(changes.changedSince(cacheName, since));
+        });
+    openedAt.clear();
+  }
+
+  @Override
+  public void destroy() {
+    stores.values().forEach(MappedSegmentStore::shutdown);
+  }
+}
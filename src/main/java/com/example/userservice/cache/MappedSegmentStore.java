@@ -0,0 +1,545 @@
+package com.example.userservice.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Хранилище сериализованных записей вне heap в отображённых в память файлах-сегментах.
+ *
+ * <p>Сегменты заполняются по кругу как журнал: запись - {@code [длина][флаг][поколение][истекает]
+ * [длина ключа][ключ][значение]}, удаление - такая же запись с флагом и без значения. Когда место
+ * кончается, самый старый сегмент очищается. В heap лежит только индекс открытой адресации на двух
+ * массивах {@code long}: 64-битный хэш ключа и упакованные номер сегмента, номер его заполнения и
+ * смещение записи - около 16 байт на слот без объектов на запись. Сам ключ хранится в записи и
+ * сверяется при чтении. Записи очищенного сегмента узнаются по номеру заполнения и не требуют
+ * обхода индекса.
+ *
+ * <p>При открытии сегменты прочитываются заново и индекс восстанавливается, поэтому узел после
+ * перезапуска стартует с заполненным уровнем. Каждая запись хранит поколение кэша на момент записи;
+ * записи другого поколения и истёкшие записи при чтении считаются промахом. Файлы с другим
+ * заголовком (другая версия формата) отбрасываются целиком.
+ *
+ * <p>Поштучные удаления, разосланные, пока узел был выключен, до хранилища не доходят. Поэтому при
+ * остановке рядом с сегментами сохраняется момент остановки, а после открытия {@link
+ * #retainUnchanged(Collection)} удаляет ключи, изменённые с тех пор по {@link OffHeapChangeLog}.
+ * Без метки (узел упал) записи отбрасываются целиком.
+ */
+@Slf4j
+public class MappedSegmentStore implements Closeable {
+
+  private static final int MAGIC = 0x5553_4d43;
+  static final int FORMAT_VERSION = 1;
+  // magic(4) + версия формата(4) + порядковый номер заполнения сегмента(8)
+  private static final int HEADER_LENGTH = 16;
+  // флаг(1) + поколение(8) + истекает(8) + длина ключа(2)
+  private static final int RECORD_META_LENGTH = 19;
+  private static final byte FLAG_PUT = 0;
+  private static final byte FLAG_DELETE = 1;
+  private static final String CLOSED_AT_FILE = "closed-at";
+  // Номер сегмента занимает старший байт положения записи
+  static final int MAX_SEGMENTS = 256;
+  private static final int INITIAL_CAPACITY = 1024;
+  // Пустой слот индекса; хэш ключа никогда не равен нулю
+  private static final long EMPTY = 0;
+  // Положение удалённой записи; слот остаётся занятым, чтобы не рвать цепочки проб
+  private static final long REMOVED = -1;
+  private static final long SEQUENCE_MASK = 0xFF_FFFFL;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final MappedByteBuffer[] segments;
+  private final FileChannel[] channels;
+  private final long[] segmentSequences;
+  // Число живых записей индекса в каждом сегменте
+  private final int[] segmentEntries;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private long[] hashes = new long[INITIAL_CAPACITY];
+  private long[] locations = new long[INITIAL_CAPACITY];
+  // Непустые слоты, включая удалённые и устаревшие
+  private int occupied;
+  private int size;
+  private int activeSegment;
+  private int writePosition;
+  private long sequence;
+  private Long recoveredClosedAt;
+
+  public MappedSegmentStore(Path directory, int segmentCount, int segmentSize) {
+    if (segmentCount < 1 || segmentCount > MAX_SEGMENTS) {
+      throw new IllegalArgumentException(
+          "Off-heap segment count must be between 1 and " + MAX_SEGMENTS + ": " + segmentCount);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.segments = new MappedByteBuffer[segmentCount];
+    this.channels = new FileChannel[segmentCount];
+    this.segmentSequences = new long[segmentCount];
+    this.segmentEntries = new int[segmentCount];
+    try {
+      Files.createDirectories(directory);
+      for (int i = 0; i < segmentCount; i++) {
+        channels[i] =
+            FileChannel.open(
+                directory.resolve("segment-" + i + ".dat"),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segments[i] = channels[i].map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException("Could not open off-heap cache segments in " + directory, e);
+    }
+    recoveredClosedAt = readClosedAt();
+    recover();
+  }
+
+  /** Значение ключа, если запись есть, относится к поколению {@code generation} и не истекла. */
+  public byte[] get(String key, long generation, long now) {
+    lock.readLock().lock();
+    try {
+      long location = find(hash(key));
+      if (location == REMOVED) {
+        return null;
+      }
+      MappedByteBuffer segment = segments[segmentOf(location)];
+      int position = (int) location;
+      if (!holds(segment, position, key)) {
+        // Другой ключ с тем же хэшем
+        return null;
+      }
+      int length = segment.getInt(position);
+      int keyLength = segment.getShort(position + 21);
+      long recordGeneration = segment.getLong(position + 5);
+      long expiresAt = segment.getLong(position + 13);
+      if (recordGeneration != generation || expiresAt <= now) {
+        return null;
+      }
+      int valueOffset = position + 4 + RECORD_META_LENGTH + keyLength;
+      byte[] value = new byte[length - RECORD_META_LENGTH - keyLength];
+      segment.get(valueOffset, value);
+      return value;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Записывает значение; слишком большие для сегмента значения не сохраняются. */
+  public boolean put(String key, byte[] value, long generation, long expiresAt) {
+    return append(key, value, FLAG_PUT, generation, expiresAt);
+  }
+
+  public void remove(Collection<String> keys) {
+    for (String key : keys) {
+      append(key, new byte[0], FLAG_DELETE, 0, 0);
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      for (int i = 0; i < segments.length; i++) {
+        resetSegment(i, 0);
+      }
+      hashes = new long[INITIAL_CAPACITY];
+      locations = new long[INITIAL_CAPACITY];
+      occupied = 0;
+      size = 0;
+      Arrays.fill(segmentEntries, 0);
+      activeSegment = 0;
+      sequence = 1;
+      resetSegment(0, sequence);
+      writePosition = HEADER_LENGTH;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Момент прошлой штатной остановки, {@code null} если узел упал или хранилище новое. */
+  public Long closedAt() {
+    return recoveredClosedAt;
+  }
+
+  /**
+   * Удаляет записи ключей, изменённых, пока узел не следил за инвалидациями; остальные записи
+   * остаются. Если изменения неизвестны ({@code null}), хранилище очищается.
+   */
+  public void retainUnchanged(Collection<String> changedKeys) {
+    recoveredClosedAt = null;
+    if (changedKeys == null) {
+      int dropped = size();
+      clear();
+      if (dropped > 0) {
+        log.info(
+            "Dropped {} off-heap entries in {}: changes made while the node was down are unknown",
+            dropped,
+            directory);
+      }
+      return;
+    }
+    int dropped = 0;
+    for (String key : changedKeys) {
+      if (contains(key)) {
+        // Удаление пишется в журнал, иначе следующее открытие вернуло бы запись
+        remove(List.of(key));
+        dropped++;
+      }
+    }
+    if (dropped > 0) {
+      log.info(
+          "Dropped {} off-heap entries in {} changed while the node was down", dropped, directory);
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean contains(String key) {
+    lock.readLock().lock();
+    try {
+      long location = find(hash(key));
+      return location != REMOVED && holds(segments[segmentOf(location)], (int) location, key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean append(String key, byte[] value, byte flag, long generation, long expiresAt) {
+    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+    int length = RECORD_META_LENGTH + rawKey.length + value.length;
+    if (rawKey.length > Short.MAX_VALUE || HEADER_LENGTH + 4 + length + 4 > segmentSize) {
+      return false;
+    }
+    long hash = hash(key);
+    lock.writeLock().lock();
+    try {
+      if (writePosition + 4 + length + 4 > segmentSize) {
+        activeSegment = (activeSegment + 1) % segments.length;
+        recycle(activeSegment);
+      }
+      MappedByteBuffer segment = segments[activeSegment];
+      int position = writePosition;
+      segment.put(position + 4, flag);
+      segment.putLong(position + 5, generation);
+      segment.putLong(position + 13, expiresAt);
+      segment.putShort(position + 21, (short) rawKey.length);
+      segment.put(position + 4 + RECORD_META_LENGTH, rawKey);
+      segment.put(position + 4 + RECORD_META_LENGTH + rawKey.length, value);
+      // Длина пишется последней: недописанная при падении запись не будет прочитана
+      segment.putInt(position + 4 + length, 0);
+      segment.putInt(position, length);
+      writePosition = position + 4 + length;
+      if (flag == FLAG_PUT) {
+        index(hash, location(activeSegment, position));
+      } else {
+        unindex(hash);
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void recycle(int segmentIndex) {
+    // Записи сегмента остаются в индексе, но со старым номером заполнения перестают быть живыми
+    size -= segmentEntries[segmentIndex];
+    segmentEntries[segmentIndex] = 0;
+    resetSegment(segmentIndex, ++sequence);
+    writePosition = HEADER_LENGTH;
+  }
+
+  private void resetSegment(int segmentIndex, long segmentSequence) {
+    MappedByteBuffer segment = segments[segmentIndex];
+    segment.putInt(HEADER_LENGTH, 0);
+    segment.putLong(8, segmentSequence);
+    segment.putInt(4, FORMAT_VERSION);
+    segment.putInt(0, MAGIC);
+    segmentSequences[segmentIndex] = segmentSequence;
+  }
+
+  private long location(int segmentIndex, int position) {
+    return (long) segmentIndex << 56
+        | (segmentSequences[segmentIndex] & SEQUENCE_MASK) << 32
+        | position;
+  }
+
+  private static int segmentOf(long location) {
+    return (int) (location >>> 56);
+  }
+
+  private boolean isLive(long location) {
+    return location != REMOVED
+        && (segmentSequences[segmentOf(location)] & SEQUENCE_MASK)
+            == ((location >>> 32) & SEQUENCE_MASK);
+  }
+
+  /** Живое положение записи с хэшем {@code hash} или {@link #REMOVED}. */
+  private long find(long hash) {
+    int mask = hashes.length - 1;
+    for (int slot = (int) hash & mask; hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash) {
+        return isLive(locations[slot]) ? locations[slot] : REMOVED;
+      }
+    }
+    return REMOVED;
+  }
+
+  private void index(long hash, long location) {
+    int mask = hashes.length - 1;
+    int reusable = -1;
+    int slot = (int) hash & mask;
+    for (; hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash) {
+        release(locations[slot]);
+        store(slot, hash, location);
+        return;
+      }
+      if (reusable < 0 && !isLive(locations[slot])) {
+        reusable = slot;
+      }
+    }
+    if (reusable >= 0) {
+      store(reusable, hash, location);
+      return;
+    }
+    store(slot, hash, location);
+    if (++occupied > hashes.length / 4 * 3) {
+      rehash();
+    }
+  }
+
+  private void unindex(long hash) {
+    int mask = hashes.length - 1;
+    for (int slot = (int) hash & mask; hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+      if (hashes[slot] == hash) {
+        release(locations[slot]);
+        locations[slot] = REMOVED;
+        return;
+      }
+    }
+  }
+
+  private void store(int slot, long hash, long location) {
+    hashes[slot] = hash;
+    locations[slot] = location;
+    segmentEntries[segmentOf(location)]++;
+    size++;
+  }
+
+  private void release(long location) {
+    if (isLive(location)) {
+      segmentEntries[segmentOf(location)]--;
+      size--;
+    }
+  }
+
+  /** Перестраивает индекс только из живых записей, с запасом вдвое. */
+  private void rehash() {
+    long[] oldHashes = hashes;
+    long[] oldLocations = locations;
+    int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(size, 1) * 4));
+    hashes = new long[capacity];
+    locations = new long[capacity];
+    occupied = 0;
+    int mask = capacity - 1;
+    for (int i = 0; i < oldHashes.length; i++) {
+      if (oldHashes[i] != EMPTY && isLive(oldLocations[i])) {
+        int slot = (int) oldHashes[i] & mask;
+        while (hashes[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        hashes[slot] = oldHashes[i];
+        locations[slot] = oldLocations[i];
+        occupied++;
+      }
+    }
+  }
+
+  /** 64-битный FNV-1a по символам ключа с перемешиванием; без аллокаций. */
+  static long hash(String key) {
+    long hash = 0xcbf2_9ce4_8422_2325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100_0000_01b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51_afd7_ed55_8ccdL;
+    hash ^= hash >>> 33;
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  /** Лежит ли по смещению целая запись ключа {@code key}. */
+  private boolean holds(MappedByteBuffer segment, int position, String key) {
+    int length = segment.getInt(position);
+    int keyLength = segment.getShort(position + 21);
+    return segment.get(position + 4) == FLAG_PUT
+        && keyLength >= 0
+        && RECORD_META_LENGTH + keyLength <= length
+        && position + 4 + length <= segmentSize
+        && matches(segment, position + 4 + RECORD_META_LENGTH, keyLength, key);
+  }
+
+  /** Совпадает ли ключ записи с {@code key}; для ASCII-ключей без аллокаций. */
+  private static boolean matches(MappedByteBuffer segment, int offset, int length, String key) {
+    if (length == key.length()) {
+      int i = 0;
+      while (i < length && key.charAt(i) < 0x80 && segment.get(offset + i) == key.charAt(i)) {
+        i++;
+      }
+      if (i == length) {
+        return true;
+      }
+      if (key.charAt(i) < 0x80) {
+        return false;
+      }
+    }
+    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+    if (rawKey.length != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (segment.get(offset + i) != rawKey[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void recover() {
+    boolean incompatible = false;
+    for (MappedByteBuffer segment : segments) {
+      int magic = segment.getInt(0);
+      if (magic != 0 && (magic != MAGIC || segment.getInt(4) != FORMAT_VERSION)) {
+        incompatible = true;
+      }
+    }
+    if (incompatible) {
+      log.info("Off-heap cache in {} has an incompatible format, starting empty", directory);
+      clear();
+      return;
+    }
+
+    for (int i = 0; i < segments.length; i++) {
+      segmentSequences[i] = segments[i].getLong(8);
+    }
+    // Сегменты воспроизводятся в порядке заполнения, активный - заполненный последним
+    Integer[] order = new Integer[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> segmentSequences[i]));
+    int lastEnd = HEADER_LENGTH;
+    for (int segmentIndex : order) {
+      long segmentSequence = segmentSequences[segmentIndex];
+      if (segments[segmentIndex].getInt(0) != MAGIC || segmentSequence == 0) {
+        continue;
+      }
+      lastEnd = replay(segmentIndex);
+      activeSegment = segmentIndex;
+      sequence = segmentSequence;
+    }
+    if (sequence == 0) {
+      clear();
+      return;
+    }
+    writePosition = lastEnd;
+    // Хвост за последней целой записью мог остаться от прошлого круга или недописанной записи
+    if (writePosition + 4 <= segmentSize) {
+      segments[activeSegment].putInt(writePosition, 0);
+    }
+    log.info("Reopened off-heap cache in {} with {} entries", directory, size);
+  }
+
+  /** Восстанавливает индекс по записям сегмента и возвращает позицию за последней из них. */
+  private int replay(int segmentIndex) {
+    MappedByteBuffer segment = segments[segmentIndex];
+    int position = HEADER_LENGTH;
+    while (position + 4 <= segmentSize) {
+      int length = segment.getInt(position);
+      if (length < RECORD_META_LENGTH || position + 4 + length > segmentSize) {
+        break;
+      }
+      byte flag = segment.get(position + 4);
+      int keyLength = segment.getShort(position + 21);
+      if (keyLength < 0 || RECORD_META_LENGTH + keyLength > length) {
+        break;
+      }
+      byte[] rawKey = new byte[keyLength];
+      segment.get(position + 4 + RECORD_META_LENGTH, rawKey);
+      long hash = hash(new String(rawKey, StandardCharsets.UTF_8));
+      if (flag == FLAG_PUT) {
+        index(hash, location(segmentIndex, position));
+      } else {
+        unindex(hash);
+      }
+      position += 4 + length;
+    }
+    return position;
+  }
+
+  /**
+   * Закрывает хранилище и сохраняет момент остановки для {@link #closedAt()} при следующем
+   * открытии; без метки записи после перезапуска будут отброшены.
+   */
+  public void shutdown() {
+    close();
+    try {
+      Files.writeString(
+          directory.resolve(CLOSED_AT_FILE), Long.toString(System.currentTimeMillis()));
+    } catch (IOException e) {
+      log.warn("Could not save off-heap cache shutdown time in {}: {}", directory, e.getMessage());
+    }
+  }
+
+  /** Читает и удаляет метку прошлой остановки: после падения узла её не будет. */
+  private Long readClosedAt() {
+    Path file = directory.resolve(CLOSED_AT_FILE);
+    try {
+      if (!Files.exists(file)) {
+        return null;
+      }
+      String value = Files.readString(file).trim();
+      Files.delete(file);
+      return Long.parseLong(value);
+    } catch (IOException | NumberFormatException e) {
+      log.warn("Could not read off-heap cache shutdown time in {}: {}", directory, e.getMessage());
+      return null;
+    }
+  }
+
+  /** Сбрасывает страницы на диск, чтобы записи пережили перезапуск. */
+  @Override
+  public void close() {
+    for (int i = 0; i < channels.length; i++) {
+      try {
+        if (segments[i] != null) {
+          segments[i].force();
+        }
+        if (channels[i] != null) {
+          channels[i].close();
+        }
+      } catch (IOException e) {
+        log.warn(
+            "Could not close off-heap cache segment {} in {}: {}", i, directory, e.getMessage());
+      }
+    }
+  }
+}
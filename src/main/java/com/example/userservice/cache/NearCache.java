@@ -0,0 +1,204 @@
+package com.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Двухуровневый кэш: ограниченный in-process уровень (L1, Caffeine) перед Redis (L2).
+ *
+ * <p>Чтение сначала идёт в L1, при промахе - в L2 с заполнением L1. Любая запись или удаление
+ * проходит в L2, сбрасывает локальную копию и рассылается остальным узлам через {@link
+ * NearCacheInvalidator}. L1 хранит значения сразу в {@link ValueWrapper}, поэтому попадание в
+ * {@link #get(Object)} ничего не создаёт.
+ *
+ * <p>Пока {@code localEnabled} возвращает {@code false} (например, нет подписки на инвалидации от
+ * Redis), L1 не используется и все обращения идут прямо в L2.
+ */
+public class NearCache extends DelegatingCache implements LocalCacheTier {
+
+  private final Cache<String, Object> local;
+  private final NearCacheInvalidator invalidator;
+  private final BooleanSupplier localEnabled;
+  private final LocalTierMetrics metrics;
+
+  public NearCache(
+      org.springframework.cache.Cache delegate,
+      Cache<String, Object> local,
+      NearCacheInvalidator invalidator) {
+    this(delegate, local, invalidator, () -> true);
+  }
+
+  public NearCache(
+      org.springframework.cache.Cache delegate,
+      Cache<String, Object> local,
+      NearCacheInvalidator invalidator,
+      BooleanSupplier localEnabled) {
+    this(delegate, local, invalidator, localEnabled, new LocalTierMetrics());
+  }
+
+  public NearCache(
+      org.springframework.cache.Cache delegate,
+      Cache<String, Object> local,
+      NearCacheInvalidator invalidator,
+      BooleanSupplier localEnabled,
+      LocalTierMetrics metrics) {
+    super(delegate);
+    this.local = local;
+    this.invalidator = invalidator;
+    this.localEnabled = localEnabled;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    if (!localEnabled.getAsBoolean()) {
+      return delegate.get(key);
+    }
+    String localKey = localKey(key);
+    ValueWrapper cached = readLocal(localKey);
+    if (cached != null) {
+      return cached;
+    }
+    ValueWrapper wrapper = delegate.get(key);
+    if (wrapper != null && wrapper.get() != null) {
+      admit(localKey, wrapper);
+    }
+    return wrapper;
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    return wrapper != null ? requireType(wrapper.get(), type) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    if (!localEnabled.getAsBoolean()) {
+      return delegate.get(key, valueLoader);
+    }
+    String localKey = localKey(key);
+    ValueWrapper cached = readLocal(localKey);
+    if (cached != null) {
+      return (T) cached.get();
+    }
+    T loaded = delegate.get(key, valueLoader);
+    if (loaded != null) {
+      admit(localKey, loaded);
+    }
+    return loaded;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+    String localKey = localKey(key);
+    if (value != null && localEnabled.getAsBoolean()) {
+      admit(localKey, value);
+    } else {
+      local.invalidate(localKey);
+    }
+    invalidator.publishEvict(getName(), List.of(localKey));
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = delegate.putIfAbsent(key, value);
+    String localKey = localKey(key);
+    local.invalidate(localKey);
+    if (existing == null) {
+      invalidator.publishEvict(getName(), List.of(localKey));
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+    evictLocalAndPublish(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = delegate.evictIfPresent(key);
+    evictLocalAndPublish(key);
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    local.invalidateAll();
+    invalidator.publishClear(getName());
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = delegate.invalidate();
+    local.invalidateAll();
+    invalidator.publishClear(getName());
+    return invalidated;
+  }
+
+  @Override
+  public void invalidateLocal(Collection<String> keys) {
+    local.invalidateAll(keys);
+  }
+
+  @Override
+  public void clearLocal() {
+    local.invalidateAll();
+  }
+
+  /** Значение из локального уровня без обращения к Redis, {@code null} при промахе. */
+  public Object peekLocal(Object key) {
+    if (!localEnabled.getAsBoolean()) {
+      return null;
+    }
+    ValueWrapper cached = readLocal(localKey(key));
+    return cached != null ? cached.get() : null;
+  }
+
+  /** Кладёт в локальный уровень значение, которое уже записано в Redis. */
+  public void putLocal(Object key, Object value) {
+    if (value != null && localEnabled.getAsBoolean()) {
+      admit(localKey(key), value);
+    }
+  }
+
+  public long localSize() {
+    return local.estimatedSize();
+  }
+
+  private ValueWrapper readLocal(String localKey) {
+    ValueWrapper cached = (ValueWrapper) local.getIfPresent(localKey);
+    if (cached != null) {
+      metrics.recordHit(localKey);
+    }
+    return cached;
+  }
+
+  private void admit(String localKey, Object value) {
+    admit(localKey, new SimpleValueWrapper(value));
+  }
+
+  private void admit(String localKey, ValueWrapper wrapper) {
+    local.put(localKey, wrapper);
+    metrics.recordAdmission(localKey);
+  }
+
+  private void evictLocalAndPublish(Object key) {
+    String localKey = localKey(key);
+    local.invalidate(localKey);
+    invalidator.publishEvict(getName(), List.of(localKey));
+  }
+
+  static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(100)
+@RequiredArgsConstructor
+public class NearCacheDecorator implements CacheDecorator {
+
+  private final UserCacheProperties properties;
+  private final NearCacheInvalidator invalidator;
+  private final RedisTrackingInvalidator trackingInvalidator;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    UserCacheProperties.NearCache nearCache = properties.getNearCache();
+    if (!nearCache.isEnabled() || !nearCache.getCacheNames().contains(cache.getName())) {
+      return cache;
+    }
+    // Caffeine вытесняет по W-TinyLFU: разовые значения сканирующих запросов не вытесняют частые
+    LocalTierMetrics metrics = new LocalTierMetrics(cache.getName(), meterRegistry);
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local =
+        Caffeine.newBuilder()
+            .maximumWeight(nearCache.getMaximumWeight().toBytes())
+            .weigher(new LocalCacheWeigher())
+            .expireAfterWrite(nearCache.getTtl())
+            .removalListener(metrics)
+            .build();
+    metrics.bind(local);
+    NearCache near =
+        new NearCache(
+            cache, local, invalidator, trackingInvalidator::isLocalCachingAllowed, metrics);
+    invalidator.register(cache.getName(), near);
+    return near;
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.userservice.cache;
+
+import java.util.List;
+
+/**
+ * Сообщение об инвалидации локального уровня кэша, рассылаемое через Redis pub/sub.
+ *
+ * @param origin идентификатор узла-отправителя, свои сообщения узел игнорирует
+ * @param cacheName имя логического кэша
+ * @param keys ключи для сброса; пустой список при {@code clear = true}
+ * @param clear сбросить кэш целиком
+ */
+public record NearCacheInvalidation(
+    String origin, String cacheName, List<String> keys, boolean clear) {}
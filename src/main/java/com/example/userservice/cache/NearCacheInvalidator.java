@@ -0,0 +1,144 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Рассылает и принимает инвалидации локальных уровней кэша между экземплярами сервиса через Redis
+ * pub/sub.
+ *
+ * <p>В режиме {@link UserCacheProperties.InvalidationMode#TRACKING} рассылка отключена: об
+ * изменениях ключей сообщает сам Redis, а {@link RedisTrackingInvalidator} передаёт их сюда.
+ */
+@Slf4j
+@Component
+public class NearCacheInvalidator implements MessageListener {
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final Map<String, List<LocalCacheTier>> tiers = new ConcurrentHashMap<>();
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ObjectMapper objectMapper;
+  private final String channel;
+  private final boolean publishing;
+
+  public NearCacheInvalidator(
+      StringRedisTemplate stringRedisTemplate,
+      ObjectMapper objectMapper,
+      UserCacheProperties properties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.objectMapper = objectMapper;
+    this.channel = properties.getNearCache().getInvalidationChannel();
+    this.publishing =
+        properties.getNearCache().getInvalidationMode()
+            == UserCacheProperties.InvalidationMode.PUBSUB;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public void register(String cacheName, LocalCacheTier tier) {
+    tiers.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(tier);
+  }
+
+  public void publishEvict(String cacheName, Collection<String> keys) {
+    publish(new NearCacheInvalidation(instanceId, cacheName, List.copyOf(keys), false));
+  }
+
+  public void publishClear(String cacheName) {
+    publish(new NearCacheInvalidation(instanceId, cacheName, List.of(), true));
+  }
+
+  /** Сбрасывает локальные уровни кэша на этом узле и рассылает сброс остальным. */
+  public void clearEverywhere(String cacheName) {
+    apply(new NearCacheInvalidation(instanceId, cacheName, List.of(), true));
+    publishClear(cacheName);
+  }
+
+  /** Сбрасывает все зарегистрированные локальные уровни на этом узле. */
+  public void clearAllLocal() {
+    for (String cacheName : tiers.keySet()) {
+      apply(new NearCacheInvalidation(instanceId, cacheName, List.of(), true));
+    }
+  }
+
+  /**
+   * Сообщение об инвалидации ключей для отправки в составе pipeline, {@code null} при ошибке или
+   * если рассылка не нужна.
+   */
+  byte[] evictMessage(String cacheName, Collection<String> keys) {
+    if (!publishing) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsBytes(
+          new NearCacheInvalidation(instanceId, cacheName, List.copyOf(keys), false));
+    } catch (Exception e) {
+      log.warn(
+          "Failed to encode near cache invalidation for cache {}: {}", cacheName, e.getMessage());
+      return null;
+    }
+  }
+
+  private void publish(NearCacheInvalidation invalidation) {
+    if (!publishing) {
+      return;
+    }
+    try {
+      stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(invalidation));
+    } catch (Exception e) {
+      // Локальные копии на других узлах доживут до своего TTL
+      log.warn(
+          "Failed to publish near cache invalidation for cache {}: {}",
+          invalidation.cacheName(),
+          e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      NearCacheInvalidation invalidation =
+          objectMapper.readValue(
+              new String(message.getBody(), StandardCharsets.UTF_8), NearCacheInvalidation.class);
+      if (instanceId.equals(invalidation.origin())) {
+        return;
+      }
+      apply(invalidation);
+    } catch (Exception e) {
+      log.error("Error handling near cache invalidation: {}", e.getMessage(), e);
+    }
+  }
+
+  void apply(NearCacheInvalidation invalidation) {
+    List<LocalCacheTier> targets = tiers.get(invalidation.cacheName());
+    if (targets == null) {
+      return;
+    }
+    for (LocalCacheTier tier : targets) {
+      if (invalidation.clear()) {
+        tier.clearLocal();
+      } else {
+        tier.invalidateLocal(invalidation.keys());
+      }
+    }
+    log.debug(
+        "Applied near cache invalidation for cache {}: clear={}, keys={}",
+        invalidation.cacheName(),
+        invalidation.clear(),
+        invalidation.keys());
+  }
+}
@@ -0,0 +1,138 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Короткоживущие «надгробия» для результатов «не найдено», чтобы повторные запросы несуществующих
+ * id не доходили до БД.
+ *
+ * <p>Создание сущности снимает надгробие сразу и ещё раз после коммита, чтобы параллельное чтение
+ * до коммита не оставило устаревшее «не найдено».
+ *
+ * <p>Ключи надгробий содержат поколение {@link #GENERATION}, поэтому {@link #clear()} - один INCR
+ * вместо обхода ключей. Если поколения выключены, надгробия просто истекают через {@code ttl}.
+ */
+@Slf4j
+@Component
+public class NegativeCache {
+
+  public static final String USER = "user";
+  public static final String CARD = "card";
+  public static final String CARD_NUMBER = "cardNumber";
+
+  public static final String GENERATION = "tombstone";
+  private static final String TOMBSTONE = "1";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final MeterRegistry meterRegistry;
+  private final CacheCircuitBreaker circuitBreaker;
+  private final CacheGenerations generations;
+  private final boolean enabled;
+  private final Duration ttl;
+
+  public NegativeCache(
+      StringRedisTemplate stringRedisTemplate,
+      MeterRegistry meterRegistry,
+      CacheCircuitBreaker circuitBreaker,
+      CacheGenerations generations,
+      UserCacheProperties properties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.meterRegistry = meterRegistry;
+    this.circuitBreaker = circuitBreaker;
+    this.generations = generations;
+    this.enabled = properties.getNegative().isEnabled();
+    this.ttl = properties.getNegative().getTtl();
+    generations.track(GENERATION);
+  }
+
+  public boolean isMissing(String type, Object key) {
+    // Пока Redis недоступен, проверка надгробия стоила бы таймаута на каждый запрос
+    if (!enabled || !circuitBreaker.isClosed()) {
+      return false;
+    }
+    try {
+      boolean missing = Boolean.TRUE.equals(stringRedisTemplate.hasKey(tombstoneKey(type, key)));
+      if (missing) {
+        meterRegistry.counter("cache.tombstone.hits", "type", type).increment();
+      }
+      return missing;
+    } catch (Exception e) {
+      log.warn("Failed to check tombstone for {} {}: {}", type, key, e.getMessage());
+      return false;
+    }
+  }
+
+  public void markMissing(String type, Object key) {
+    if (!enabled || !circuitBreaker.isClosed()) {
+      return;
+    }
+    try {
+      stringRedisTemplate.opsForValue().set(tombstoneKey(type, key), TOMBSTONE, ttl);
+      meterRegistry.counter("cache.tombstone.writes", "type", type).increment();
+    } catch (Exception e) {
+      log.warn("Failed to write tombstone for {} {}: {}", type, key, e.getMessage());
+    }
+  }
+
+  public void forget(String type, Object key) {
+    if (!enabled) {
+      return;
+    }
+    String tombstoneKey = tombstoneKey(type, key);
+    delete(tombstoneKey);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              delete(tombstoneKey);
+            }
+          });
+    }
+  }
+
+  /** Снимает все надгробия сменой их поколения. */
+  public void clear() {
+    if (enabled && generations.isEnabled()) {
+      generations.advance(GENERATION);
+    }
+  }
+
+  private void delete(String tombstoneKey) {
+    try {
+      stringRedisTemplate.unlink(tombstoneKey);
+    } catch (Exception e) {
+      // Надгробие истечёт само через ttl
+      log.warn("Failed to remove tombstone {}: {}", tombstoneKey, e.getMessage());
+    }
+  }
+
+  String tombstoneKey(String type, Object key) {
+    String value = String.valueOf(key);
+    if (CARD_NUMBER.equals(type)) {
+      // Номера карт не должны попадать в имена ключей Redis в открытом виде
+      value = sha256(value);
+    }
+    return generations.prefixFor(GENERATION) + type + ":" + value;
+  }
+
+  static String sha256(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Журнал поштучных изменений кэшей с уровнем вне heap: ZSET на кэш, где элемент - ключ записи, а
+ * вес - время последней записи или удаления. Инвалидации, разосланные, пока узел был выключен, до
+ * него не дошли; при запуске узел берёт из журнала ключи, изменённые после его остановки, и удаляет
+ * только их, а остальные восстановленные с диска записи оставляет.
+ *
+ * <p>Записи журнала старше TTL уровня вне heap не нужны: такие записи хранилища истекли бы и так.
+ * Поэтому журнал время от времени подрезается и не растёт вместе с числом изменений.
+ *
+ * <p>Настройки уровня вне heap должны совпадать на всех узлах: изменения записывают только узлы, у
+ * которых уровень включён для этого кэша.
+ */
+@Slf4j
+@Component
+public class OffHeapChangeLog {
+
+  public static final String KEY_PREFIX = "user-service:offheap-changes:";
+  // Запас на расхождение часов узлов: время изменения ставит записавший узел
+  static final long CLOCK_SKEW_MILLIS = 30_000;
+  // Журнал подрезается раз в столько записей, а не на каждой
+  private static final int TRIM_INTERVAL = 1024;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final NearCacheInvalidator invalidator;
+  private final long retentionMillis;
+  private final AtomicLong writes = new AtomicLong();
+
+  public OffHeapChangeLog(
+      StringRedisTemplate stringRedisTemplate,
+      NearCacheInvalidator invalidator,
+      UserCacheProperties properties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.invalidator = invalidator;
+    this.retentionMillis = properties.getOffHeap().getTtl().toMillis() + CLOCK_SKEW_MILLIS;
+  }
+
+  /**
+   * Записывает изменение ключей и в том же pipeline рассылает {@code invalidation}, если оно есть,
+   * чтобы запись в журнал не стоила отдельного обращения к Redis.
+   */
+  public void record(String cacheName, Collection<String> keys, byte[] invalidation) {
+    try {
+      stringRedisTemplate.executePipelined(
+          (RedisCallback<Object>)
+              connection -> {
+                record(connection, cacheName, keys);
+                if (invalidation != null) {
+                  connection.publish(bytes(invalidator.getChannel()), invalidation);
+                }
+                return null;
+              });
+    } catch (Exception e) {
+      // Пока Redis недоступен, записи пропускаются и кэш будет сброшен целиком, см.
+      // CircuitBreakerCache
+      log.debug("Could not record off-heap changes of cache {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  /** Записывает изменение ключей в составе pipeline удалений. */
+  public void record(RedisConnection connection, String cacheName, Collection<String> keys) {
+    byte[] logKey = bytes(KEY_PREFIX + cacheName);
+    long now = System.currentTimeMillis();
+    for (String key : keys) {
+      connection.zSetCommands().zAdd(logKey, now, bytes(key));
+    }
+    // Журнал кэша, в который перестали писать, исчезнет сам
+    connection.keyCommands().pExpire(logKey, retentionMillis);
+    long before = writes.getAndAdd(keys.size());
+    if (before / TRIM_INTERVAL != (before + keys.size()) / TRIM_INTERVAL) {
+      connection.zSetCommands().zRemRangeByScore(logKey, Range.closed(0d, now - retentionMillis));
+    }
+  }
+
+  /** Ключи, изменённые после {@code since}, или {@code null}, если журнал не прочитать. */
+  public Set<String> changedSince(String cacheName, long since) {
+    try {
+      return stringRedisTemplate
+          .opsForZSet()
+          .rangeByScore(KEY_PREFIX + cacheName, since - CLOCK_SKEW_MILLIS, Double.MAX_VALUE);
+    } catch (Exception e) {
+      log.debug("Could not read off-heap changes of cache {}: {}", cacheName, e.getMessage());
+      return null;
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Кэш страниц списочных запросов, ключ - запрос, фильтр и {@link Pageable}.
+ *
+ * <p>Страницы одного типа сущностей лежат в одном кэше ({@code userPages}, {@code cardPages}),
+ * который служит тегом: любое изменение пользователя или карты после коммита сбрасывает его целиком
+ * сменой поколения. Кэширование включается для каждого запроса отдельно, большие страницы не
+ * кэшируются, размер кэшей ограничен политиками {@code app.cache.policies}.
+ *
+ * <p>Там же хранятся общие числа элементов запросов для ответов без точного подсчёта, они
+ * сбрасываются тем же тегом.
+ */
+@Slf4j
+@Component
+public class PageCache {
+
+  private final CacheManager cacheManager;
+  private final boolean enabled;
+  private final Set<PageCacheEndpoint> endpoints;
+  private final int maxPageSize;
+
+  public PageCache(CacheManager cacheManager, UserCacheProperties properties) {
+    this.cacheManager = cacheManager;
+    this.enabled = properties.getPages().isEnabled();
+    this.endpoints = Set.copyOf(properties.getPages().getEndpoints());
+    this.maxPageSize = properties.getPages().getMaxPageSize();
+  }
+
+  /** Страница из кэша, {@code null} при промахе или если запрос не кэшируется. */
+  @SuppressWarnings("unchecked")
+  public <T> Page<T> lookup(PageCacheEndpoint endpoint, Pageable pageable, Object... filter) {
+    Cache cache = cacheFor(endpoint, pageable);
+    if (cache == null) {
+      return null;
+    }
+    Cache.ValueWrapper cached = cache.get(key(endpoint, pageable, filter));
+    if (cached == null || !(cached.get() instanceof CachedPage page)) {
+      return null;
+    }
+    return new PageImpl<>((List<T>) page.getContent(), pageable, page.getTotalElements());
+  }
+
+  public void store(PageCacheEndpoint endpoint, Pageable pageable, Page<?> page, Object... filter) {
+    Cache cache = cacheFor(endpoint, pageable);
+    if (cache == null || page == null) {
+      return;
+    }
+    cache.put(
+        key(endpoint, pageable, filter),
+        new CachedPage(new ArrayList<>(page.getContent()), page.getTotalElements()));
+  }
+
+  /** Закэшированное общее число элементов запроса, {@code null} при промахе. */
+  public Long lookupTotal(PageCacheEndpoint endpoint, Object... filter) {
+    Cache cache = totalsCacheFor(endpoint);
+    if (cache == null) {
+      return null;
+    }
+    Cache.ValueWrapper cached = cache.get(totalKey(endpoint, filter));
+    if (cached == null || !(cached.get() instanceof Number total)) {
+      return null;
+    }
+    return total.longValue();
+  }
+
+  /**
+   * Кэширует общее число элементов запроса. В отличие от страниц, не требует включения запроса в
+   * {@code endpoints}: значение маленькое и сбрасывается тем же тегом.
+   */
+  public void storeTotal(PageCacheEndpoint endpoint, long total, Object... filter) {
+    Cache cache = totalsCacheFor(endpoint);
+    if (cache != null) {
+      cache.put(totalKey(endpoint, filter), total);
+    }
+  }
+
+  /** Сбрасывает страницы указанных кэшей после коммита текущей транзакции (или сразу). */
+  public void invalidateAfterCommit(String... cacheNames) {
+    if (!enabled) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(Arrays.asList(cacheNames));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      Set<String> tags = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(this, tags);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(PageCache.this);
+              if (status == STATUS_COMMITTED) {
+                invalidate(tags);
+              }
+            }
+          });
+      pending = tags;
+    }
+    pending.addAll(Arrays.asList(cacheNames));
+  }
+
+  private void invalidate(Iterable<String> cacheNames) {
+    for (String cacheName : cacheNames) {
+      Cache cache = cacheManager.getCache(cacheName);
+      if (cache != null) {
+        cache.clear();
+        log.debug("Page cache '{}' invalidated", cacheName);
+      }
+    }
+  }
+
+  private Cache cacheFor(PageCacheEndpoint endpoint, Pageable pageable) {
+    if (!enabled
+        || !endpoints.contains(endpoint)
+        || pageable.isUnpaged()
+        || pageable.getPageSize() > maxPageSize) {
+      return null;
+    }
+    return cacheManager.getCache(endpoint.getCacheName());
+  }
+
+  private Cache totalsCacheFor(PageCacheEndpoint endpoint) {
+    return enabled ? cacheManager.getCache(endpoint.getCacheName()) : null;
+  }
+
+  static String totalKey(PageCacheEndpoint endpoint, Object... filter) {
+    return endpoint + ":" + filterKey(filter) + ":total";
+  }
+
+  static String key(PageCacheEndpoint endpoint, Pageable pageable, Object... filter) {
+    return endpoint
+        + ":"
+        + filterKey(filter)
+        + ":"
+        + pageable.getPageNumber()
+        + ":"
+        + pageable.getPageSize()
+        + ":"
+        + pageable.getSort();
+  }
+
+  // Длина перед значением исключает совпадение ключей при запятых в фильтре, null отличим от "null"
+  private static String filterKey(Object... filter) {
+    return Arrays.stream(filter)
+        .map(value -> value == null ? "~" : value.toString().length() + ":" + value)
+        .collect(Collectors.joining(",", "[", "]"));
+  }
+}
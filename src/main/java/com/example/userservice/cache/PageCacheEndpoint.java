@@ -0,0 +1,22 @@
+package com.example.userservice.cache;
+
+/** Списочные запросы, результат которых можно кэшировать, и кэш (тег), к которому они относятся. */
+public enum PageCacheEndpoint {
+  ALL_USERS(CacheNames.USER_PAGES),
+  ACTIVE_USERS(CacheNames.USER_PAGES),
+  // Для поиска кэшируется только общее число элементов в режиме TotalMode.ESTIMATED
+  USERS_BY_NAME_AND_SURNAME(CacheNames.USER_PAGES),
+  ACTIVE_USERS_BORN_BEFORE(CacheNames.USER_PAGES),
+  ALL_CARDS(CacheNames.CARD_PAGES),
+  ACTIVE_CARDS(CacheNames.CARD_PAGES);
+
+  private final String cacheName;
+
+  PageCacheEndpoint(String cacheName) {
+    this.cacheName = cacheName;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.userservice.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/** Сериализатор значений кэша, который учитывает размер записываемых в Redis значений. */
+public class PayloadSizeRecordingSerializer implements RedisSerializer<Object> {
+
+  private final RedisSerializer<Object> delegate;
+  private final CacheCounters counters;
+
+  public PayloadSizeRecordingSerializer(RedisSerializer<Object> delegate, CacheCounters counters) {
+    this.delegate = delegate;
+    this.counters = counters;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    byte[] bytes = delegate.serialize(value);
+    if (bytes != null) {
+      counters.recordPayload(bytes.length);
+    }
+    return bytes;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    return delegate.deserialize(bytes);
+  }
+}
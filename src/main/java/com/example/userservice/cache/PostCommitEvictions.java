@@ -0,0 +1,223 @@
+package com.example.userservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Удаление записей кэша после коммита транзакции.
+ *
+ * <p>Пока транзакция не зафиксирована, конкурентное чтение может снова положить в кэш старые
+ * данные, поэтому удаления копятся за всю транзакцию и после коммита выполняются одним pipeline:
+ * {@code UNLINK} всех ключей, {@code ZREM} из индекса записей и рассылка инвалидации локальных
+ * уровней. При откате ничего не удаляется. Без активной транзакции удаление выполняется сразу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCommitEvictions {
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final CacheStatistics statistics;
+  private final NearCacheInvalidator invalidator;
+  private final CacheCircuitBreaker circuitBreaker;
+  private final OffHeapChangeLog changes;
+
+  /** Откладывает удаление ключа до коммита; {@code false}, если удалять нужно сразу. */
+  boolean defer(TransactionalEvictionCache cache, Object key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return false;
+    }
+    PendingEvictions pending =
+        (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new PendingEvictions();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    if (pending.flushed) {
+      // Коммит уже прошёл, ждать больше нечего
+      return false;
+    }
+    pending.keys.computeIfAbsent(cache, c -> new LinkedHashSet<>()).add(key);
+    return true;
+  }
+
+  /**
+   * Удаляет ключ из нескольких кэшей одним pipeline; внутри транзакции - после коммита вместе с
+   * остальными удалениями.
+   */
+  public void evict(Collection<TransactionalEvictionCache> caches, Object key) {
+    Map<TransactionalEvictionCache, Set<Object>> evictions = new LinkedHashMap<>();
+    for (TransactionalEvictionCache cache : caches) {
+      if (!defer(cache, key)) {
+        evictions.put(cache, Set.of(key));
+      }
+    }
+    if (!evictions.isEmpty()) {
+      evictNow(evictions);
+    }
+  }
+
+  void evictNow(Map<TransactionalEvictionCache, Set<Object>> evictions) {
+    List<RemoteEviction> remote = new ArrayList<>();
+    evictions.forEach(
+        (cache, keys) -> {
+          // При разомкнутом breaker удаление через цепочку кэша пометит его к сбросу
+          if (!isRemote(cache) || !circuitBreaker.isClosed()) {
+            cache.evictThrough(keys);
+          } else {
+            remote.add(remoteEviction(cache, keys));
+          }
+        });
+    if (remote.isEmpty()) {
+      return;
+    }
+
+    // Представления пользователя в одном хэше дают один и тот же ключ: его удаляет и засчитывает
+    // первое удаление, в котором он встретился
+    Set<String> seen = new LinkedHashSet<>();
+    List<byte[][]> unlinks = new ArrayList<>(remote.size());
+    for (RemoteEviction eviction : remote) {
+      unlinks.add(
+          eviction.rawKeys().stream()
+              .filter(seen::add)
+              .map(PostCommitEvictions::bytes)
+              .toArray(byte[][]::new));
+    }
+
+    List<Object> results;
+    try {
+      results =
+          stringRedisTemplate.executePipelined(
+              (RedisCallback<Object>)
+                  connection -> {
+                    // UNLINK идут первыми, чтобы их ответы стояли в начале результата
+                    for (byte[][] rawKeys : unlinks) {
+                      if (rawKeys.length > 0) {
+                        connection.keyCommands().unlink(rawKeys);
+                      }
+                    }
+                    for (RemoteEviction eviction : remote) {
+                      connection
+                          .zSetCommands()
+                          .zRem(eviction.indexKey(), eviction.members().toArray(new byte[0][]));
+                      if (eviction.message() != null) {
+                        connection.publish(bytes(invalidator.getChannel()), eviction.message());
+                      }
+                      if (eviction.offHeap()) {
+                        changes.record(
+                            connection, eviction.cache().getName(), eviction.localKeys());
+                      }
+                    }
+                    return null;
+                  });
+    } catch (Exception e) {
+      log.warn("Batched cache eviction failed, evicting key by key: {}", e.getMessage());
+      remote.forEach(eviction -> eviction.cache().evictThrough(eviction.keys()));
+      return;
+    }
+
+    long evicted = 0;
+    int result = 0;
+    for (int i = 0; i < remote.size(); i++) {
+      RemoteEviction eviction = remote.get(i);
+      // Засчитываются только ключи, которые действительно были в Redis
+      long removed = unlinks.get(i).length > 0 ? unlinked(results.get(result++)) : 0;
+      evicted += removed;
+      statistics.counters(eviction.cache().getName()).recordEvictions(removed);
+      NearCache nearCache = DelegatingCache.unwrap(eviction.cache(), NearCache.class);
+      if (nearCache != null) {
+        nearCache.invalidateLocal(eviction.localKeys());
+      }
+      MappedCache mappedCache = DelegatingCache.unwrap(eviction.cache(), MappedCache.class);
+      if (mappedCache != null) {
+        mappedCache.invalidateLocal(eviction.localKeys());
+      }
+    }
+    log.debug("Evicted {} cache entries after commit", evicted);
+  }
+
+  private static long unlinked(Object result) {
+    return result instanceof Long count ? count : 0;
+  }
+
+  private static boolean isRemote(TransactionalEvictionCache cache) {
+    return DelegatingCache.unwrap(cache, RedisCache.class) != null
+        || DelegatingCache.unwrap(cache, UserHashCache.class) != null;
+  }
+
+  private RemoteEviction remoteEviction(TransactionalEvictionCache cache, Set<Object> keys) {
+    String cacheName = cache.getName();
+    boolean userHash = DelegatingCache.unwrap(cache, UserHashCache.class) != null;
+    String prefix = userHash ? null : generations.prefixFor(cacheName);
+    List<String> localKeys = new ArrayList<>(keys.size());
+    List<String> rawKeys = new ArrayList<>(keys.size());
+    List<byte[]> members = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      String localKey = String.valueOf(key);
+      localKeys.add(localKey);
+      rawKeys.add(userHash ? UserHashCache.hashKey(localKey) : prefix + localKey);
+      members.add(bytes(localKey));
+    }
+    byte[] message = null;
+    boolean offHeap = DelegatingCache.unwrap(cache, MappedCache.class) != null;
+    if (DelegatingCache.unwrap(cache, NearCache.class) != null || offHeap) {
+      message = invalidator.evictMessage(cacheName, localKeys);
+    }
+    return new RemoteEviction(
+        cache,
+        keys,
+        localKeys,
+        rawKeys,
+        members,
+        bytes(CacheEntryIndex.indexKey(cacheName)),
+        message,
+        offHeap);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private record RemoteEviction(
+      TransactionalEvictionCache cache,
+      Collection<Object> keys,
+      List<String> localKeys,
+      List<String> rawKeys,
+      List<byte[]> members,
+      byte[] indexKey,
+      byte[] message,
+      boolean offHeap) {}
+
+  private class PendingEvictions implements TransactionSynchronization {
+
+    private final Map<TransactionalEvictionCache, Set<Object>> keys = new LinkedHashMap<>();
+    private boolean flushed;
+
+    @Override
+    public void afterCommit() {
+      flushed = true;
+      evictNow(keys);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(PostCommitEvictions.this);
+    }
+  }
+}
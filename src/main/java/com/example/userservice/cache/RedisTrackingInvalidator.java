@@ -0,0 +1,233 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Инвалидация локальных уровней кэша через Redis client tracking (RESP3 {@code CLIENT TRACKING ON
+ * BCAST PREFIX user-service:}).
+ *
+ * <p>Отдельное соединение клиента из {@link LettuceConnectionFactory} подписывается на изменения
+ * всех ключей с префиксом, Redis присылает их push-сообщениями {@code invalidate}. Ключи Redis
+ * переводятся в имена кэшей и ключи локального уровня и передаются в {@link NearCacheInvalidator}.
+ *
+ * <p>Если tracking недоступен (RESP2, кластер, ошибка команды) или соединение потеряно, {@link
+ * #isLocalCachingAllowed()} возвращает {@code false}, и локальный уровень не используется: без
+ * инвалидаций его копии могли бы устареть.
+ */
+@Slf4j
+public class RedisTrackingInvalidator
+    implements SmartLifecycle, PushListener, RedisConnectionStateListener {
+
+  private static final String NAMESPACE = "user-service:";
+  private static final String INVALIDATE = "invalidate";
+
+  private final RedisConnectionFactory connectionFactory;
+  private final NearCacheInvalidator invalidator;
+  private final boolean enabled;
+  private final String prefix;
+
+  private volatile RedisClient client;
+  private volatile StatefulRedisConnection<String, String> connection;
+  private volatile boolean active;
+  private volatile boolean running;
+
+  public RedisTrackingInvalidator(
+      RedisConnectionFactory connectionFactory,
+      NearCacheInvalidator invalidator,
+      UserCacheProperties properties) {
+    this.connectionFactory = connectionFactory;
+    this.invalidator = invalidator;
+    this.enabled =
+        properties.getNearCache().getInvalidationMode()
+            == UserCacheProperties.InvalidationMode.TRACKING;
+    this.prefix = properties.getNearCache().getTrackingPrefix();
+  }
+
+  /** Можно ли сейчас отдавать значения из локального уровня. */
+  public boolean isLocalCachingAllowed() {
+    return !enabled || active;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    if (!enabled) {
+      return;
+    }
+    try {
+      connect();
+      log.info("Near cache invalidation via Redis client tracking on prefix '{}'", prefix);
+    } catch (Exception e) {
+      log.warn(
+          "Redis client tracking is unavailable, local cache tiers are disabled: {}",
+          e.getMessage());
+      close();
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    active = false;
+    close();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void connect() {
+    if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+      throw new IllegalStateException("Lettuce connection factory is required");
+    }
+    AbstractRedisClient nativeClient = lettuce.getNativeClient();
+    if (!(nativeClient instanceof RedisClient redisClient)) {
+      throw new IllegalStateException("Standalone Redis client is required");
+    }
+    if (redisClient.getOptions().getConfiguredProtocolVersion() == ProtocolVersion.RESP2) {
+      throw new IllegalStateException("RESP3 is disabled in client options");
+    }
+    client = redisClient;
+    redisClient.addListener((RedisConnectionStateListener) this);
+    StatefulRedisConnection<String, String> trackingConnection =
+        redisClient.connect(StringCodec.UTF8);
+    connection = trackingConnection;
+    trackingConnection.addListener((PushListener) this);
+    // При откате на RESP2 сервер примет команду, но push-сообщения не придут
+    if (trackingConnection.sync().clientInfo().contains("resp=2")) {
+      throw new IllegalStateException("Server negotiated RESP2");
+    }
+    trackingConnection.sync().clientTracking(trackingArgs());
+    active = true;
+  }
+
+  private TrackingArgs trackingArgs() {
+    return TrackingArgs.Builder.enabled().bcast().prefixes(prefix);
+  }
+
+  private void close() {
+    RedisClient redisClient = client;
+    if (redisClient != null) {
+      redisClient.removeListener((RedisConnectionStateListener) this);
+    }
+    StatefulRedisConnection<String, String> trackingConnection = connection;
+    connection = null;
+    if (trackingConnection != null) {
+      trackingConnection.closeAsync();
+    }
+  }
+
+  @Override
+  public void onPushMessage(PushMessage message) {
+    if (!INVALIDATE.equals(message.getType())) {
+      return;
+    }
+    List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+    Object keys = content.size() > 1 ? content.get(1) : null;
+    if (!(keys instanceof List<?> redisKeys)) {
+      // null вместо списка - сервер сбросил всё (FLUSHALL) или таблицу tracking
+      invalidator.clearAllLocal();
+      return;
+    }
+    try {
+      route(redisKeys);
+    } catch (Exception e) {
+      log.error("Error handling Redis tracking invalidation: {}", e.getMessage(), e);
+      invalidator.clearAllLocal();
+    }
+  }
+
+  /**
+   * Раскладывает ключи Redis по кэшам: {@code user-service:<cache>[:v<gen>]::<key>}, хэш
+   * пользователя {@code user-service:user::<id>} и счётчик поколения {@code
+   * user-service:generation:<cache>}. Прочие служебные ключи пропускаются.
+   */
+  private void route(List<?> redisKeys) {
+    Map<String, List<String>> byCache = new LinkedHashMap<>();
+    for (Object raw : redisKeys) {
+      String key = String.valueOf(raw);
+      if (key.startsWith(CacheGenerations.KEY_PREFIX)) {
+        invalidator.apply(
+            new NearCacheInvalidation(
+                INVALIDATE,
+                key.substring(CacheGenerations.KEY_PREFIX.length()),
+                List.of(),
+                true));
+        continue;
+      }
+      if (key.startsWith(UserHashCache.KEY_PREFIX)) {
+        String localKey = key.substring(UserHashCache.KEY_PREFIX.length());
+        for (String cacheName : CacheNames.USER_CACHES) {
+          byCache.computeIfAbsent(cacheName, name -> new ArrayList<>()).add(localKey);
+        }
+        continue;
+      }
+      int separator = key.indexOf("::");
+      if (!key.startsWith(NAMESPACE) || separator < 0) {
+        continue;
+      }
+      String head = key.substring(NAMESPACE.length(), separator);
+      int version = head.indexOf(':');
+      String cacheName = version < 0 ? head : head.substring(0, version);
+      byCache
+          .computeIfAbsent(cacheName, name -> new ArrayList<>())
+          .add(key.substring(separator + 2));
+    }
+    byCache.forEach(
+        (cacheName, keys) ->
+            invalidator.apply(new NearCacheInvalidation(INVALIDATE, cacheName, keys, false)));
+  }
+
+  @Override
+  public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+    StatefulRedisConnection<String, String> trackingConnection = connection;
+    if (handler != trackingConnection || active || !running) {
+      return;
+    }
+    // После переподключения сервер не помнит tracking - включаем заново, не блокируя event loop
+    trackingConnection
+        .async()
+        .clientTracking(trackingArgs())
+        .whenComplete(
+            (reply, error) -> {
+              if (error != null) {
+                log.warn("Failed to re-enable Redis client tracking: {}", error.getMessage());
+                return;
+              }
+              invalidator.clearAllLocal();
+              active = true;
+              log.info("Redis client tracking re-enabled after reconnect");
+            });
+  }
+
+  @Override
+  public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+    if (handler != connection || !active) {
+      return;
+    }
+    // Инвалидации за время разрыва потеряны - локальные копии больше не доверенные
+    active = false;
+    invalidator.clearAllLocal();
+    log.warn("Redis client tracking connection lost, local cache tiers are disabled");
+  }
+}
@@ -0,0 +1,222 @@
+package com.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Refresh-ahead (stale-while-revalidate): если до истечения записи осталось меньше заданной доли
+ * TTL, вызывающий сразу получает закэшированное значение, а перезагрузка идёт в фоне на
+ * ограниченном пуле.
+ *
+ * <p>Перезагрузка идёт через {@link CacheRefreshLoader} кэша, а не через загрузчик вызывающего
+ * кода: тот относится к своему запросу и к моменту перезагрузки уже отработал. Поэтому перезагрузку
+ * запускает и простое чтение {@link #get(Object)}.
+ *
+ * <p>Срок жизни записей отслеживается локально: для своих загрузок он известен, для записей других
+ * узлов один раз запрашивается PTTL (тоже в фоне). Ошибка фоновой загрузки только считается -
+ * текущая запись остаётся в кэше до своего TTL.
+ */
+@Slf4j
+public class RefreshAheadCache extends DelegatingCache {
+
+  private final CacheRefreshLoader loader;
+  private final Cache<String, Long> expiries;
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+  private final double refreshFraction;
+  private final Executor executor;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final Counter refreshed;
+  private final Counter failed;
+  private final Counter rejected;
+
+  public RefreshAheadCache(
+      org.springframework.cache.Cache delegate,
+      CacheRefreshLoader loader,
+      Cache<String, Long> expiries,
+      double refreshFraction,
+      Executor executor,
+      StringRedisTemplate stringRedisTemplate,
+      CacheGenerations generations,
+      MeterRegistry meterRegistry) {
+    super(delegate);
+    this.loader = loader;
+    this.expiries = expiries;
+    this.refreshFraction = refreshFraction;
+    this.executor = executor;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.generations = generations;
+    this.refreshed = counter(meterRegistry, delegate.getName(), "success");
+    this.failed = counter(meterRegistry, delegate.getName(), "failure");
+    this.rejected = counter(meterRegistry, delegate.getName(), "rejected");
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper cached = delegate.get(key);
+    if (cached != null) {
+      maybeRefresh(key, cached.get());
+    }
+    return cached;
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    return wrapper != null ? requireType(wrapper.get(), type) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper cached = delegate.get(key);
+    if (cached == null) {
+      T value = delegate.get(key, valueLoader);
+      if (value != null) {
+        recordWrite(key, value);
+      }
+      return value;
+    }
+    T value = (T) cached.get();
+    maybeRefresh(key, value);
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+    if (value != null) {
+      recordWrite(key, value);
+    } else {
+      expiries.invalidate(localKey(key));
+    }
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+    expiries.invalidate(localKey(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = delegate.evictIfPresent(key);
+    expiries.invalidate(localKey(key));
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    expiries.invalidateAll();
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = delegate.invalidate();
+    expiries.invalidateAll();
+    return invalidated;
+  }
+
+  private void maybeRefresh(Object key, Object value) {
+    String localKey = localKey(key);
+    Long expiresAt = expiries.getIfPresent(localKey);
+    if (expiresAt == null) {
+      submit(localKey, () -> probeExpiry(localKey));
+      return;
+    }
+    Duration ttl = redisTtl(key, value);
+    if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+      return;
+    }
+    long remaining = expiresAt - System.currentTimeMillis();
+    if (remaining > ttl.toMillis() * refreshFraction) {
+      return;
+    }
+    if (submit(localKey, () -> refresh(key))) {
+      log.debug("Refreshing cache '{}' entry {} ahead of expiry", getName(), key);
+    }
+  }
+
+  private boolean submit(String localKey, Runnable task) {
+    if (!inFlight.add(localKey)) {
+      return false;
+    }
+    try {
+      executor.execute(
+          () -> {
+            try {
+              task.run();
+            } finally {
+              inFlight.remove(localKey);
+            }
+          });
+      return true;
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(localKey);
+      rejected.increment();
+      return false;
+    }
+  }
+
+  private void refresh(Object key) {
+    try {
+      Object value = loader.load(key);
+      if (value != null) {
+        put(key, value);
+      }
+      refreshed.increment();
+    } catch (Exception e) {
+      // Текущая запись остаётся как есть и истечёт по своему TTL
+      failed.increment();
+      log.warn("Refresh-ahead of cache '{}' entry {} failed: {}", getName(), key, e.getMessage());
+    }
+  }
+
+  private void probeExpiry(String localKey) {
+    try {
+      // Представления пользователя в режиме хэша живут в одном ключе без префикса поколения
+      String redisKey =
+          unwrap(delegate, UserHashCache.class) != null
+              ? UserHashCache.hashKey(localKey)
+              : generations.prefixFor(getName()) + localKey;
+      Long pttl = stringRedisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+      if (pttl == null || pttl == -2) {
+        return;
+      }
+      long expiresAt = pttl < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + pttl;
+      expiries.put(localKey, expiresAt);
+    } catch (Exception e) {
+      log.debug(
+          "Failed to read TTL of cache '{}' entry {}: {}", getName(), localKey, e.getMessage());
+    }
+  }
+
+  private void recordWrite(Object key, Object value) {
+    Duration ttl = redisTtl(key, value);
+    long expiresAt =
+        ttl == null || ttl.isZero() || ttl.isNegative()
+            ? Long.MAX_VALUE
+            : System.currentTimeMillis() + ttl.toMillis();
+    expiries.put(localKey(key), expiresAt);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String cacheName, String result) {
+    return meterRegistry.counter("cache.refresh.ahead", "cache", cacheName, "result", result);
+  }
+
+  private static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+}
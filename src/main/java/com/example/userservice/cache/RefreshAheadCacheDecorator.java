@@ -0,0 +1,56 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@Order(300)
+@RequiredArgsConstructor
+public class RefreshAheadCacheDecorator implements CacheDecorator {
+
+  private final UserCacheProperties properties;
+  private final ThreadPoolTaskExecutor cacheRefreshExecutor;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final MeterRegistry meterRegistry;
+  private final List<CacheRefreshLoader> refreshLoaders;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    UserCacheProperties.RefreshAhead refreshAhead = properties.getRefreshAhead();
+    if (!refreshAhead.isEnabled() || !refreshAhead.getCacheNames().contains(cache.getName())) {
+      return cache;
+    }
+    CacheRefreshLoader loader =
+        refreshLoaders.stream()
+            .filter(candidate -> candidate.getCacheName().equals(cache.getName()))
+            .findFirst()
+            .orElse(null);
+    if (loader == null) {
+      log.warn("Refresh-ahead is disabled for cache '{}': no refresh loader", cache.getName());
+      return cache;
+    }
+    return new RefreshAheadCache(
+        cache,
+        loader,
+        Caffeine.newBuilder()
+            .maximumSize(refreshAhead.getMaxTrackedKeys())
+            .expireAfterAccess(refreshAhead.getTrackingTtl())
+            .build(),
+        refreshAhead.getRefreshFraction(),
+        cacheRefreshExecutor,
+        stringRedisTemplate,
+        generations,
+        meterRegistry);
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.userservice.cache;
+
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Вторичные индексы поверх первичных кэшей: {@code email -> userId} и {@code номер карты ->
+ * cardId}. Индекс хранит только id, само значение живёт в первичном кэше ({@code users}, {@code
+ * cards}) в одном экземпляре и инвалидируется как обычно.
+ *
+ * <p>Индекс может пережить изменение записи, поэтому вызывающий код сверяет вторичный ключ в
+ * найденном значении. Номера карт попадают в ключи Redis только в виде SHA-256.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondaryKeyCache {
+
+  private final CacheManager cacheManager;
+
+  /**
+   * Значение по вторичному ключу. При попадании в индекс значение читается из первичного кэша, а
+   * при его отсутствии загружается по id через {@code loadById} и кладётся туда же, как при чтении
+   * по id. {@code null}, если ключа нет в индексе или запись по id больше не существует.
+   */
+  public <V> V resolve(
+      String indexCache,
+      Object secondaryKey,
+      String primaryCache,
+      Class<V> type,
+      Function<Long, ? extends V> loadById) {
+    Cache index = cacheManager.getCache(indexCache);
+    Cache primary = cacheManager.getCache(primaryCache);
+    if (index == null || primary == null || secondaryKey == null) {
+      return null;
+    }
+    Cache.ValueWrapper id = index.get(indexKey(indexCache, secondaryKey));
+    // JSON-формат возвращает небольшие числа как Integer
+    if (id == null || !(id.get() instanceof Number number)) {
+      return null;
+    }
+    long primaryId = number.longValue();
+    Object value;
+    try {
+      value = primary.get(primaryId, () -> loadById.apply(primaryId));
+    } catch (Cache.ValueRetrievalException e) {
+      // Запись удалена, индекс устарел - вызывающий код найдёт значение по вторичному ключу
+      return null;
+    }
+    return type.isInstance(value) ? type.cast(value) : null;
+  }
+
+  /**
+   * Запоминает соответствие вторичного ключа и id и кладёт значение в первичный кэш, если его там
+   * ещё нет: значение, записанное там после чтения из БД, новее.
+   */
+  public void remember(
+      String indexCache, Object secondaryKey, String primaryCache, Long id, Object value) {
+    Cache index = cacheManager.getCache(indexCache);
+    if (index == null || secondaryKey == null || id == null) {
+      return;
+    }
+    index.put(indexKey(indexCache, secondaryKey), id);
+    Cache primary = cacheManager.getCache(primaryCache);
+    if (primary != null && value != null) {
+      primary.putIfAbsent(id, value);
+    }
+  }
+
+  /** Удаляет вторичные ключи; внутри транзакции удаление выполняется после коммита. */
+  public void forget(String indexCache, Object... secondaryKeys) {
+    Cache index = cacheManager.getCache(indexCache);
+    if (index == null) {
+      return;
+    }
+    for (Object secondaryKey : secondaryKeys) {
+      if (secondaryKey != null) {
+        index.evict(indexKey(indexCache, secondaryKey));
+      }
+    }
+  }
+
+  static String indexKey(String indexCache, Object secondaryKey) {
+    String value = String.valueOf(secondaryKey);
+    return CacheNames.CARD_IDS_BY_NUMBER.equals(indexCache) ? NegativeCache.sha256(value) : value;
+  }
+}
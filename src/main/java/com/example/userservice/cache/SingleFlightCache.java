@@ -0,0 +1,202 @@
+package com.example.userservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Схлопывает параллельные промахи по одному ключу в одну загрузку.
+ *
+ * <p>Внутри узла загрузку выполняет первый поток, остальные ждут его результат. Между узлами
+ * загрузку координирует короткая аренда в Redis ({@code SET NX PX}): узел без аренды опрашивает
+ * кэш, пока владелец аренды не запишет значение, и грузит сам, как только аренды больше нет:
+ * владелец снял её без значения (загрузка не удалась или вернула {@code null}) или она истекла.
+ */
+@Slf4j
+public class SingleFlightCache extends DelegatingCache {
+
+  private static final String LEASE_PREFIX = "user-service:lease:";
+
+  private static final RedisScript<Long> RELEASE_LEASE =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then "
+              + "return redis.call('del', KEYS[1]) else return 0 end",
+          Long.class);
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheCircuitBreaker circuitBreaker;
+  private final Duration leaseTime;
+  private final Duration pollInterval;
+  private final Counter localWaiters;
+  private final Counter remoteWaiters;
+
+  public SingleFlightCache(
+      Cache delegate,
+      StringRedisTemplate stringRedisTemplate,
+      CacheCircuitBreaker circuitBreaker,
+      Duration leaseTime,
+      Duration pollInterval,
+      MeterRegistry meterRegistry) {
+    super(delegate);
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.circuitBreaker = circuitBreaker;
+    this.leaseTime = leaseTime;
+    this.pollInterval = pollInterval;
+    this.localWaiters = waitersCounter(meterRegistry, delegate.getName(), "local");
+    this.remoteWaiters = waitersCounter(meterRegistry, delegate.getName(), "remote");
+  }
+
+  private static Counter waitersCounter(MeterRegistry registry, String cacheName, String scope) {
+    return Counter.builder("cache.coalesced.waiters")
+        .description("Cache misses served by another in-flight load of the same key")
+        .tag("cache", cacheName)
+        .tag("scope", scope)
+        .register(registry);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper cached = delegate.get(key);
+    if (cached != null && cached.get() != null) {
+      return (T) cached.get();
+    }
+
+    String flightKey = String.valueOf(key);
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+    if (existing != null) {
+      localWaiters.increment();
+      return (T) await(existing);
+    }
+
+    try {
+      Object value = loadOnce(key, valueLoader);
+      flight.complete(value);
+      return (T) value;
+    } catch (Throwable ex) {
+      flight.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(flightKey, flight);
+    }
+  }
+
+  private Object loadOnce(Object key, Callable<?> valueLoader) {
+    String leaseKey = LEASE_PREFIX + getName() + "::" + key;
+    String token = UUID.randomUUID().toString();
+    boolean leased = acquireLease(leaseKey, token);
+    try {
+      if (!leased) {
+        remoteWaiters.increment();
+        Object value = awaitRemoteLoad(key, leaseKey);
+        if (value != null) {
+          return value;
+        }
+        log.debug("Lease for {} is gone without a value, loading locally", leaseKey);
+      }
+      Object value = invokeLoader(key, valueLoader);
+      if (value != null) {
+        delegate.put(key, value);
+      }
+      return value;
+    } finally {
+      if (leased) {
+        releaseLease(leaseKey, token);
+      }
+    }
+  }
+
+  private boolean acquireLease(String leaseKey, String token) {
+    if (!circuitBreaker.isClosed()) {
+      // Пока Redis недоступен, ждать чужую загрузку бессмысленно - её результат в кэш не попадёт
+      return true;
+    }
+    try {
+      return Boolean.TRUE.equals(
+          stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTime));
+    } catch (Exception e) {
+      // Без Redis координировать узлы нечем - грузим локально
+      log.debug("Could not acquire load lease {}: {}", leaseKey, e.getMessage());
+      return true;
+    }
+  }
+
+  private void releaseLease(String leaseKey, String token) {
+    try {
+      stringRedisTemplate.execute(RELEASE_LEASE, List.of(leaseKey), token);
+    } catch (Exception e) {
+      log.debug("Could not release load lease {}: {}", leaseKey, e.getMessage());
+    }
+  }
+
+  private Object awaitRemoteLoad(Object key, String leaseKey) {
+    long deadline = System.nanoTime() + leaseTime.toNanos();
+    try {
+      while (System.nanoTime() < deadline) {
+        Thread.sleep(pollInterval.toMillis());
+        Object value = cachedValue(key);
+        if (value != null) {
+          return value;
+        }
+        if (!leaseHeld(leaseKey)) {
+          // Владелец мог записать значение и снять аренду между двумя чтениями
+          return cachedValue(key);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private Object cachedValue(Object key) {
+    ValueWrapper wrapper = delegate.get(key);
+    return wrapper != null ? wrapper.get() : null;
+  }
+
+  private boolean leaseHeld(String leaseKey) {
+    try {
+      return Boolean.TRUE.equals(stringRedisTemplate.hasKey(leaseKey));
+    } catch (Exception e) {
+      log.debug("Could not check load lease {}: {}", leaseKey, e.getMessage());
+      return false;
+    }
+  }
+
+  private static Object invokeLoader(Object key, Callable<?> valueLoader) {
+    try {
+      return valueLoader.call();
+    } catch (Exception ex) {
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (ex.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(200)
+@RequiredArgsConstructor
+public class SingleFlightCacheDecorator implements CacheDecorator {
+
+  private final UserCacheProperties properties;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheCircuitBreaker circuitBreaker;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    UserCacheProperties.SingleFlight singleFlight = properties.getSingleFlight();
+    if (!singleFlight.isEnabled() || !singleFlight.getCacheNames().contains(cache.getName())) {
+      return cache;
+    }
+    return new SingleFlightCache(
+        cache,
+        stringRedisTemplate,
+        circuitBreaker,
+        singleFlight.getLeaseTime(),
+        singleFlight.getPollInterval(),
+        meterRegistry);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.userservice.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Внешний декоратор: считает попадания и промахи так, как их видит вызывающий код.
+ *
+ * <p>В {@link #get(Object, Callable)} запись сначала читается без загрузчика: на попадании не
+ * создаются ни обёртка загрузчика, ни флаг. При промахе промахом считается только вызов загрузчика:
+ * запрос, дождавшийся чужой загрузки того же ключа, считается попаданием - до БД он не дошёл.
+ */
+public class StatisticsCache extends DelegatingCache {
+
+  private final CacheCounters counters;
+
+  public StatisticsCache(org.springframework.cache.Cache delegate, CacheCounters counters) {
+    super(delegate);
+    this.counters = counters;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper wrapper = delegate.get(key);
+    if (wrapper != null) {
+      counters.recordHit();
+    } else {
+      counters.recordMiss();
+    }
+    return wrapper;
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    return wrapper != null ? requireType(wrapper.get(), type) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    // Попадание обходится без обёртки загрузчика; она нужна только при промахе
+    ValueWrapper cached = delegate.get(key);
+    if (cached != null) {
+      counters.recordHit();
+      return (T) cached.get();
+    }
+    AtomicBoolean loaded = new AtomicBoolean();
+    T value =
+        delegate.get(
+            key,
+            () -> {
+              loaded.set(true);
+              long start = System.nanoTime();
+              try {
+                return valueLoader.call();
+              } finally {
+                counters.recordLoad(System.nanoTime() - start);
+              }
+            });
+    if (loaded.get()) {
+      counters.recordMiss();
+    } else {
+      counters.recordHit();
+    }
+    return value;
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(1000)
+@RequiredArgsConstructor
+public class StatisticsCacheDecorator implements CacheDecorator {
+
+  private final CacheStatistics statistics;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    return new StatisticsCache(cache, statistics.counters(cache.getName()));
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.userservice.cache;
+
+import java.util.Collection;
+
+/**
+ * Внешний декоратор: удаления внутри транзакции выполняются после её коммита через {@link
+ * PostCommitEvictions}, вне транзакции - сразу.
+ *
+ * <p>{@code evictIfPresent} внутри транзакции возвращает {@code false}, так как запись ещё не
+ * удалена. Код, который удаляет записи уже после завершения транзакции (например, в {@code
+ * afterCompletion}), должен работать с {@link #getDelegate()}.
+ */
+public class TransactionalEvictionCache extends DelegatingCache {
+
+  private final PostCommitEvictions evictions;
+
+  public TransactionalEvictionCache(
+      org.springframework.cache.Cache delegate, PostCommitEvictions evictions) {
+    super(delegate);
+    this.evictions = evictions;
+  }
+
+  @Override
+  public void evict(Object key) {
+    if (!evictions.defer(this, key)) {
+      delegate.evict(key);
+    }
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    if (evictions.defer(this, key)) {
+      return false;
+    }
+    return delegate.evictIfPresent(key);
+  }
+
+  /** Удаляет ключи поштучно через цепочку декораторов, без отложенного pipeline. */
+  void evictThrough(Collection<Object> keys) {
+    for (Object key : keys) {
+      delegate.evict(key);
+    }
+  }
+}
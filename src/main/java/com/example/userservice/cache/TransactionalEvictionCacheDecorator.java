@@ -0,0 +1,24 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.config.UserCacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(2000)
+@RequiredArgsConstructor
+public class TransactionalEvictionCacheDecorator implements CacheDecorator {
+
+  private final UserCacheProperties properties;
+  private final PostCommitEvictions evictions;
+
+  @Override
+  public Cache decorate(Cache cache) {
+    if (!properties.getPostCommitEviction().isEnabled()) {
+      return cache;
+    }
+    return new TransactionalEvictionCache(cache, evictions);
+  }
+}
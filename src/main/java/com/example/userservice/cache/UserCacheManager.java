@@ -0,0 +1,63 @@
+package com.example.userservice.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * {@link CacheManager}, который оборачивает кэши Redis цепочкой {@link CacheDecorator} (локальный
+ * уровень и т.д.).
+ */
+public class UserCacheManager implements CacheManager {
+
+  private final CacheManager redisCacheManager;
+  private final List<CacheDecorator> decorators;
+  private final Map<String, Cache> baseCaches;
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public UserCacheManager(CacheManager redisCacheManager, List<CacheDecorator> decorators) {
+    this(redisCacheManager, decorators, Map.of());
+  }
+
+  /**
+   * @param baseCaches кэши, которые заменяют кэши Redis с тем же именем в основании цепочки
+   */
+  public UserCacheManager(
+      CacheManager redisCacheManager,
+      List<CacheDecorator> decorators,
+      Map<String, Cache> baseCaches) {
+    this.redisCacheManager = redisCacheManager;
+    this.decorators = decorators;
+    this.baseCaches = baseCaches;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache cache = caches.get(name);
+    if (cache != null) {
+      return cache;
+    }
+    Cache target = baseCaches.getOrDefault(name, redisCacheManager.getCache(name));
+    if (target == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(name, cacheName -> decorate(target));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return redisCacheManager.getCacheNames();
+  }
+
+  private Cache decorate(Cache target) {
+    Cache cache = target;
+    for (CacheDecorator decorator : decorators) {
+      cache = decorator.decorate(cache);
+    }
+    return cache;
+  }
+}
@@ -0,0 +1,243 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Представление пользователя ({@code users}, {@code usersWithCards} или {@code userCards}) в общем
+ * для всех представлений хэше Redis {@code user-service:user::<id>}.
+ *
+ * <p>Каждое представление - поле хэша с поколением кэша в имени ({@code users:v3}), у хэша один
+ * TTL. Чтение - один {@code HMGET}: {@code users} и {@code userCards} выводятся из поля {@code
+ * usersWithCards}, если своего поля нет. Удаление любого представления удаляет весь хэш одним
+ * {@code UNLINK}, поэтому представления одного пользователя не расходятся.
+ */
+@Slf4j
+public class UserHashCache extends AbstractValueAdaptingCache {
+
+  public static final String KEY_PREFIX = "user-service:user::";
+
+  private final String name;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CacheGenerations generations;
+  private final RedisSerializer<Object> serializer;
+  private final RedisCacheWriter.TtlFunction ttlFunction;
+
+  public UserHashCache(
+      String name,
+      StringRedisTemplate stringRedisTemplate,
+      CacheGenerations generations,
+      RedisSerializer<Object> serializer,
+      RedisCacheWriter.TtlFunction ttlFunction) {
+    super(false);
+    if (!CacheNames.USER_CACHES.contains(name)) {
+      throw new IllegalArgumentException("Not a user view cache: " + name);
+    }
+    this.name = name;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.generations = generations;
+    this.serializer = serializer;
+    this.ttlFunction = ttlFunction;
+  }
+
+  public static String hashKey(Object key) {
+    return KEY_PREFIX + key;
+  }
+
+  public Duration ttl(Object key, Object value) {
+    return ttlFunction.getTimeToLive(key, value);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return stringRedisTemplate;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    byte[] rawKey = bytes(hashKey(key));
+    byte[][] fields = fields();
+    List<byte[]> values =
+        stringRedisTemplate.execute(
+            (RedisCallback<List<byte[]>>)
+                connection -> connection.hashCommands().hMGet(rawKey, fields));
+    return decode(values);
+  }
+
+  /**
+   * Значения многих ключей: {@code HMGET} каждого хэша в одном pipeline, то есть одно обращение к
+   * Redis. Ключей без значения в результате нет.
+   */
+  public Map<Object, Object> lookupAll(List<?> keys) {
+    byte[][] fields = fields();
+    // Поля читаются как есть: сериализатор шаблона строковый и испортил бы значения
+    List<Object> results =
+        stringRedisTemplate.executePipelined(
+            (RedisCallback<Object>)
+                connection -> {
+                  for (Object key : keys) {
+                    connection.hashCommands().hMGet(bytes(hashKey(key)), fields);
+                  }
+                  return null;
+                },
+            RedisSerializer.byteArray());
+    Map<Object, Object> found = new HashMap<>();
+    for (int i = 0; i < keys.size() && i < results.size(); i++) {
+      @SuppressWarnings("unchecked")
+      Object value = decode((List<byte[]>) results.get(i));
+      if (value != null) {
+        found.put(keys.get(i), value);
+      }
+    }
+    return found;
+  }
+
+  /** Своё поле и, если представление выводится из него, поле {@code usersWithCards}. */
+  private byte[][] fields() {
+    if (CacheNames.USERS_WITH_CARDS.equals(name)) {
+      return new byte[][] {field(name)};
+    }
+    return new byte[][] {field(name), field(CacheNames.USERS_WITH_CARDS)};
+  }
+
+  private Object decode(List<byte[]> values) {
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    if (values.get(0) != null) {
+      return serializer.deserialize(values.get(0));
+    }
+    if (values.size() < 2 || values.get(1) == null) {
+      return null;
+    }
+    Object source = serializer.deserialize(values.get(1));
+    return source instanceof UserWithCardsResponseDTO userWithCards ? derive(userWithCards) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper cached = get(key);
+    if (cached != null) {
+      return (T) cached.get();
+    }
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (value == null) {
+      evict(key);
+      return;
+    }
+    byte[] rawKey = bytes(hashKey(key));
+    byte[] field = field(name);
+    byte[] rawValue = serializer.serialize(value);
+    long ttlMillis = ttl(key, value).toMillis();
+    // TTL общий для хэша: любая запись продлевает его, но любое изменение пользователя удаляет хэш
+    // целиком, поэтому продлённые поля не устаревают
+    stringRedisTemplate.executePipelined(
+        (RedisCallback<Object>)
+            connection -> {
+              connection.hashCommands().hSet(rawKey, field, rawValue);
+              connection.keyCommands().pExpire(rawKey, ttlMillis);
+              return null;
+            });
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = get(key);
+    if (existing != null) {
+      return existing;
+    }
+    put(key, value);
+    return null;
+  }
+
+  @Override
+  public void evict(Object key) {
+    stringRedisTemplate.unlink(hashKey(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    return Boolean.TRUE.equals(stringRedisTemplate.unlink(hashKey(key)));
+  }
+
+  @Override
+  public void clear() {
+    // Обычно сброс делает GenerationalCache сменой поколения, сюда он попадает только без него
+    List<String> batch = new ArrayList<>();
+    try (Cursor<String> cursor =
+        stringRedisTemplate.scan(
+            ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(500).build())) {
+      while (cursor.hasNext()) {
+        batch.add(cursor.next());
+        if (batch.size() == 500) {
+          stringRedisTemplate.unlink(batch);
+          batch.clear();
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      stringRedisTemplate.unlink(batch);
+    }
+    log.info("Cleared user hashes via cache {}", name);
+  }
+
+  private Object derive(UserWithCardsResponseDTO source) {
+    if (CacheNames.USER_CARDS.equals(name)) {
+      List<PaymentCardResponseDTO> cards = source.getPaymentCards();
+      return cards != null ? new ArrayList<>(cards) : null;
+    }
+    UserResponseDTO user = new UserResponseDTO();
+    user.setId(source.getId());
+    user.setName(source.getName());
+    user.setSurname(source.getSurname());
+    user.setBirthDate(source.getBirthDate());
+    user.setEmail(source.getEmail());
+    user.setActive(source.getActive());
+    user.setCreatedAt(source.getCreatedAt());
+    user.setUpdatedAt(source.getUpdatedAt());
+    return user;
+  }
+
+  private byte[] field(String cacheName) {
+    return bytes(cacheName + ":v" + generations.current(cacheName));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,300 @@
+package com.example.userservice.cache.codec;
+
+import com.example.userservice.cache.CachedPage;
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Компактный бинарный формат значений кэша для DTO пользователей и карт.
+ *
+ * <p>Запись начинается с байта версии формата и байта типа, далее идут поля с числовыми тегами
+ * вместо имён классов и полей. Всё, что формат не знает, а также записи старого JSON-формата
+ * (начинаются с {@code '{'} или {@code '['}), обрабатывает переданный JSON-сериализатор, поэтому
+ * при раскатке новые узлы читают уже накопленные в Redis JSON-записи.
+ *
+ * <p>С {@code writeBinary = false} значения пишутся в JSON, а читаются оба формата: так узлы
+ * работают, пока в кластере есть узлы, не знающие бинарного формата.
+ */
+public class BinaryCacheValueSerializer implements RedisSerializer<Object> {
+
+  static final byte FORMAT_V1 = 0x01;
+
+  private static final byte TYPE_USER = 1;
+  private static final byte TYPE_USER_WITH_CARDS = 2;
+  private static final byte TYPE_CARD_LIST = 3;
+  private static final byte TYPE_CARD = 4;
+  private static final byte TYPE_PAGE = 5;
+
+  // Общие поля пользователя
+  private static final int USER_ID = 1;
+  private static final int USER_NAME = 2;
+  private static final int USER_SURNAME = 3;
+  private static final int USER_BIRTH_DATE = 4;
+  private static final int USER_EMAIL = 5;
+  private static final int USER_ACTIVE = 6;
+  private static final int USER_CREATED_AT = 7;
+  private static final int USER_UPDATED_AT = 8;
+  private static final int USER_CARD = 9;
+  private static final int USER_CARDS_PRESENT = 10;
+
+  private static final int CARD_ID = 1;
+  private static final int CARD_USER_ID = 2;
+  private static final int CARD_NUMBER = 3;
+  private static final int CARD_HOLDER = 4;
+  private static final int CARD_EXPIRATION_DATE = 5;
+  private static final int CARD_ACTIVE = 6;
+  private static final int CARD_CREATED_AT = 7;
+  private static final int CARD_UPDATED_AT = 8;
+
+  private static final int LIST_ITEM = 1;
+
+  private static final int PAGE_TOTAL = 1;
+  private static final int PAGE_USER = 2;
+  private static final int PAGE_CARD = 3;
+
+  private final RedisSerializer<Object> fallback;
+  private final boolean writeBinary;
+
+  public BinaryCacheValueSerializer(RedisSerializer<Object> fallback) {
+    this(fallback, true);
+  }
+
+  public BinaryCacheValueSerializer(RedisSerializer<Object> fallback, boolean writeBinary) {
+    this.fallback = fallback;
+    this.writeBinary = writeBinary;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (!writeBinary) {
+      return fallback.serialize(value);
+    }
+    if (value instanceof UserWithCardsResponseDTO userWithCards) {
+      TaggedFieldWriter writer = header(TYPE_USER_WITH_CARDS, 256);
+      writeUserWithCards(writer, userWithCards);
+      return writer.toByteArray();
+    }
+    if (value instanceof UserResponseDTO user) {
+      TaggedFieldWriter writer = header(TYPE_USER, 128);
+      writeUser(writer, user);
+      return writer.toByteArray();
+    }
+    if (value instanceof PaymentCardResponseDTO card) {
+      TaggedFieldWriter writer = header(TYPE_CARD, 96);
+      writeCard(writer, card);
+      return writer.toByteArray();
+    }
+    if (value instanceof CachedPage page && isEncodablePage(page)) {
+      TaggedFieldWriter writer = header(TYPE_PAGE, 64 + page.getContent().size() * 128);
+      writer.writeLong(PAGE_TOTAL, page.getTotalElements());
+      for (Object item : page.getContent()) {
+        if (item instanceof PaymentCardResponseDTO card) {
+          writer.writeMessage(PAGE_CARD, encodeCard(card));
+        } else {
+          TaggedFieldWriter user = new TaggedFieldWriter(128);
+          writeUser(user, (UserResponseDTO) item);
+          writer.writeMessage(PAGE_USER, user);
+        }
+      }
+      return writer.toByteArray();
+    }
+    if (value instanceof List<?> list && isCardList(list)) {
+      TaggedFieldWriter writer = header(TYPE_CARD_LIST, 64 + list.size() * 96);
+      for (Object card : list) {
+        writer.writeMessage(LIST_ITEM, encodeCard((PaymentCardResponseDTO) card));
+      }
+      return writer.toByteArray();
+    }
+    return fallback.serialize(value);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != FORMAT_V1) {
+      return fallback.deserialize(bytes);
+    }
+    if (bytes.length < 2) {
+      throw new SerializationException("Truncated cache entry header");
+    }
+    TaggedFieldReader reader = new TaggedFieldReader(bytes, 2, bytes.length);
+    return switch (bytes[1]) {
+      case TYPE_USER -> readUser(reader);
+      case TYPE_USER_WITH_CARDS -> readUserWithCards(reader);
+      case TYPE_CARD_LIST -> readCardList(reader);
+      case TYPE_CARD -> readCard(reader);
+      case TYPE_PAGE -> readPage(reader);
+      default -> throw new SerializationException("Unknown cache entry type: " + bytes[1]);
+    };
+  }
+
+  private static boolean isCardList(List<?> list) {
+    for (Object item : list) {
+      if (!(item instanceof PaymentCardResponseDTO)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEncodablePage(CachedPage page) {
+    if (page.getContent() == null) {
+      return false;
+    }
+    for (Object item : page.getContent()) {
+      if (!(item instanceof UserResponseDTO) && !(item instanceof PaymentCardResponseDTO)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static TaggedFieldWriter header(byte type, int capacity) {
+    TaggedFieldWriter writer = new TaggedFieldWriter(capacity);
+    writer.writeRawByte(FORMAT_V1);
+    writer.writeRawByte(type);
+    return writer;
+  }
+
+  private static void writeUser(TaggedFieldWriter writer, UserResponseDTO user) {
+    writer.writeLong(USER_ID, user.getId());
+    writer.writeString(USER_NAME, user.getName());
+    writer.writeString(USER_SURNAME, user.getSurname());
+    writer.writeDate(USER_BIRTH_DATE, user.getBirthDate());
+    writer.writeString(USER_EMAIL, user.getEmail());
+    writer.writeBoolean(USER_ACTIVE, user.getActive());
+    writer.writeDateTime(USER_CREATED_AT, user.getCreatedAt());
+    writer.writeDateTime(USER_UPDATED_AT, user.getUpdatedAt());
+  }
+
+  private static void writeUserWithCards(TaggedFieldWriter writer, UserWithCardsResponseDTO user) {
+    writer.writeLong(USER_ID, user.getId());
+    writer.writeString(USER_NAME, user.getName());
+    writer.writeString(USER_SURNAME, user.getSurname());
+    writer.writeDate(USER_BIRTH_DATE, user.getBirthDate());
+    writer.writeString(USER_EMAIL, user.getEmail());
+    writer.writeBoolean(USER_ACTIVE, user.getActive());
+    writer.writeDateTime(USER_CREATED_AT, user.getCreatedAt());
+    writer.writeDateTime(USER_UPDATED_AT, user.getUpdatedAt());
+    if (user.getPaymentCards() != null) {
+      writer.writeBoolean(USER_CARDS_PRESENT, true);
+      for (PaymentCardResponseDTO card : user.getPaymentCards()) {
+        writer.writeMessage(USER_CARD, encodeCard(card));
+      }
+    }
+  }
+
+  private static TaggedFieldWriter encodeCard(PaymentCardResponseDTO card) {
+    TaggedFieldWriter writer = new TaggedFieldWriter(96);
+    writeCard(writer, card);
+    return writer;
+  }
+
+  private static void writeCard(TaggedFieldWriter writer, PaymentCardResponseDTO card) {
+    writer.writeLong(CARD_ID, card.getId());
+    writer.writeLong(CARD_USER_ID, card.getUserId());
+    writer.writeString(CARD_NUMBER, card.getNumber());
+    writer.writeString(CARD_HOLDER, card.getHolder());
+    writer.writeDate(CARD_EXPIRATION_DATE, card.getExpirationDate());
+    writer.writeBoolean(CARD_ACTIVE, card.getActive());
+    writer.writeDateTime(CARD_CREATED_AT, card.getCreatedAt());
+    writer.writeDateTime(CARD_UPDATED_AT, card.getUpdatedAt());
+  }
+
+  private static UserResponseDTO readUser(TaggedFieldReader reader) {
+    UserResponseDTO user = new UserResponseDTO();
+    while (reader.hasRemaining()) {
+      int tag = reader.readTag();
+      switch (tag >>> 3) {
+        case USER_ID -> user.setId(reader.readLong());
+        case USER_NAME -> user.setName(reader.readString());
+        case USER_SURNAME -> user.setSurname(reader.readString());
+        case USER_BIRTH_DATE -> user.setBirthDate(reader.readDate());
+        case USER_EMAIL -> user.setEmail(reader.readString());
+        case USER_ACTIVE -> user.setActive(reader.readBoolean());
+        case USER_CREATED_AT -> user.setCreatedAt(reader.readDateTime());
+        case USER_UPDATED_AT -> user.setUpdatedAt(reader.readDateTime());
+        default -> reader.skipField(tag);
+      }
+    }
+    return user;
+  }
+
+  private static UserWithCardsResponseDTO readUserWithCards(TaggedFieldReader reader) {
+    UserWithCardsResponseDTO user = new UserWithCardsResponseDTO();
+    List<PaymentCardResponseDTO> cards = new ArrayList<>();
+    boolean cardsPresent = false;
+    while (reader.hasRemaining()) {
+      int tag = reader.readTag();
+      switch (tag >>> 3) {
+        case USER_ID -> user.setId(reader.readLong());
+        case USER_NAME -> user.setName(reader.readString());
+        case USER_SURNAME -> user.setSurname(reader.readString());
+        case USER_BIRTH_DATE -> user.setBirthDate(reader.readDate());
+        case USER_EMAIL -> user.setEmail(reader.readString());
+        case USER_ACTIVE -> user.setActive(reader.readBoolean());
+        case USER_CREATED_AT -> user.setCreatedAt(reader.readDateTime());
+        case USER_UPDATED_AT -> user.setUpdatedAt(reader.readDateTime());
+        case USER_CARD -> cards.add(readCard(reader.readMessage()));
+        case USER_CARDS_PRESENT -> cardsPresent = reader.readBoolean();
+        default -> reader.skipField(tag);
+      }
+    }
+    user.setPaymentCards(cardsPresent || !cards.isEmpty() ? cards : null);
+    return user;
+  }
+
+  private static List<PaymentCardResponseDTO> readCardList(TaggedFieldReader reader) {
+    List<PaymentCardResponseDTO> cards = new ArrayList<>();
+    while (reader.hasRemaining()) {
+      int tag = reader.readTag();
+      if (tag >>> 3 == LIST_ITEM) {
+        cards.add(readCard(reader.readMessage()));
+      } else {
+        reader.skipField(tag);
+      }
+    }
+    return cards;
+  }
+
+  private static CachedPage readPage(TaggedFieldReader reader) {
+    List<Object> content = new ArrayList<>();
+    long total = 0;
+    while (reader.hasRemaining()) {
+      int tag = reader.readTag();
+      switch (tag >>> 3) {
+        case PAGE_TOTAL -> total = reader.readLong();
+        case PAGE_USER -> content.add(readUser(reader.readMessage()));
+        case PAGE_CARD -> content.add(readCard(reader.readMessage()));
+        default -> reader.skipField(tag);
+      }
+    }
+    return new CachedPage(content, total);
+  }
+
+  private static PaymentCardResponseDTO readCard(TaggedFieldReader reader) {
+    PaymentCardResponseDTO card = new PaymentCardResponseDTO();
+    while (reader.hasRemaining()) {
+      int tag = reader.readTag();
+      switch (tag >>> 3) {
+        case CARD_ID -> card.setId(reader.readLong());
+        case CARD_USER_ID -> card.setUserId(reader.readLong());
+        case CARD_NUMBER -> card.setNumber(reader.readString());
+        case CARD_HOLDER -> card.setHolder(reader.readString());
+        case CARD_EXPIRATION_DATE -> card.setExpirationDate(reader.readDate());
+        case CARD_ACTIVE -> card.setActive(reader.readBoolean());
+        case CARD_CREATED_AT -> card.setCreatedAt(reader.readDateTime());
+        case CARD_UPDATED_AT -> card.setUpdatedAt(reader.readDateTime());
+        default -> reader.skipField(tag);
+      }
+    }
+    return card;
+  }
+}
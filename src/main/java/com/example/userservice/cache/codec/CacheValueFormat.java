@@ -0,0 +1,10 @@
+package com.example.userservice.cache.codec;
+
+/**
+ * Формат значений, которые кэш пишет в Redis. Читаются оба формата независимо от настройки, поэтому
+ * {@link #BINARY} включается отдельной раскаткой, когда все узлы уже умеют его читать.
+ */
+public enum CacheValueFormat {
+  JSON,
+  BINARY
+}
@@ -0,0 +1,162 @@
+package com.example.userservice.cache.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Сжимает значения кэша, размер которых превышает порог.
+ *
+ * <p>Сжатая запись начинается с байта {@link #FORMAT_COMPRESSED}, за ним идут исходная длина (4
+ * байта) и поток deflate без заголовка zlib. Первый байт несжатых записей - {@code 0x01} у
+ * бинарного формата и {@code '{'}/{@code '['} у JSON, поэтому сжатые и несжатые записи живут в
+ * одном кэше вместе, а читать сжатые записи умеет и кэш, для которого сжатие выключено.
+ *
+ * <p>Время сжатия и распаковки - процессорное время потока ({@link ThreadMXBean}), а не время по
+ * часам, в которое попали бы вытеснение потока и паузы GC. Если JVM его не измеряет, таймеры пусты.
+ */
+public class CompressingCacheValueSerializer implements RedisSerializer<Object> {
+
+  static final byte FORMAT_COMPRESSED = 0x02;
+
+  private static final int HEADER_LENGTH = 5;
+  // Защита от записи, которая при распаковке раздулась бы до неприличного размера
+  private static final int MAX_UNCOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+  private static final ThreadLocal<Deflater> DEFLATER =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+  private static final ThreadLocal<Inflater> INFLATER =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_SUPPORTED =
+      THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+  private final RedisSerializer<Object> delegate;
+  private final boolean compress;
+  private final int thresholdBytes;
+  private final DistributionSummary ratio;
+  private final Timer compressTime;
+  private final Timer decompressTime;
+
+  public CompressingCacheValueSerializer(
+      RedisSerializer<Object> delegate,
+      boolean compress,
+      int thresholdBytes,
+      String cacheName,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.compress = compress;
+    this.thresholdBytes = thresholdBytes;
+    this.ratio =
+        DistributionSummary.builder("cache.compression.ratio")
+            .description("Uncompressed to compressed size of cache values")
+            .tag("cache", cacheName)
+            .register(meterRegistry);
+    this.compressTime = compressionTimer(meterRegistry, cacheName, "compress");
+    this.decompressTime = compressionTimer(meterRegistry, cacheName, "decompress");
+  }
+
+  private static Timer compressionTimer(
+      MeterRegistry meterRegistry, String cacheName, String operation) {
+    return Timer.builder("cache.compression.cpu.time")
+        .description("CPU time of the calling thread spent compressing and decompressing values")
+        .tag("cache", cacheName)
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    byte[] bytes = delegate.serialize(value);
+    if (!compress || bytes == null || bytes.length < thresholdBytes) {
+      return bytes;
+    }
+    long start = cpuTime();
+    byte[] compressed = deflate(bytes);
+    recordCpuTime(compressTime, start);
+    if (compressed.length >= bytes.length) {
+      // Несжимаемое значение выгоднее хранить как есть
+      return bytes;
+    }
+    ratio.record((double) bytes.length / compressed.length);
+    return compressed;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0 || bytes[0] != FORMAT_COMPRESSED) {
+      return delegate.deserialize(bytes);
+    }
+    long start = cpuTime();
+    byte[] inflated = inflate(bytes);
+    recordCpuTime(decompressTime, start);
+    return delegate.deserialize(inflated);
+  }
+
+  private static long cpuTime() {
+    return CPU_TIME_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  private static void recordCpuTime(Timer timer, long start) {
+    if (start >= 0) {
+      timer.record(THREADS.getCurrentThreadCpuTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static byte[] deflate(byte[] bytes) {
+    Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    deflater.setInput(bytes);
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_LENGTH);
+    out.write(FORMAT_COMPRESSED);
+    out.writeBytes(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    byte[] buffer = new byte[1024];
+    while (!deflater.finished()) {
+      int written = deflater.deflate(buffer);
+      out.write(buffer, 0, written);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] inflate(byte[] bytes) {
+    if (bytes.length < HEADER_LENGTH) {
+      throw new SerializationException("Truncated compressed cache entry header");
+    }
+    int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+    if (length < 0 || length > MAX_UNCOMPRESSED_LENGTH) {
+      throw new SerializationException("Invalid compressed cache entry length: " + length);
+    }
+    Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+    byte[] result = new byte[length];
+    try {
+      int read = 0;
+      while (read < length) {
+        int n = inflater.inflate(result, read, length - read);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          break;
+        }
+        read += n;
+      }
+      if (read != length) {
+        throw new SerializationException("Truncated compressed cache entry");
+      }
+    } catch (DataFormatException e) {
+      throw new SerializationException("Corrupted compressed cache entry", e);
+    }
+    return result;
+  }
+}
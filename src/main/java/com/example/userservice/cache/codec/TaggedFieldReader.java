@@ -0,0 +1,107 @@
+package com.example.userservice.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/** Чтение полей, записанных {@link TaggedFieldWriter}. Неизвестные поля пропускаются. */
+final class TaggedFieldReader {
+
+  private final byte[] buffer;
+  private final int limit;
+  private int position;
+
+  TaggedFieldReader(byte[] buffer, int offset, int limit) {
+    this.buffer = buffer;
+    this.position = offset;
+    this.limit = limit;
+  }
+
+  boolean hasRemaining() {
+    return position < limit;
+  }
+
+  int readRawByte() {
+    if (position >= limit) {
+      throw new SerializationException("Truncated cache entry");
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  long readRawVarint() {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readRawByte();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new SerializationException("Malformed varint in cache entry");
+  }
+
+  /** Возвращает тег следующего поля: номер поля в старших битах, тип значения в младших трёх. */
+  int readTag() {
+    return (int) readRawVarint();
+  }
+
+  long readLong() {
+    long raw = readRawVarint();
+    return (raw >>> 1) ^ -(raw & 1);
+  }
+
+  boolean readBoolean() {
+    return readRawVarint() != 0;
+  }
+
+  String readString() {
+    int length = readLength();
+    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  LocalDate readDate() {
+    return LocalDate.ofEpochDay(readLong());
+  }
+
+  LocalDateTime readDateTime() {
+    TaggedFieldReader timestamp = readMessage();
+    long seconds = 0;
+    int nanos = 0;
+    while (timestamp.hasRemaining()) {
+      int tag = timestamp.readTag();
+      switch (tag >>> 3) {
+        case TaggedFieldWriter.TIMESTAMP_SECONDS -> seconds = timestamp.readLong();
+        case TaggedFieldWriter.TIMESTAMP_NANOS -> nanos = (int) timestamp.readLong();
+        default -> timestamp.skipField(tag);
+      }
+    }
+    return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+  }
+
+  TaggedFieldReader readMessage() {
+    int length = readLength();
+    TaggedFieldReader message = new TaggedFieldReader(buffer, position, position + length);
+    position += length;
+    return message;
+  }
+
+  void skipField(int tag) {
+    switch (tag & 0x7) {
+      case TaggedFieldWriter.VARINT -> readRawVarint();
+      case TaggedFieldWriter.LENGTH_DELIMITED -> position += readLength();
+      default -> throw new SerializationException("Unsupported wire type in cache entry: " + tag);
+    }
+  }
+
+  private int readLength() {
+    long length = readRawVarint();
+    if (length < 0 || length > limit - position) {
+      throw new SerializationException("Invalid field length in cache entry: " + length);
+    }
+    return (int) length;
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.userservice.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Запись полей в формате "тег + значение" (varint или блок с длиной), совместимом по идее с
+ * protobuf. Поля со значением {@code null} не пишутся.
+ */
+final class TaggedFieldWriter {
+
+  static final int VARINT = 0;
+  static final int LENGTH_DELIMITED = 2;
+
+  static final int TIMESTAMP_SECONDS = 1;
+  static final int TIMESTAMP_NANOS = 2;
+
+  private byte[] buffer;
+  private int size;
+
+  TaggedFieldWriter(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  void writeRawByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+  }
+
+  void writeRawVarint(long value) {
+    while ((value & ~0x7FL) != 0) {
+      writeRawByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    writeRawByte((int) value);
+  }
+
+  void writeLong(int field, Long value) {
+    if (value == null) {
+      return;
+    }
+    writeTag(field, VARINT);
+    writeRawVarint((value << 1) ^ (value >> 63));
+  }
+
+  void writeBoolean(int field, Boolean value) {
+    if (value == null) {
+      return;
+    }
+    writeTag(field, VARINT);
+    writeRawByte(value ? 1 : 0);
+  }
+
+  void writeString(int field, String value) {
+    if (value == null) {
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeBytes(field, bytes, bytes.length);
+  }
+
+  void writeDate(int field, LocalDate value) {
+    if (value != null) {
+      writeLong(field, value.toEpochDay());
+    }
+  }
+
+  void writeDateTime(int field, LocalDateTime value) {
+    if (value == null) {
+      return;
+    }
+    TaggedFieldWriter timestamp = new TaggedFieldWriter(16);
+    timestamp.writeLong(TIMESTAMP_SECONDS, value.toEpochSecond(ZoneOffset.UTC));
+    timestamp.writeLong(TIMESTAMP_NANOS, (long) value.getNano());
+    writeMessage(field, timestamp);
+  }
+
+  void writeMessage(int field, TaggedFieldWriter message) {
+    writeBytes(field, message.buffer, message.size);
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  private void writeBytes(int field, byte[] bytes, int length) {
+    writeTag(field, LENGTH_DELIMITED);
+    writeRawVarint(length);
+    ensureCapacity(length);
+    System.arraycopy(bytes, 0, buffer, size, length);
+    size += length;
+  }
+
+  private void writeTag(int field, int wireType) {
+    writeRawVarint(((long) field << 3) | wireType);
+  }
+
+  private void ensureCapacity(int extra) {
+    if (size + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.userservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CacheExecutorConfig {
+
+  @Bean
+  public ThreadPoolTaskExecutor cacheMaintenanceExecutor() {
+    // Одна фоновая задача обслуживания кэша за раз, чтобы не нагружать Redis параллельными SCAN
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(4);
+    executor.setThreadNamePrefix("cache-maintenance-");
+    executor.setWaitForTasksToCompleteOnShutdown(false);
+    return executor;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor cacheRefreshExecutor(UserCacheProperties cacheProperties) {
+    // Ограниченная очередь: при перегрузке refresh-ahead пропускается, запись истечёт как обычно
+    UserCacheProperties.RefreshAhead refreshAhead = cacheProperties.getRefreshAhead();
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(refreshAhead.getPoolSize());
+    executor.setMaxPoolSize(refreshAhead.getPoolSize());
+    executor.setQueueCapacity(refreshAhead.getQueueCapacity());
+    executor.setThreadNamePrefix("cache-refresh-");
+    executor.setWaitForTasksToCompleteOnShutdown(false);
+    return executor;
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.userservice.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Политики кэшей: TTL, разброс TTL и бюджет по числу записей или объёму. Незаданные для кэша
+ * параметры берутся из {@code defaults}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache.policies")
+public class CachePolicyProperties {
+
+  private Policy defaults = new Policy(Duration.ofHours(1), 0.1, null, null);
+  private Map<String, Policy> caches = new HashMap<>();
+
+  public Policy policyFor(String cacheName) {
+    Policy policy = caches.get(cacheName);
+    if (policy == null) {
+      return defaults;
+    }
+    return new Policy(
+        policy.getTtl() != null ? policy.getTtl() : defaults.getTtl(),
+        policy.getJitter() != null ? policy.getJitter() : defaults.getJitter(),
+        policy.getMaxEntries() != null ? policy.getMaxEntries() : defaults.getMaxEntries(),
+        policy.getMaxBytes() != null ? policy.getMaxBytes() : defaults.getMaxBytes());
+  }
+
+  @Getter
+  @Setter
+  public static class Policy {
+    private Duration ttl;
+    // Доля TTL, на которую срок жизни записи случайно отклоняется в обе стороны
+    private Double jitter;
+    private Long maxEntries;
+    private DataSize maxBytes;
+
+    public Policy() {}
+
+    public Policy(Duration ttl, Double jitter, Long maxEntries, DataSize maxBytes) {
+      this.ttl = ttl;
+      this.jitter = jitter;
+      this.maxEntries = maxEntries;
+      this.maxBytes = maxBytes;
+    }
+
+    public boolean hasBudget() {
+      return maxEntries != null || maxBytes != null;
+    }
+  }
+}
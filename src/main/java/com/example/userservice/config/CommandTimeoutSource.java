@@ -0,0 +1,54 @@
+package com.example.userservice.config;
+
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.RedisCommand;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Таймауты команд Lettuce по типу команды: чтения и записи кэша получают короткий бюджет, чтобы
+ * зависший Redis быстро превращался в промах, а служебные команды (SCAN, EVAL и т.д.) - общий
+ * таймаут клиента.
+ */
+class CommandTimeoutSource extends TimeoutOptions.TimeoutSource {
+
+  private static final Set<String> READS =
+      Set.of("GET", "MGET", "EXISTS", "HGET", "HMGET", "HGETALL", "TTL", "PTTL");
+
+  private static final Set<String> WRITES =
+      Set.of(
+          "SET",
+          "SETEX",
+          "PSETEX",
+          "DEL",
+          "UNLINK",
+          "EXPIRE",
+          "PEXPIRE",
+          "ZADD",
+          "ZREM",
+          "HSET",
+          "PUBLISH");
+
+  private final long readTimeoutMillis;
+  private final long writeTimeoutMillis;
+  private final long defaultTimeoutMillis;
+
+  CommandTimeoutSource(Duration readTimeout, Duration writeTimeout, Duration defaultTimeout) {
+    this.readTimeoutMillis = readTimeout.toMillis();
+    this.writeTimeoutMillis = writeTimeout.toMillis();
+    this.defaultTimeoutMillis = defaultTimeout.toMillis();
+  }
+
+  @Override
+  public long getTimeout(RedisCommand<?, ?, ?> command) {
+    String type = new String(command.getType().getBytes(), StandardCharsets.US_ASCII);
+    if (READS.contains(type)) {
+      return readTimeoutMillis;
+    }
+    if (WRITES.contains(type)) {
+      return writeTimeoutMillis;
+    }
+    return defaultTimeoutMillis;
+  }
+}
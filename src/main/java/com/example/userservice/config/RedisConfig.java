@@ -1,10 +1,37 @@
 package com.example.userservice.config;
 
+import com.example.userservice.cache.CacheDecorator;
+import com.example.userservice.cache.CacheGenerations;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.CacheStatistics;
+import com.example.userservice.cache.JitteredTtlFunction;
+import com.example.userservice.cache.NearCacheInvalidator;
+import com.example.userservice.cache.PayloadSizeRecordingSerializer;
+import com.example.userservice.cache.RedisTrackingInvalidator;
+import com.example.userservice.cache.UserCacheManager;
+import com.example.userservice.cache.UserHashCache;
+import com.example.userservice.cache.codec.BinaryCacheValueSerializer;
+import com.example.userservice.cache.codec.CacheValueFormat;
+import com.example.userservice.cache.codec.CompressingCacheValueSerializer;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,12 +40,17 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({UserCacheProperties.class, CachePolicyProperties.class})
 public class RedisConfig {
 
   @Bean
@@ -54,22 +86,157 @@ public class RedisConfig {
   }
 
   @Bean
-  public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-    // Используем тот же ObjectMapper с активацией типирования для CacheManager
-    ObjectMapper cacheObjectMapper = redisObjectMapper();
+  public LettuceClientConfigurationBuilderCustomizer cacheCommandTimeouts(
+      RedisProperties redisProperties, UserCacheProperties cacheProperties) {
+    UserCacheProperties.CircuitBreaker circuitBreaker = cacheProperties.getCircuitBreaker();
+    Duration defaultTimeout =
+        redisProperties.getTimeout() != null
+            ? redisProperties.getTimeout()
+            : Duration.ofSeconds(RedisURI.DEFAULT_TIMEOUT);
+    return builder -> {
+      // Остальные настройки клиента, выставленные Spring Boot, сохраняем
+      ClientOptions clientOptions =
+          builder.build().getClientOptions().orElseGet(ClientOptions::create);
+      builder.clientOptions(
+          clientOptions
+              .mutate()
+              .timeoutOptions(
+                  TimeoutOptions.builder()
+                      .timeoutSource(
+                          new CommandTimeoutSource(
+                              circuitBreaker.getReadTimeout(),
+                              circuitBreaker.getWriteTimeout(),
+                              defaultTimeout))
+                      .build())
+              .build());
+    };
+  }
+
+  @Bean
+  public RedisSerializer<Object> cacheValueSerializer(UserCacheProperties cacheProperties) {
+    // JSON с активацией типирования нужен в любом случае - для чтения старых записей и типов,
+    // которые бинарный формат не знает. Бинарные записи читаются при любой настройке
+    RedisSerializer<Object> jsonSerializer =
+        new GenericJackson2JsonRedisSerializer(redisObjectMapper());
+    return new BinaryCacheValueSerializer(
+        jsonSerializer, cacheProperties.getValueFormat() == CacheValueFormat.BINARY);
+  }
 
+  @Bean
+  public CacheManager cacheManager(
+      RedisConnectionFactory connectionFactory,
+      RedisSerializer<Object> cacheValueSerializer,
+      CacheGenerations cacheGenerations,
+      CachePolicyProperties cachePolicies,
+      CacheStatistics cacheStatistics,
+      UserCacheProperties cacheProperties,
+      MeterRegistry meterRegistry,
+      StringRedisTemplate stringRedisTemplate,
+      ObjectProvider<CacheDecorator> cacheDecorators) {
     RedisCacheConfiguration config =
         RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofHours(1))
+            .entryTtl(ttlFunction(cachePolicies.getDefaults()))
             .serializeKeysWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(
                     new StringRedisSerializer()))
             .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(
-                    new GenericJackson2JsonRedisSerializer(cacheObjectMapper)))
-            .prefixCacheNameWith("user-service:");
+                RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer))
+            // Префикс вычисляется на каждую операцию и включает текущее поколение кэша
+            .computePrefixWith(cacheGenerations::prefixFor);
+
+    Set<String> cacheNames = new HashSet<>(CacheNames.ALL_CACHES);
+    cacheNames.addAll(cachePolicies.getCaches().keySet());
+    UserCacheProperties.Compression compression = cacheProperties.getCompression();
+    Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
+    Map<String, RedisSerializer<Object>> valueSerializers = new HashMap<>();
+    for (String cacheName : cacheNames) {
+      // Сжатые записи читаются в любом кэше, сжимаются только значения кэшей из настроек
+      RedisSerializer<Object> valueSerializer =
+          new CompressingCacheValueSerializer(
+              cacheValueSerializer,
+              compression.isEnabled() && compression.getCacheNames().contains(cacheName),
+              compression.getThresholdBytes(),
+              cacheName,
+              meterRegistry);
+      RedisSerializer<Object> recordingSerializer =
+          new PayloadSizeRecordingSerializer(valueSerializer, cacheStatistics.counters(cacheName));
+      valueSerializers.put(cacheName, recordingSerializer);
+      cacheConfigs.put(
+          cacheName,
+          config
+              .entryTtl(ttlFunction(cachePolicies.policyFor(cacheName)))
+              .serializeValuesWith(
+                  RedisSerializationContext.SerializationPair.fromSerializer(recordingSerializer)));
+    }
+
+    RedisCacheManager redisCacheManager =
+        RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(config)
+            .withInitialCacheConfigurations(cacheConfigs)
+            .build();
+    redisCacheManager.afterPropertiesSet();
 
-    return RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+    // Redis остаётся вторым уровнем, локальный уровень и прочие декораторы навешивает
+    // UserCacheManager
+    return new UserCacheManager(
+        redisCacheManager,
+        cacheDecorators.orderedStream().toList(),
+        userHashCaches(
+            cacheProperties.getUserHash(),
+            stringRedisTemplate,
+            cacheGenerations,
+            valueSerializers));
+  }
+
+  private static Map<String, Cache> userHashCaches(
+      UserCacheProperties.UserHash userHash,
+      StringRedisTemplate stringRedisTemplate,
+      CacheGenerations cacheGenerations,
+      Map<String, RedisSerializer<Object>> valueSerializers) {
+    if (!userHash.isEnabled()) {
+      return Map.of();
+    }
+    JitteredTtlFunction ttl = new JitteredTtlFunction(userHash.getTtl(), userHash.getJitter());
+    Map<String, Cache> caches = new HashMap<>();
+    for (String cacheName : CacheNames.USER_CACHES) {
+      caches.put(
+          cacheName,
+          new UserHashCache(
+              cacheName,
+              stringRedisTemplate,
+              cacheGenerations,
+              valueSerializers.get(cacheName),
+              ttl));
+    }
+    return caches;
+  }
+
+  private static JitteredTtlFunction ttlFunction(CachePolicyProperties.Policy policy) {
+    return new JitteredTtlFunction(policy.getTtl(), policy.getJitter());
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory connectionFactory,
+      NearCacheInvalidator nearCacheInvalidator,
+      UserCacheProperties cacheProperties) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    if (cacheProperties.getNearCache().getInvalidationMode()
+        == UserCacheProperties.InvalidationMode.PUBSUB) {
+      container.addMessageListener(
+          nearCacheInvalidator, new ChannelTopic(nearCacheInvalidator.getChannel()));
+    }
+    return container;
+  }
+
+  @Bean
+  public RedisTrackingInvalidator redisTrackingInvalidator(
+      RedisConnectionFactory connectionFactory,
+      NearCacheInvalidator nearCacheInvalidator,
+      UserCacheProperties cacheProperties) {
+    // Соединение для tracking открывается тем же клиентом Lettuce, что и соединения фабрики
+    return new RedisTrackingInvalidator(connectionFactory, nearCacheInvalidator, cacheProperties);
   }
 
   @Bean
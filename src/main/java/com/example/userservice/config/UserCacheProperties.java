@@ -0,0 +1,196 @@
+package com.example.userservice.config;
+
+import com.example.userservice.cache.PageCacheEndpoint;
+import com.example.userservice.cache.codec.CacheValueFormat;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class UserCacheProperties {
+
+  private CacheValueFormat valueFormat = CacheValueFormat.JSON;
+
+  private final NearCache nearCache = new NearCache();
+  private final SingleFlight singleFlight = new SingleFlight();
+  private final Stats stats = new Stats();
+  private final Purge purge = new Purge();
+  private final Generations generations = new Generations();
+  private final Negative negative = new Negative();
+  private final RefreshAhead refreshAhead = new RefreshAhead();
+  private final WriteThrough writeThrough = new WriteThrough();
+  private final PostCommitEviction postCommitEviction = new PostCommitEviction();
+  private final Pages pages = new Pages();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private final Compression compression = new Compression();
+  private final UserHash userHash = new UserHash();
+  private final WarmUp warmUp = new WarmUp();
+  private final OffHeap offHeap = new OffHeap();
+
+  @Getter
+  @Setter
+  public static class NearCache {
+    private boolean enabled = true;
+    private Set<String> cacheNames = new HashSet<>(Set.of("users", "usersWithCards", "userCards"));
+    // Предел оценённого размера записей в куче на каждый кэш, см. LocalCacheWeigher
+    private DataSize maximumWeight = DataSize.ofMegabytes(16);
+    private Duration ttl = Duration.ofSeconds(30);
+    private String invalidationChannel = "user-service:cache-invalidation";
+    private InvalidationMode invalidationMode = InvalidationMode.PUBSUB;
+    // Префикс ключей, изменения которых Redis сообщает при CLIENT TRACKING BCAST
+    private String trackingPrefix = "user-service:";
+  }
+
+  /** Способ, которым узлы узнают об изменении ключей, скопированных в локальный уровень. */
+  public enum InvalidationMode {
+    // Узел-автор изменения рассылает сообщение через pub/sub
+    PUBSUB,
+    // Redis сам присылает инвалидации по RESP3 (CLIENT TRACKING), рассылка не нужна
+    TRACKING
+  }
+
+  @Getter
+  @Setter
+  public static class SingleFlight {
+    private boolean enabled = true;
+    private Set<String> cacheNames = new HashSet<>(Set.of("users", "usersWithCards", "userCards"));
+    private Duration leaseTime = Duration.ofSeconds(2);
+    private Duration pollInterval = Duration.ofMillis(25);
+  }
+
+  @Getter
+  @Setter
+  public static class Stats {
+    private int maxKeyPageSize = 1000;
+    // Предел вызовов SCAN на одну страницу ключей, если совпадений мало
+    private int maxScansPerPage = 10;
+    // Предел страниц ключей в секунду на узел, 0 - без ограничения
+    private int maxKeyPagesPerSecond = 5;
+  }
+
+  @Getter
+  @Setter
+  public static class Purge {
+    private int batchSize = 500;
+    private int unlinkChunkSize = 100;
+    private Duration pauseBetweenBatches = Duration.ofMillis(10);
+    private int retainedJobs = 20;
+  }
+
+  @Getter
+  @Setter
+  public static class Generations {
+    private boolean enabled = true;
+    private Duration refreshInterval = Duration.ofSeconds(5);
+  }
+
+  @Getter
+  @Setter
+  public static class Negative {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(10);
+  }
+
+  @Getter
+  @Setter
+  public static class RefreshAhead {
+    private boolean enabled = true;
+    private Set<String> cacheNames = new HashSet<>(Set.of("users", "usersWithCards"));
+    // Доля TTL до истечения, начиная с которой запись перезагружается в фоне
+    private double refreshFraction = 0.2;
+    private int poolSize = 2;
+    private int queueCapacity = 100;
+    private long maxTrackedKeys = 10_000;
+    private Duration trackingTtl = Duration.ofHours(1);
+  }
+
+  @Getter
+  @Setter
+  public static class WriteThrough {
+    private boolean enabled = true;
+  }
+
+  @Getter
+  @Setter
+  public static class PostCommitEviction {
+    private boolean enabled = true;
+  }
+
+  @Getter
+  @Setter
+  public static class Pages {
+    private boolean enabled = true;
+    // Кэширование страниц включается для каждого запроса явно
+    private Set<PageCacheEndpoint> endpoints = new HashSet<>();
+    private int maxPageSize = 100;
+  }
+
+  @Getter
+  @Setter
+  public static class CircuitBreaker {
+    private boolean enabled = true;
+    // Доля неудачных (в том числе медленных) вызовов в окне, при которой breaker размыкается
+    private double failureRateThreshold = 0.5;
+    private int minimumCalls = 20;
+    private int windowSize = 50;
+    private Duration slowCallThreshold = Duration.ofMillis(100);
+    private Duration openDuration = Duration.ofSeconds(10);
+    private int halfOpenProbes = 5;
+    // Бюджеты команд Lettuce: чтения и записи кэша не должны ждать общий таймаут клиента
+    private Duration readTimeout = Duration.ofMillis(150);
+    private Duration writeTimeout = Duration.ofMillis(250);
+  }
+
+  @Getter
+  @Setter
+  public static class Compression {
+    // Сжатые записи не читают узлы предыдущей версии: включать после её полной раскатки
+    private boolean enabled = false;
+    private Set<String> cacheNames = new HashSet<>(Set.of("usersWithCards"));
+    // Меньшие значения не сжимаются: выигрыш не окупает затрат CPU
+    private int thresholdBytes = 512;
+  }
+
+  @Getter
+  @Setter
+  public static class UserHash {
+    // Все представления пользователя хранятся полями одного хэша Redis вместо трёх ключей
+    private boolean enabled = false;
+    private Duration ttl = Duration.ofHours(2);
+    private double jitter = 0.1;
+  }
+
+  @Getter
+  @Setter
+  public static class WarmUp {
+    private boolean enabled = true;
+    // Кэши, обращения к которым учитываются при отборе горячих ключей
+    private Set<String> cacheNames = new HashSet<>(Set.of("users", "usersWithCards"));
+    // Файл с id пользователей (по одному в строке) вместо записанных горячих ключей
+    private String hotKeysFile;
+    private int maxKeys = 10_000;
+    private int batchSize = 500;
+    private int concurrency = 4;
+    private Duration timeBudget = Duration.ofSeconds(30);
+    private long maxTrackedKeys = 100_000;
+    private Duration flushInterval = Duration.ofMinutes(1);
+  }
+
+  @Getter
+  @Setter
+  public static class OffHeap {
+    private boolean enabled = false;
+    private Set<String> cacheNames = new HashSet<>(Set.of("users", "usersWithCards", "userCards"));
+    // У каждого экземпляра сервиса должен быть свой каталог
+    private String directory = "cache-data";
+    private int segmentCount = 4;
+    private DataSize segmentSize = DataSize.ofMegabytes(32);
+    private Duration ttl = Duration.ofMinutes(10);
+  }
+}
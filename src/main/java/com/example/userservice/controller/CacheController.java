@@ -1,7 +1,13 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.cache.CacheKeyPage;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.CachePurgeJob;
+import com.example.userservice.cache.CacheStatsSnapshot;
 import com.example.userservice.service.CacheService;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +16,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -22,25 +29,34 @@ public class CacheController {
 
   @GetMapping("/stats")
   public ResponseEntity<Map<String, Object>> getCacheStats() {
-    log.info("Getting cache statistics");
+    log.debug("Getting cache statistics");
 
-    CacheService.CacheStats stats = cacheService.getCacheStats();
+    List<CacheStatsSnapshot> summary = cacheService.getCacheSummary();
+    Map<String, CacheStatsSnapshot> caches = new LinkedHashMap<>();
+    summary.forEach(snapshot -> caches.put(snapshot.cacheName(), snapshot));
 
     Map<String, Object> response = new HashMap<>();
-    response.put("userCacheKeys", stats.getUserCacheKeys().size());
-    response.put("userWithCardsCacheKeys", stats.getUserWithCardsCacheKeys().size());
-    response.put("userCardsCacheKeys", stats.getUserCardsCacheKeys().size());
-    response.put("totalKeys", stats.getTotalKeys());
-
-    Map<String, Object> detailed = new HashMap<>();
-    detailed.put("userCacheKeys", stats.getUserCacheKeys());
-    detailed.put("userWithCardsCacheKeys", stats.getUserWithCardsCacheKeys());
-    detailed.put("userCardsCacheKeys", stats.getUserCardsCacheKeys());
-    response.put("details", detailed);
+    response.put("userCacheKeys", caches.get(CacheNames.USERS).entries());
+    response.put("userWithCardsCacheKeys", caches.get(CacheNames.USERS_WITH_CARDS).entries());
+    response.put("userCardsCacheKeys", caches.get(CacheNames.USER_CARDS).entries());
+    response.put(
+        "totalKeys",
+        summary.stream().mapToLong(CacheStatsSnapshot::entries).filter(n -> n > 0).sum());
+    response.put("caches", caches);
 
     return ResponseEntity.ok(response);
   }
 
+  @GetMapping("/{cacheName}/keys")
+  public ResponseEntity<CacheKeyPage> getCacheKeys(
+      @PathVariable String cacheName,
+      @RequestParam(defaultValue = "0") String cursor,
+      @RequestParam(required = false) String prefix,
+      @RequestParam(defaultValue = "100") int size) {
+    log.debug("Listing keys of cache {} from cursor {}", cacheName, cursor);
+    return ResponseEntity.ok(cacheService.getCacheKeys(cacheName, cursor, prefix, size));
+  }
+
   @PostMapping("/clear/user/{userId}")
   public ResponseEntity<Map<String, String>> clearUserCache(@PathVariable Long userId) {
     log.info("Clearing cache for user ID: {}", userId);
@@ -54,14 +70,40 @@ public class CacheController {
   }
 
   @PostMapping("/clear/all")
-  public ResponseEntity<Map<String, String>> clearAllCache() {
-    log.info("Clearing ALL cache");
-    cacheService.evictAllUserCaches();
+  public ResponseEntity<Map<String, Object>> clearAllCache(
+      @RequestParam(defaultValue = "false") boolean purge) {
+    if (!purge) {
+      log.info("Clearing ALL cache by switching generations");
+      cacheService.evictAllUserCaches();
 
-    Map<String, String> response = new HashMap<>();
-    response.put("message", "All cache cleared");
+      Map<String, Object> response = new HashMap<>();
+      response.put("message", "All cache cleared");
+      response.put("generations", cacheService.getCacheGenerations());
 
-    return ResponseEntity.ok(response);
+      return ResponseEntity.ok(response);
+    }
+
+    log.info("Purging ALL cache keys");
+    CachePurgeJob job = cacheService.startPurgeAllUserCaches();
+
+    Map<String, Object> response = new HashMap<>();
+    response.put("message", "Cache purge started");
+    response.put("jobId", job.getId());
+    response.put("statusUrl", "/api/cache/clear/jobs/" + job.getId());
+    response.put("job", job);
+
+    return ResponseEntity.accepted().body(response);
+  }
+
+  @GetMapping("/clear/jobs/{jobId}")
+  public ResponseEntity<CachePurgeJob> getClearJob(@PathVariable String jobId) {
+    return ResponseEntity.ok(cacheService.getPurgeJob(jobId));
+  }
+
+  @PostMapping("/clear/jobs/{jobId}/cancel")
+  public ResponseEntity<CachePurgeJob> cancelClearJob(@PathVariable String jobId) {
+    log.info("Cancelling cache purge job {}", jobId);
+    return ResponseEntity.ok(cacheService.cancelPurgeJob(jobId));
   }
 
   @GetMapping("/log")
@@ -1,13 +1,19 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.KeysetPageDTO;
 import com.example.userservice.dto.PaymentCardRequestDTO;
 import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.pagination.KeysetRequest;
+import com.example.userservice.pagination.TotalMode;
 import com.example.userservice.service.PaymentCardService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -45,36 +51,56 @@ public class PaymentCardController {
   }
 
   @GetMapping
-  public ResponseEntity<Page<PaymentCardResponseDTO>> getAllCards(
+  public ResponseEntity<Slice<PaymentCardResponseDTO>> getAllCards(
       @RequestParam(required = false) String holder,
       @RequestParam(required = false) Boolean active,
       @RequestParam(required = false) Long userId,
+      @RequestParam(defaultValue = "exact") String total,
       Pageable pageable) {
-    Page<PaymentCardResponseDTO> cards =
-        paymentCardService.getAllCards(holder, active, userId, pageable);
+    Slice<PaymentCardResponseDTO> cards =
+        paymentCardService.getAllCards(holder, active, userId, pageable, TotalMode.from(total));
+    return ResponseEntity.ok(cards);
+  }
+
+  @GetMapping("/scroll")
+  public ResponseEntity<KeysetPageDTO<PaymentCardResponseDTO>> scrollAllCards(
+      @RequestParam(required = false) String holder,
+      @RequestParam(required = false) Boolean active,
+      @RequestParam(required = false) Long userId,
+      @RequestParam(required = false) String token,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+      Sort sort) {
+    KeysetPageDTO<PaymentCardResponseDTO> cards =
+        paymentCardService.scrollAllCards(
+            holder, active, userId, new KeysetRequest(sort, size, token));
     return ResponseEntity.ok(cards);
   }
 
   @GetMapping("/active")
-  public ResponseEntity<Page<PaymentCardResponseDTO>> getActiveCards(Pageable pageable) {
-    Page<PaymentCardResponseDTO> cards = paymentCardService.getActiveCards(pageable);
+  public ResponseEntity<Slice<PaymentCardResponseDTO>> getActiveCards(
+      @RequestParam(defaultValue = "exact") String total, Pageable pageable) {
+    Slice<PaymentCardResponseDTO> cards =
+        paymentCardService.getActiveCards(pageable, TotalMode.from(total));
     return ResponseEntity.ok(cards);
   }
 
   @GetMapping("/user/{userId}")
-  public ResponseEntity<Page<PaymentCardResponseDTO>> getAllCardsByUserId(
+  public ResponseEntity<Slice<PaymentCardResponseDTO>> getAllCardsByUserId(
       @PathVariable @Positive(message = "User ID must be positive") Long userId,
+      @RequestParam(defaultValue = "exact") String total,
       Pageable pageable) {
-    Page<PaymentCardResponseDTO> cards = paymentCardService.getAllCardsByUserId(userId, pageable);
+    Slice<PaymentCardResponseDTO> cards =
+        paymentCardService.getAllCardsByUserId(userId, pageable, TotalMode.from(total));
     return ResponseEntity.ok(cards);
   }
 
   @GetMapping("/user/{userId}/active")
-  public ResponseEntity<Page<PaymentCardResponseDTO>> getActiveCardsByUserId(
+  public ResponseEntity<Slice<PaymentCardResponseDTO>> getActiveCardsByUserId(
       @PathVariable @Positive(message = "User ID must be positive") Long userId,
+      @RequestParam(defaultValue = "exact") String total,
       Pageable pageable) {
-    Page<PaymentCardResponseDTO> cards =
-        paymentCardService.getActiveCardsByUserId(userId, pageable);
+    Slice<PaymentCardResponseDTO> cards =
+        paymentCardService.getActiveCardsByUserId(userId, pageable, TotalMode.from(total));
     return ResponseEntity.ok(cards);
   }
 
@@ -1,17 +1,27 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.KeysetPageDTO;
 import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserBatchRequestDTO;
+import com.example.userservice.dto.UserBatchResponseDTO;
 import com.example.userservice.dto.UserRequestDTO;
 import com.example.userservice.dto.UserResponseDTO;
 import com.example.userservice.dto.UserWithCardsResponseDTO;
+import com.example.userservice.pagination.KeysetRequest;
+import com.example.userservice.pagination.TotalMode;
 import com.example.userservice.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -47,36 +57,82 @@ public class UserController {
     return ResponseEntity.ok(user);
   }
 
+  @GetMapping("/batch")
+  public ResponseEntity<UserBatchResponseDTO> getUsersByIds(
+      @RequestParam
+          @Size(min = 1, max = 200, message = "Between 1 and 200 IDs per request")
+          List<@NotNull @Positive(message = "User ID must be positive") Long> ids) {
+    return ResponseEntity.ok(userService.getUsersByIds(ids));
+  }
+
+  @PostMapping("/batch")
+  public ResponseEntity<UserBatchResponseDTO> getUsersByIdsPost(
+      @Valid @RequestBody UserBatchRequestDTO request) {
+    return ResponseEntity.ok(userService.getUsersByIds(request.getIds()));
+  }
+
   @GetMapping
-  public ResponseEntity<Page<UserResponseDTO>> getAllUsers(
+  public ResponseEntity<Slice<UserResponseDTO>> getAllUsers(
       @RequestParam(required = false) String firstName,
       @RequestParam(required = false) String surname,
       @RequestParam(required = false) Boolean active,
+      @RequestParam(defaultValue = "exact") String total,
       Pageable pageable) {
-    Page<UserResponseDTO> users = userService.getAllUsers(firstName, surname, active, pageable);
+    Slice<UserResponseDTO> users =
+        userService.getAllUsers(firstName, surname, active, pageable, TotalMode.from(total));
+    return ResponseEntity.ok(users);
+  }
+
+  @GetMapping("/scroll")
+  public ResponseEntity<KeysetPageDTO<UserResponseDTO>> scrollAllUsers(
+      @RequestParam(required = false) String firstName,
+      @RequestParam(required = false) String surname,
+      @RequestParam(required = false) Boolean active,
+      @RequestParam(required = false) String token,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+      Sort sort) {
+    KeysetPageDTO<UserResponseDTO> users =
+        userService.scrollAllUsers(
+            firstName, surname, active, new KeysetRequest(sort, size, token));
     return ResponseEntity.ok(users);
   }
 
   @GetMapping("/active")
-  public ResponseEntity<Page<UserResponseDTO>> getActiveUsers(Pageable pageable) {
-    Page<UserResponseDTO> users = userService.getActiveUsers(pageable);
+  public ResponseEntity<Slice<UserResponseDTO>> getActiveUsers(
+      @RequestParam(defaultValue = "exact") String total, Pageable pageable) {
+    Slice<UserResponseDTO> users = userService.getActiveUsers(pageable, TotalMode.from(total));
+    return ResponseEntity.ok(users);
+  }
+
+  @GetMapping("/active/scroll")
+  public ResponseEntity<KeysetPageDTO<UserResponseDTO>> scrollActiveUsers(
+      @RequestParam(required = false) String token,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+      Sort sort) {
+    KeysetPageDTO<UserResponseDTO> users =
+        userService.scrollActiveUsers(new KeysetRequest(sort, size, token));
     return ResponseEntity.ok(users);
   }
 
   @GetMapping("/search")
-  public ResponseEntity<Page<UserResponseDTO>> getUsersByNameAndSurname(
+  public ResponseEntity<Slice<UserResponseDTO>> getUsersByNameAndSurname(
       @RequestParam(required = false) String name,
       @RequestParam(required = false) String surname,
+      @RequestParam(defaultValue = "exact") String total,
       Pageable pageable) {
-    Page<UserResponseDTO> users =
-        userService.getUsersByNameAndSurnameContaining(name, surname, pageable);
+    Slice<UserResponseDTO> users =
+        userService.getUsersByNameAndSurnameContaining(
+            name, surname, pageable, TotalMode.from(total));
     return ResponseEntity.ok(users);
   }
 
   @GetMapping("/born-before")
-  public ResponseEntity<Page<UserResponseDTO>> getActiveUsersBornBefore(
-      @RequestParam LocalDate birthDate, Pageable pageable) {
-    Page<UserResponseDTO> users = userService.getActiveUsersBornBefore(birthDate, pageable);
+  public ResponseEntity<Slice<UserResponseDTO>> getActiveUsersBornBefore(
+      @RequestParam LocalDate birthDate,
+      @RequestParam(defaultValue = "exact") String total,
+      Pageable pageable) {
+    Slice<UserResponseDTO> users =
+        userService.getActiveUsersBornBefore(birthDate, pageable, TotalMode.from(total));
     return ResponseEntity.ok(users);
   }
 
@@ -0,0 +1,17 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+  private List<T> content;
+  private int size;
+  private boolean hasNext;
+  // Передаётся в параметре token для следующей страницы, null на последней
+  private String nextToken;
+}
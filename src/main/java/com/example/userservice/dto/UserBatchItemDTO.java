@@ -0,0 +1,14 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class UserBatchItemDTO {
+  private Long id;
+  private boolean found;
+  private UserResponseDTO user;
+}
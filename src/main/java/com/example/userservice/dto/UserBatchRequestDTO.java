@@ -0,0 +1,17 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class UserBatchRequestDTO {
+  @NotEmpty(message = "IDs are mandatory")
+  @Size(max = 200, message = "No more than 200 IDs per request")
+  private List<@NotNull @Positive(message = "User ID must be positive") Long> ids;
+}
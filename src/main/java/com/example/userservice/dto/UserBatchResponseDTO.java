@@ -0,0 +1,15 @@
+package com.example.userservice.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class UserBatchResponseDTO {
+  private List<UserBatchItemDTO> results;
+  private int found;
+  private int notFound;
+}
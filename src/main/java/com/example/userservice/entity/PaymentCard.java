@@ -25,7 +25,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
     indexes = {
       @Index(name = "idx_card_user_id", columnList = "user_id"),
       @Index(name = "idx_card_number", columnList = "number"),
-      @Index(name = "idx_card_active", columnList = "active")
+      @Index(name = "idx_card_active", columnList = "active"),
+      @Index(name = "idx_card_holder_id", columnList = "holder, id"),
+      @Index(name = "idx_card_expiration_date_id", columnList = "expiration_date, id")
     })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
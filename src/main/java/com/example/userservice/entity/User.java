@@ -25,7 +25,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
     name = "users",
     indexes = {
       @Index(name = "idx_user_email", columnList = "email"),
-      @Index(name = "idx_user_active", columnList = "active")
+      @Index(name = "idx_user_active", columnList = "active"),
+      @Index(name = "idx_user_surname_id", columnList = "surname, id"),
+      @Index(name = "idx_user_name_id", columnList = "name, id")
     })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -0,0 +1,7 @@
+package com.example.userservice.exception;
+
+public class CacheKeyScanRateLimitedException extends RuntimeException {
+  public CacheKeyScanRateLimitedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.userservice.exception;
+
+public class CachePurgeJobNotFoundException extends RuntimeException {
+  public CachePurgeJobNotFoundException(String message) {
+    super(message);
+  }
+}
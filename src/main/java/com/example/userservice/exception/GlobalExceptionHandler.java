@@ -59,6 +59,25 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(CachePurgeJobNotFoundException.class)
+  public ResponseEntity<ErrorResponse> handleCachePurgeJobNotFoundException(
+      CachePurgeJobNotFoundException ex) {
+    log.warn("Cache purge job not found: {}", ex.getMessage());
+    ErrorResponse errorResponse =
+        new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage(), LocalDateTime.now());
+    return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+  }
+
+  @ExceptionHandler(CacheKeyScanRateLimitedException.class)
+  public ResponseEntity<ErrorResponse> handleCacheKeyScanRateLimitedException(
+      CacheKeyScanRateLimitedException ex) {
+    log.warn("Cache key scan rejected: {}", ex.getMessage());
+    ErrorResponse errorResponse =
+        new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage(), LocalDateTime.now());
+    return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, String>> handleValidationExceptions(
       MethodArgumentNotValidException ex) {
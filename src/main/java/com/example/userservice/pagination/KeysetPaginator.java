@@ -0,0 +1,160 @@
+package com.example.userservice.pagination;
+
+import com.example.userservice.dto.KeysetPageDTO;
+import com.example.userservice.specification.KeysetSpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keyset (seek) пагинация поверх {@link Specification}: вместо {@code OFFSET} следующая страница
+ * начинается строго после последней строки предыдущей, поэтому стоимость глубокой страницы не
+ * растёт с её номером. Запрос подсчёта не выполняется - наличие следующей страницы определяется
+ * лишней строкой.
+ *
+ * <p>Токен продолжения непрозрачен для клиента: в нём порядок сортировки, значения ключа последней
+ * строки и отпечаток фильтров, с которыми он выдан. Уникальность порядка обеспечивает {@code id},
+ * который всегда добавляется последним.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetPaginator {
+
+  private static final String ID = "id";
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * @param sortable свойства, по которым разрешена сортировка; столбцы не должны содержать NULL
+   * @param filter значения фильтров запроса, токен действителен только с теми же значениями
+   */
+  public <T, R> KeysetPageDTO<R> page(
+      JpaSpecificationExecutor<T> repository,
+      Specification<T> spec,
+      Set<String> sortable,
+      KeysetRequest request,
+      Function<T, R> mapper,
+      Object... filter) {
+    int fingerprint = Arrays.hashCode(filter);
+    Specification<T> query = spec;
+    List<Sort.Order> orders;
+    if (request.token() == null || request.token().isBlank()) {
+      orders = orders(request.sort(), sortable);
+    } else {
+      Token token = decode(request.token());
+      if (token.filter() != fingerprint) {
+        throw new IllegalArgumentException("Continuation token does not match the request filters");
+      }
+      orders = token.orders().stream().map(KeysetPaginator::parseOrder).toList();
+      validate(orders, sortable, token.values().size());
+      query = spec.and(KeysetSpecifications.after(orders, token.values()));
+    }
+
+    Sort sort = Sort.by(orders);
+    int size = request.size();
+    List<T> rows = repository.findBy(query, q -> q.sortBy(sort).limit(size + 1).all());
+    boolean hasNext = rows.size() > size;
+    List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+    String nextToken = null;
+    if (hasNext) {
+      BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(content.get(size - 1));
+      List<String> values = new ArrayList<>(orders.size());
+      for (Sort.Order order : orders) {
+        values.add(KeysetSpecifications.format(last.getPropertyValue(order.getProperty())));
+      }
+      nextToken =
+          encode(
+              new Token(
+                  orders.stream().map(KeysetPaginator::formatOrder).toList(),
+                  values,
+                  fingerprint));
+    }
+    return new KeysetPageDTO<>(content.stream().map(mapper).toList(), size, hasNext, nextToken);
+  }
+
+  /** Порядок первой страницы: запрошенные столбцы, затем {@code id} для однозначности. */
+  private static List<Sort.Order> orders(Sort sort, Set<String> sortable) {
+    List<Sort.Order> orders = new ArrayList<>();
+    Sort.Order id = Sort.Order.asc(ID);
+    for (Sort.Order order : sort) {
+      if (ID.equals(order.getProperty())) {
+        id = Sort.Order.by(ID).with(order.getDirection());
+      } else {
+        orders.add(Sort.Order.by(order.getProperty()).with(order.getDirection()));
+      }
+    }
+    orders.add(id);
+    validate(orders, sortable, orders.size());
+    return orders;
+  }
+
+  private static void validate(List<Sort.Order> orders, Set<String> sortable, int values) {
+    if (orders.isEmpty() || orders.size() != values) {
+      throw new IllegalArgumentException("Invalid continuation token");
+    }
+    for (Sort.Order order : orders) {
+      if (!sortable.contains(order.getProperty())) {
+        throw new IllegalArgumentException(
+            "Keyset pagination does not support sorting by " + order.getProperty());
+      }
+    }
+    if (!ID.equals(orders.get(orders.size() - 1).getProperty())) {
+      throw new IllegalArgumentException("Invalid continuation token");
+    }
+  }
+
+  private static String formatOrder(Sort.Order order) {
+    return order.getProperty() + ":" + order.getDirection();
+  }
+
+  private static Sort.Order parseOrder(String value) {
+    int separator = value.lastIndexOf(':');
+    if (separator < 0) {
+      throw new IllegalArgumentException("Invalid continuation token");
+    }
+    return Sort.Order.by(value.substring(0, separator))
+        .with(Sort.Direction.fromString(value.substring(separator + 1)));
+  }
+
+  private String encode(Token token) {
+    try {
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(objectMapper.writeValueAsBytes(token));
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to encode continuation token", e);
+    }
+  }
+
+  private Token decode(String value) {
+    try {
+      Token token =
+          objectMapper.readValue(
+              new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8),
+              Token.class);
+      if (token.orders() == null || token.values() == null) {
+        throw new IllegalArgumentException("Invalid continuation token");
+      }
+      return token;
+    } catch (IllegalArgumentException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid continuation token", e);
+    }
+  }
+
+  record Token(List<String> orders, List<String> values, int filter) {}
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.pagination;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Запрос страницы при keyset-пагинации.
+ *
+ * @param sort порядок для первой страницы; для следующих берётся из токена
+ * @param size число строк на странице
+ * @param token токен продолжения из предыдущей страницы, {@code null} для первой
+ */
+public record KeysetRequest(Sort sort, int size, String token) {}
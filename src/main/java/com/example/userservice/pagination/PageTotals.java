@@ -0,0 +1,68 @@
+package com.example.userservice.pagination;
+
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.PageCacheEndpoint;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Общее число элементов для ответа в режиме {@link TotalMode#ESTIMATED}.
+ *
+ * <p>Для запроса по всей таблице берётся оценка планировщика PostgreSQL ({@code
+ * pg_class.reltuples}), которую обновляют ANALYZE и autovacuum. Оценка по таблице не годится для
+ * запроса с фильтром, поэтому для него точный подсчёт выполняется один раз и кэшируется рядом со
+ * страницами запроса: он сбрасывается вместе с ними при любом изменении пользователя или карты.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageTotals {
+
+  private static final String RELTUPLES_SQL =
+      "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PageCache pageCache;
+
+  /**
+   * @param endpoint запрос, рядом со страницами которого кэшируется подсчёт, или {@code null}
+   * @param table таблица, если запрос без фильтра и подходит оценка планировщика, иначе {@code
+   *     null}
+   * @param count точный подсчёт, если нет ни оценки, ни значения в кэше
+   */
+  public long total(
+      PageCacheEndpoint endpoint, String table, LongSupplier count, Object... filter) {
+    if (table != null) {
+      long estimate = estimateRows(table);
+      if (estimate >= 0) {
+        return estimate;
+      }
+    }
+    if (endpoint == null) {
+      return count.getAsLong();
+    }
+    Long cached = pageCache.lookupTotal(endpoint, filter);
+    if (cached != null) {
+      return cached;
+    }
+    long total = count.getAsLong();
+    pageCache.storeTotal(endpoint, total, filter);
+    return total;
+  }
+
+  /** Оценка числа строк таблицы, {@code -1} если статистики ещё нет. */
+  public long estimateRows(String table) {
+    try {
+      Long rows = jdbcTemplate.queryForObject(RELTUPLES_SQL, Long.class, table);
+      // До первого ANALYZE PostgreSQL 14+ хранит -1, более ранние версии - 0
+      return rows == null || rows <= 0 ? -1 : rows;
+    } catch (DataAccessException e) {
+      log.debug("Planner estimate for table '{}' unavailable: {}", table, e.getMessage());
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.userservice.pagination;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Чтение страницы по {@link Specification} без запроса подсчёта, который {@code
+ * JpaSpecificationExecutor.findAll(spec, pageable)} выполняет всегда. Запрашивается на одну строку
+ * больше размера страницы: если она пришла, следующая страница есть.
+ */
+@Component
+@RequiredArgsConstructor
+public class SliceReader {
+
+  private final EntityManager entityManager;
+
+  public <T> Slice<T> slice(Class<T> type, Specification<T> spec, Pageable pageable) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+    Root<T> root = query.from(type);
+    Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query.select(root);
+    if (pageable.getSort().isSorted()) {
+      query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+    }
+
+    TypedQuery<T> typedQuery = entityManager.createQuery(query);
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+    }
+    int size = pageable.getPageSize();
+    typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+    typedQuery.setMaxResults(size + 1);
+    List<T> rows = typedQuery.getResultList();
+    boolean hasNext = rows.size() > size;
+    return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+  }
+
+  /**
+   * Ответ в режиме {@code mode}, отличном от {@link TotalMode#EXACT}: срез или страница с общим
+   * числом из {@code total}. На последней странице общее число известно точно и {@code total} не
+   * вызывается.
+   */
+  public <T> Slice<T> read(
+      Class<T> type, Specification<T> spec, Pageable pageable, TotalMode mode, LongSupplier total) {
+    Slice<T> slice = slice(type, spec, pageable);
+    if (mode != TotalMode.ESTIMATED) {
+      return slice;
+    }
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(slice.getContent(), pageable, slice.getNumberOfElements());
+    }
+    if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+      return new PageImpl<>(
+          slice.getContent(), pageable, pageable.getOffset() + slice.getNumberOfElements());
+    }
+    return new PageImpl<>(slice.getContent(), pageable, total.getAsLong());
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.userservice.pagination;
+
+import java.util.Locale;
+
+/** Источник общего числа элементов в ответе списочного запроса, выбирается для каждого запроса. */
+public enum TotalMode {
+  /** Страница с точным {@code COUNT(*)} по тому же условию, как раньше. */
+  EXACT,
+  /** Срез без подсчёта: наличие следующей страницы определяется лишней строкой. */
+  NONE,
+  /** Срез без подсчёта, общее число - из кэша или из статистики планировщика. */
+  ESTIMATED;
+
+  public static TotalMode from(String value) {
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "Unsupported total mode: " + value + ", expected exact, none or estimated");
+    }
+  }
+}
@@ -2,6 +2,8 @@ package com.example.userservice.repository;
 
 import com.example.userservice.entity.User;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +26,9 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
   @Query("SELECT u FROM User u LEFT JOIN FETCH u.paymentCards WHERE u.id = :id")
   Optional<User> findByIdWithCards(@Param("id") Long id);
 
+  @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.paymentCards WHERE u.id IN :ids")
+  List<User> findAllByIdWithCards(@Param("ids") Collection<Long> ids);
+
   @Query(
       "SELECT u FROM User u WHERE "
           + "(:name IS NULL OR LOWER(u.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND "
@@ -1,50 +1,77 @@
 package com.example.userservice.service;
 
-import java.util.HashSet;
-import java.util.Set;
+import com.example.userservice.cache.CacheGenerations;
+import com.example.userservice.cache.CacheKeyPage;
+import com.example.userservice.cache.CacheKeyScanner;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.CachePurgeJob;
+import com.example.userservice.cache.CachePurger;
+import com.example.userservice.cache.CacheStatistics;
+import com.example.userservice.cache.CacheStatsSnapshot;
+import com.example.userservice.cache.NearCacheInvalidator;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PostCommitEvictions;
+import com.example.userservice.cache.TransactionalEvictionCache;
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.exception.CacheKeyScanRateLimitedException;
+import com.example.userservice.exception.CachePurgeJobNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CacheService {
+  private static final String CACHE_KEY_PATTERN = "user-service:*";
 
-  private final RedisTemplate<String, Object> redisTemplate;
   private final CacheManager cacheManager;
+  private final CacheStatistics cacheStatistics;
+  private final CacheGenerations cacheGenerations;
+  private final UserCacheProperties cacheProperties;
+  private final CachePurger cachePurger;
+  private final NegativeCache negativeCache;
+  private final CacheKeyScanner cacheKeyScanner;
+  private final NearCacheInvalidator nearCacheInvalidator;
+  private final PostCommitEvictions postCommitEvictions;
+  private final ThreadPoolTaskExecutor cacheMaintenanceExecutor;
+  private final Map<String, CachePurgeJob> purgeJobs = new LinkedHashMap<>();
+  // Расчётное время следующей страницы ключей на этом узле
+  private final AtomicLong nextKeyPageAt = new AtomicLong(System.nanoTime());
 
   public void evictUserCaches(Long userId) {
     try {
       log.info("Evicting caches for user ID: {}", userId);
 
-      Cache usersCache = cacheManager.getCache("users");
-      Cache usersWithCardsCache = cacheManager.getCache("usersWithCards");
-      Cache userCardsCache = cacheManager.getCache("userCards");
-
       boolean evicted = false;
-
-      if (usersCache != null) {
-        usersCache.evictIfPresent(userId);
-        log.debug("Cache 'users' evicted for key: {}", userId);
+      List<TransactionalEvictionCache> batched = new ArrayList<>();
+      for (String cacheName : CacheNames.USER_CACHES) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+          continue;
+        }
+        if (cache instanceof TransactionalEvictionCache deferred) {
+          batched.add(deferred);
+        } else {
+          cache.evictIfPresent(userId);
+        }
+        log.debug("Cache '{}' evicted for key: {}", cacheName, userId);
         evicted = true;
       }
-
-      if (usersWithCardsCache != null) {
-        usersWithCardsCache.evictIfPresent(userId);
-        log.debug("Cache 'usersWithCards' evicted for key: {}", userId);
-        evicted = true;
-      }
-
-      if (userCardsCache != null) {
-        userCardsCache.evictIfPresent(userId);
-        log.debug("Cache 'userCards' evicted for key: {}", userId);
-        evicted = true;
+      // Представления удаляются одним pipeline: в режиме хэша пользователя это один UNLINK общего
+      // хэша, а локальные уровни сбрасываются у каждого представления
+      if (!batched.isEmpty()) {
+        postCommitEvictions.evict(batched, userId);
       }
 
       if (evicted) {
@@ -58,148 +85,153 @@ public class CacheService {
     }
   }
 
+  /** Удаляет карты из кэша {@code cards}; внутри транзакции - после коммита. */
+  public void evictCardCaches(Collection<Long> cardIds) {
+    Cache cardsCache = cacheManager.getCache(CacheNames.CARDS);
+    if (cardsCache == null || cardIds.isEmpty()) {
+      return;
+    }
+    cardIds.forEach(cardsCache::evict);
+    log.debug("Cache 'cards' evicted for keys: {}", cardIds);
+  }
+
+  /**
+   * Сбрасывает все кэши пользователей и надгробия сменой поколения: по одному INCR на кэш, старые
+   * ключи истекают по TTL.
+   */
   public void evictAllUserCaches() {
     try {
       log.info("Starting to evict all user caches...");
-      Set<String> allKeys = new HashSet<>();
-
-      // Ищем все ключи с префиксом
-      scanKeys("user-service:*", allKeys);
-
-      if (!allKeys.isEmpty()) {
-        redisTemplate.delete(allKeys);
-        log.info("Evicted {} cache keys: {}", allKeys.size(), allKeys);
-      } else {
-        log.info("No cache keys found to evict");
+      for (String cacheName : CacheNames.ALL_CACHES) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+          cache.clear();
+        }
       }
+      negativeCache.clear();
+      log.info("All user caches evicted, generations: {}", getCacheGenerations());
 
     } catch (Exception e) {
       log.error("Error evicting all user caches: {}", e.getMessage(), e);
     }
   }
 
-  private void scanKeys(String pattern, Set<String> keys) {
-    try (Cursor<String> cursor =
-        redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(100).build())) {
-      while (cursor.hasNext()) {
-        String key = cursor.next();
-        if (key != null) {
-          keys.add(key);
+  public Map<String, Long> getCacheGenerations() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    CacheNames.ALL_CACHES.forEach(name -> result.put(name, cacheGenerations.current(name)));
+    return result;
+  }
+
+  /**
+   * Запускает физическое удаление всех ключей кэша в фоне и сразу возвращает задачу для опроса.
+   * Если очистка уже идёт, возвращается текущая задача.
+   */
+  public CachePurgeJob startPurgeAllUserCaches() {
+    CachePurgeJob job;
+    synchronized (purgeJobs) {
+      for (CachePurgeJob existing : purgeJobs.values()) {
+        if (existing.getStatus() == CachePurgeJob.Status.RUNNING) {
+          log.info("Cache purge {} is already running", existing.getId());
+          return existing;
         }
       }
-    } catch (Exception e) {
-      log.error("Error scanning keys with pattern {}: {}", pattern, e.getMessage());
+      job = new CachePurgeJob(CACHE_KEY_PATTERN);
+      purgeJobs.put(job.getId(), job);
+      int retained = cacheProperties.getPurge().getRetainedJobs();
+      while (purgeJobs.size() > retained) {
+        purgeJobs.remove(purgeJobs.keySet().iterator().next());
+      }
     }
-  }
 
-  public CacheStats getCacheStats() {
-    CacheStats stats = new CacheStats();
+    log.info("Starting cache purge {} for pattern {}", job.getId(), job.getPattern());
+    cacheMaintenanceExecutor.execute(
+        () -> {
+          cachePurger.purge(job);
+          clearLocalTiers();
+        });
+    return job;
+  }
 
-    try {
-      Set<String> allKeys = new HashSet<>();
-      // Ищем все ключи, начинающиеся с префикса
-      scanKeys("user-service:*", allKeys);
-
-      log.info("Found {} total keys in Redis: {}", allKeys.size(), allKeys);
-
-      Set<String> userKeys = new HashSet<>();
-      Set<String> userWithCardsKeys = new HashSet<>();
-      Set<String> userCardsKeys = new HashSet<>();
-
-      for (String key : allKeys) {
-        log.debug("Analyzing key: {}", key);
-        // Проверяем по частям
-        if (key.contains("::users::") || key.contains(":users::")) {
-          if (!key.contains("usersWithCards")) {
-            userKeys.add(key);
-            log.debug("Added to userKeys: {}", key);
-          }
-        } else if (key.contains("::usersWithCards::") || key.contains(":usersWithCards::")) {
-          userWithCardsKeys.add(key);
-          log.debug("Added to userWithCardsKeys: {}", key);
-        } else if (key.contains("::userCards::") || key.contains(":userCards::")) {
-          userCardsKeys.add(key);
-          log.debug("Added to userCardsKeys: {}", key);
-        } else {
-          log.debug("Key doesn't match any known pattern: {}", key);
-        }
+  public CachePurgeJob getPurgeJob(String jobId) {
+    synchronized (purgeJobs) {
+      CachePurgeJob job = purgeJobs.get(jobId);
+      if (job == null) {
+        throw new CachePurgeJobNotFoundException("Cache purge job not found with id: " + jobId);
       }
+      return job;
+    }
+  }
 
-      stats.setUserCacheKeys(userKeys);
-      stats.setUserWithCardsCacheKeys(userWithCardsKeys);
-      stats.setUserCardsCacheKeys(userCardsKeys);
+  /** Просит остановить очистку; уже удалённые ключи не восстанавливаются. */
+  public CachePurgeJob cancelPurgeJob(String jobId) {
+    CachePurgeJob job = getPurgeJob(jobId);
+    if (job.cancel()) {
+      log.info("Cancelling cache purge {}", jobId);
+    }
+    return job;
+  }
 
-      log.info(
-          "Cache stats collected: users={}, usersWithCards={}, userCards={}, total={}",
-          userKeys.size(),
-          userWithCardsKeys.size(),
-          userCardsKeys.size(),
-          allKeys.size());
+  private void clearLocalTiers() {
+    CacheNames.ALL_CACHES.forEach(nearCacheInvalidator::clearEverywhere);
+  }
 
-    } catch (Exception e) {
-      log.error("Error collecting cache stats: {}", e.getMessage(), e);
-    }
+  public List<CacheStatsSnapshot> getCacheSummary() {
+    return CacheNames.ALL_CACHES.stream().map(cacheStatistics::snapshot).toList();
+  }
 
-    return stats;
+  /** Страница ключей кэша; курсор - из предыдущей страницы, {@code "0"} для первой. */
+  public CacheKeyPage getCacheKeys(String cacheName, String cursor, String prefix, int size) {
+    acquireKeyPagePermit();
+    return cacheKeyScanner.page(cacheName, cursor, prefix, size);
+  }
+
+  /**
+   * Каждая страница - до {@code max-scans-per-page} вызовов SCAN, поэтому их частота на узле
+   * ограничена {@code app.cache.stats.max-key-pages-per-second}; всплеск до секундной нормы
+   * допускается.
+   */
+  private void acquireKeyPagePermit() {
+    int pagesPerSecond = cacheProperties.getStats().getMaxKeyPagesPerSecond();
+    if (pagesPerSecond <= 0) {
+      return;
+    }
+    long interval = TimeUnit.SECONDS.toNanos(1) / pagesPerSecond;
+    long burst = TimeUnit.SECONDS.toNanos(1) - interval;
+    long now = System.nanoTime();
+    long scheduled;
+    long start;
+    do {
+      scheduled = nextKeyPageAt.get();
+      start = scheduled - now > 0 ? scheduled : now;
+      if (start - now > burst) {
+        throw new CacheKeyScanRateLimitedException(
+            "Cache key pages are limited to " + pagesPerSecond + " per second, try again later");
+      }
+    } while (!nextKeyPageAt.compareAndSet(scheduled, start + interval));
   }
 
   public void logCurrentCacheState() {
     try {
-      CacheStats stats = getCacheStats();
+      List<CacheStatsSnapshot> summary = getCacheSummary();
 
       log.info("=== CURRENT CACHE STATE ===");
-      log.info(
-          "Users cache keys ({}): {}", stats.getUserCacheKeys().size(), stats.getUserCacheKeys());
-      log.info(
-          "UsersWithCards cache keys ({}): {}",
-          stats.getUserWithCardsCacheKeys().size(),
-          stats.getUserWithCardsCacheKeys());
-      log.info(
-          "UserCards cache keys ({}): {}",
-          stats.getUserCardsCacheKeys().size(),
-          stats.getUserCardsCacheKeys());
+      for (CacheStatsSnapshot snapshot : summary) {
+        log.info(
+            "Cache '{}': generation={}, entries={}, hits={}, misses={}, puts={}, evictions={}",
+            snapshot.cacheName(),
+            snapshot.generation(),
+            snapshot.entries(),
+            snapshot.hits(),
+            snapshot.misses(),
+            snapshot.puts(),
+            snapshot.evictions());
+      }
       log.info(
           "=== TOTAL KEYS: {} ===",
-          stats.getUserCacheKeys().size()
-              + stats.getUserWithCardsCacheKeys().size()
-              + stats.getUserCardsCacheKeys().size());
+          summary.stream().mapToLong(CacheStatsSnapshot::entries).filter(n -> n > 0).sum());
 
     } catch (Exception e) {
       log.error("Error logging cache state: {}", e.getMessage(), e);
     }
   }
-
-  public static class CacheStats {
-    private Set<String> userCacheKeys = new HashSet<>();
-    private Set<String> userWithCardsCacheKeys = new HashSet<>();
-    private Set<String> userCardsCacheKeys = new HashSet<>();
-
-    public Set<String> getUserCacheKeys() {
-      return userCacheKeys;
-    }
-
-    public void setUserCacheKeys(Set<String> userCacheKeys) {
-      this.userCacheKeys = userCacheKeys;
-    }
-
-    public Set<String> getUserWithCardsCacheKeys() {
-      return userWithCardsCacheKeys;
-    }
-
-    public void setUserWithCardsCacheKeys(Set<String> userWithCardsCacheKeys) {
-      this.userWithCardsCacheKeys = userWithCardsCacheKeys;
-    }
-
-    public Set<String> getUserCardsCacheKeys() {
-      return userCardsCacheKeys;
-    }
-
-    public void setUserCardsCacheKeys(Set<String> userCardsCacheKeys) {
-      this.userCardsCacheKeys = userCardsCacheKeys;
-    }
-
-    public int getTotalKeys() {
-      return userCacheKeys.size() + userWithCardsCacheKeys.size() + userCardsCacheKeys.size();
-    }
-  }
 }
@@ -0,0 +1,151 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.CacheBatchOperations;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.HotKeyRecorder;
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Прогрев кэшей {@code users} и {@code usersWithCards} горячими пользователями при запуске.
+ *
+ * <p>Выполняется как {@link ApplicationRunner}, поэтому readiness-проба переходит в UP только после
+ * прогрева. Id берутся из файла {@code app.cache.warm-up.hot-keys-file} или из записанных {@link
+ * HotKeyRecorder} горячих ключей, загружаются пачками по одному запросу на пачку не более чем в
+ * {@code concurrency} потоков. По истечении {@code time-budget} незавершённые пачки отменяются:
+ * прогрев ускоряет запуск, но не должен его задерживать.
+ *
+ * <p>Узел уже принимает запросы, поэтому прогрев не перезаписывает ключи: значение, которое успела
+ * положить запись пользователя, новее прочитанного прогревом.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmUp implements ApplicationRunner {
+
+  private final UserRepository userRepository;
+  private final UserMapper userMapper;
+  private final PaymentCardMapper paymentCardMapper;
+  private final CacheBatchOperations cacheBatchOperations;
+  private final HotKeyRecorder hotKeyRecorder;
+  private final UserCacheProperties properties;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    UserCacheProperties.WarmUp warmUp = properties.getWarmUp();
+    if (!warmUp.isEnabled()) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    List<Long> ids;
+    try {
+      ids = hotUserIds(warmUp);
+    } catch (Exception e) {
+      log.warn("Cache warm-up skipped, could not read hot keys: {}", e.getMessage());
+      return;
+    }
+    if (ids.isEmpty()) {
+      log.info("Cache warm-up skipped, no hot keys recorded");
+      return;
+    }
+
+    List<Callable<Integer>> batches = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += warmUp.getBatchSize()) {
+      List<Long> batch = ids.subList(from, Math.min(from + warmUp.getBatchSize(), ids.size()));
+      batches.add(() -> warmBatch(batch));
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, warmUp.getConcurrency()),
+            Thread.ofPlatform().name("cache-warmup-", 0).factory());
+    int warmed = 0;
+    int cancelled = 0;
+    try {
+      List<Future<Integer>> results =
+          executor.invokeAll(batches, warmUp.getTimeBudget().toMillis(), TimeUnit.MILLISECONDS);
+      for (Future<Integer> result : results) {
+        if (result.isCancelled()) {
+          cancelled++;
+          continue;
+        }
+        try {
+          warmed += result.get();
+        } catch (Exception e) {
+          log.warn("Cache warm-up batch failed: {}", e.getMessage());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    log.info(
+        "Cache warm-up loaded {} of {} users in {} ms, {} batches cancelled by time budget",
+        warmed,
+        ids.size(),
+        System.currentTimeMillis() - start,
+        cancelled);
+  }
+
+  private int warmBatch(List<Long> ids) {
+    Map<Long, UserResponseDTO> users = new HashMap<>();
+    Map<Long, UserWithCardsResponseDTO> usersWithCards = new HashMap<>();
+    for (User user : userRepository.findAllByIdWithCards(ids)) {
+      users.put(user.getId(), userMapper.toDTO(user));
+      usersWithCards.put(user.getId(), UserService.toUserWithCardsDTO(user, paymentCardMapper));
+    }
+    cacheBatchOperations.putAllIfAbsent(CacheNames.USERS, users);
+    cacheBatchOperations.putAllIfAbsent(CacheNames.USERS_WITH_CARDS, usersWithCards);
+    return users.size();
+  }
+
+  private List<Long> hotUserIds(UserCacheProperties.WarmUp warmUp) throws IOException {
+    List<String> keys;
+    if (warmUp.getHotKeysFile() != null && !warmUp.getHotKeysFile().isBlank()) {
+      keys = Files.readAllLines(Path.of(warmUp.getHotKeysFile()));
+    } else {
+      keys = hotKeyRecorder.hotKeys(warmUp.getMaxKeys());
+    }
+    LinkedHashSet<Long> ids = new LinkedHashSet<>();
+    for (String key : keys) {
+      String value = key.strip();
+      if (value.isEmpty() || value.startsWith("#")) {
+        continue;
+      }
+      try {
+        ids.add(Long.parseLong(value));
+      } catch (NumberFormatException e) {
+        log.debug("Ignoring non-numeric hot key: {}", value);
+      }
+      if (ids.size() >= warmUp.getMaxKeys()) {
+        break;
+      }
+    }
+    return new ArrayList<>(ids);
+  }
+}
@@ -1,5 +1,11 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.PageCacheEndpoint;
+import com.example.userservice.cache.SecondaryKeyCache;
+import com.example.userservice.dto.KeysetPageDTO;
 import com.example.userservice.dto.PaymentCardRequestDTO;
 import com.example.userservice.dto.PaymentCardResponseDTO;
 import com.example.userservice.entity.PaymentCard;
@@ -8,35 +14,47 @@ import com.example.userservice.exception.CardLimitExceededException;
 import com.example.userservice.exception.DuplicateCardNumberException;
 import com.example.userservice.exception.PaymentCardNotFoundException;
 import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.pagination.KeysetPaginator;
+import com.example.userservice.pagination.KeysetRequest;
+import com.example.userservice.pagination.PageTotals;
+import com.example.userservice.pagination.SliceReader;
+import com.example.userservice.pagination.TotalMode;
 import com.example.userservice.repository.PaymentCardRepository;
 import com.example.userservice.specification.PaymentCardSpecifications;
 import jakarta.transaction.Transactional;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentCardService {
   private static final String PAYMENT_CARD_NOT_FOUND_MESSAGE = "Payment card not found with id: ";
+  // Столбцы без NULL, по которым есть индексы (столбец, id)
+  private static final Set<String> KEYSET_SORTABLE = Set.of("id", "holder", "expirationDate");
+  private static final String CARDS_TABLE = "payment_cards";
 
   private final PaymentCardRepository paymentCardRepository;
   private final UserService userService;
   private final PaymentCardMapper paymentCardMapper;
-  private final CacheService cacheService;
+  private final NegativeCache negativeCache;
+  private final UserCacheWriter userCacheWriter;
+  private final SecondaryKeyCache secondaryKeyCache;
+  private final PageCache pageCache;
+  private final KeysetPaginator keysetPaginator;
+  private final SliceReader sliceReader;
+  private final PageTotals pageTotals;
 
   @Transactional
-  @Caching(
-      evict = {
-        @CacheEvict(value = "userCards", key = "#userId"),
-        @CacheEvict(value = "usersWithCards", key = "#userId")
-      })
   public PaymentCardResponseDTO createCard(PaymentCardRequestDTO cardRequestDTO, Long userId) {
     log.info("Creating payment card for user: {}", userId);
     User user = userService.getUserEntityById(userId);
@@ -50,51 +68,166 @@ public class PaymentCardService {
     PaymentCard card = paymentCardMapper.toEntity(cardRequestDTO);
     user.addPaymentCard(card);
     PaymentCard savedCard = paymentCardRepository.save(card);
+    negativeCache.forget(NegativeCache.CARD, savedCard.getId());
+    negativeCache.forget(NegativeCache.CARD_NUMBER, savedCard.getNumber());
+    secondaryKeyCache.forget(CacheNames.CARD_IDS_BY_NUMBER, cardRequestDTO.getNumber());
+    userCacheWriter.refreshAfterCommit(userId);
+    pageCache.invalidateAfterCommit(CacheNames.CARD_PAGES);
     log.info("Payment card created with id: {} for user: {}", savedCard.getId(), userId);
     return paymentCardMapper.toDTO(savedCard);
   }
 
+  @Cacheable(value = "cards", key = "#id", sync = true)
   public PaymentCardResponseDTO getCardById(Long id) {
     log.debug("Fetching payment card by id: {}", id);
+    if (negativeCache.isMissing(NegativeCache.CARD, id)) {
+      throw new PaymentCardNotFoundException(PAYMENT_CARD_NOT_FOUND_MESSAGE + id);
+    }
     PaymentCard card =
         paymentCardRepository
             .findById(id)
             .orElseThrow(
-                () -> new PaymentCardNotFoundException(PAYMENT_CARD_NOT_FOUND_MESSAGE + id));
+                () -> {
+                  negativeCache.markMissing(NegativeCache.CARD, id);
+                  return new PaymentCardNotFoundException(PAYMENT_CARD_NOT_FOUND_MESSAGE + id);
+                });
     return paymentCardMapper.toDTO(card);
   }
 
   public Page<PaymentCardResponseDTO> getAllCards(
       String holder, Boolean active, Long userId, Pageable pageable) {
+    Page<PaymentCardResponseDTO> cached =
+        pageCache.lookup(PageCacheEndpoint.ALL_CARDS, pageable, holder, active, userId);
+    if (cached != null) {
+      return cached;
+    }
+
+    Specification<PaymentCard> spec = allCardsSpec(holder, active, userId);
 
-    Specification<PaymentCard> spec =
-        PaymentCardSpecifications.hasHolderName(holder)
-            .and(PaymentCardSpecifications.isActive(active))
-            .and(PaymentCardSpecifications.hasUserId(userId));
+    Page<PaymentCardResponseDTO> cards =
+        paymentCardRepository.findAll(spec, pageable).map(paymentCardMapper::toDTO);
+    pageCache.store(PageCacheEndpoint.ALL_CARDS, pageable, cards, holder, active, userId);
+    return cards;
+  }
 
-    return paymentCardRepository.findAll(spec, pageable).map(paymentCardMapper::toDTO);
+  /**
+   * {@link #getAllCards} с выбранным источником общего числа элементов. Режимы без точного подсчёта
+   * читают базу напрямую, минуя кэш страниц: в нём лежат страницы с точным числом.
+   */
+  public Slice<PaymentCardResponseDTO> getAllCards(
+      String holder, Boolean active, Long userId, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getAllCards(holder, active, userId, pageable);
+    }
+    Specification<PaymentCard> spec = allCardsSpec(holder, active, userId);
+    boolean filtered = StringUtils.hasText(holder) || active != null || userId != null;
+    return sliceReader
+        .read(
+            PaymentCard.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.ALL_CARDS,
+                    filtered ? null : CARDS_TABLE,
+                    () -> paymentCardRepository.count(spec),
+                    holder,
+                    active,
+                    userId))
+        .map(paymentCardMapper::toDTO);
+  }
+
+  /** Keyset-вариант {@link #getAllCards}: без OFFSET и подсчёта, следующая страница по токену. */
+  public KeysetPageDTO<PaymentCardResponseDTO> scrollAllCards(
+      String holder, Boolean active, Long userId, KeysetRequest request) {
+    Specification<PaymentCard> spec = allCardsSpec(holder, active, userId);
+    return keysetPaginator.page(
+        paymentCardRepository,
+        spec,
+        KEYSET_SORTABLE,
+        request,
+        paymentCardMapper::toDTO,
+        holder,
+        active,
+        userId);
   }
 
   public Page<PaymentCardResponseDTO> getActiveCards(Pageable pageable) {
-    return paymentCardRepository.findByActiveTrue(pageable).map(paymentCardMapper::toDTO);
+    Page<PaymentCardResponseDTO> cached =
+        pageCache.lookup(PageCacheEndpoint.ACTIVE_CARDS, pageable);
+    if (cached != null) {
+      return cached;
+    }
+    Page<PaymentCardResponseDTO> cards =
+        paymentCardRepository.findByActiveTrue(pageable).map(paymentCardMapper::toDTO);
+    pageCache.store(PageCacheEndpoint.ACTIVE_CARDS, pageable, cards);
+    return cards;
+  }
+
+  public Slice<PaymentCardResponseDTO> getActiveCards(Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getActiveCards(pageable);
+    }
+    Specification<PaymentCard> spec = PaymentCardSpecifications.isActive(true);
+    return sliceReader
+        .read(
+            PaymentCard.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.ACTIVE_CARDS, null, () -> paymentCardRepository.count(spec)))
+        .map(paymentCardMapper::toDTO);
   }
 
   public Page<PaymentCardResponseDTO> getAllCardsByUserId(Long userId, Pageable pageable) {
     return paymentCardRepository.findByUserId(userId, pageable).map(paymentCardMapper::toDTO);
   }
 
+  public Slice<PaymentCardResponseDTO> getAllCardsByUserId(
+      Long userId, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getAllCardsByUserId(userId, pageable);
+    }
+    return userCardsSlice(PaymentCardSpecifications.hasUserId(userId), pageable, total);
+  }
+
   public Page<PaymentCardResponseDTO> getActiveCardsByUserId(Long userId, Pageable pageable) {
     return paymentCardRepository
         .findByUserIdAndActiveStatus(userId, true, pageable)
         .map(paymentCardMapper::toDTO);
   }
 
+  public Slice<PaymentCardResponseDTO> getActiveCardsByUserId(
+      Long userId, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getActiveCardsByUserId(userId, pageable);
+    }
+    return userCardsSlice(
+        PaymentCardSpecifications.hasUserId(userId).and(PaymentCardSpecifications.isActive(true)),
+        pageable,
+        total);
+  }
+
+  // Карт у пользователя немного (см. лимит), точный подсчёт по индексу user_id дёшев
+  private Slice<PaymentCardResponseDTO> userCardsSlice(
+      Specification<PaymentCard> spec, Pageable pageable, TotalMode total) {
+    return sliceReader
+        .read(PaymentCard.class, spec, pageable, total, () -> paymentCardRepository.count(spec))
+        .map(paymentCardMapper::toDTO);
+  }
+
+  private static Specification<PaymentCard> allCardsSpec(
+      String holder, Boolean active, Long userId) {
+    return PaymentCardSpecifications.hasHolderName(holder)
+        .and(PaymentCardSpecifications.isActive(active))
+        .and(PaymentCardSpecifications.hasUserId(userId));
+  }
+
   @Transactional
-  @Caching(
-      evict = {
-        @CacheEvict(value = "userCards", key = "#result.userId"),
-        @CacheEvict(value = "usersWithCards", key = "#result.userId")
-      })
+  @CacheEvict(value = "cards", key = "#id")
   public PaymentCardResponseDTO updateCard(Long id, PaymentCardRequestDTO cardRequestDTO) {
     log.info("Updating payment card with id: {}", id);
     PaymentCard card =
@@ -121,30 +254,42 @@ public class PaymentCardService {
               });
     }
 
+    String previousNumber = card.getNumber();
     card.setNumber(cardRequestDTO.getNumber());
     card.setHolder(cardRequestDTO.getHolder());
     card.setExpirationDate(cardRequestDTO.getExpirationDate());
 
     PaymentCard updatedCard = paymentCardRepository.save(card);
+    negativeCache.forget(NegativeCache.CARD_NUMBER, updatedCard.getNumber());
+    if (!previousNumber.equals(cardRequestDTO.getNumber())) {
+      secondaryKeyCache.forget(
+          CacheNames.CARD_IDS_BY_NUMBER, previousNumber, cardRequestDTO.getNumber());
+    }
+    userCacheWriter.refreshAfterCommit(card.getUser().getId());
+    pageCache.invalidateAfterCommit(CacheNames.CARD_PAGES);
     log.info("Payment card updated with id: {}", id);
     return paymentCardMapper.toDTO(updatedCard);
   }
 
   @Transactional
+  @CacheEvict(value = "cards", key = "#id")
   public void activateCard(Long id) {
     log.info("Activating payment card with id: {}", id);
     PaymentCard card = getCardEntityById(id);
     paymentCardRepository.updateActiveStatus(id, true);
-    cacheService.evictUserCaches(card.getUser().getId());
+    userCacheWriter.refreshAfterCommit(card.getUser().getId());
+    pageCache.invalidateAfterCommit(CacheNames.CARD_PAGES);
     log.info("Payment card activated with id: {}", id);
   }
 
   @Transactional
+  @CacheEvict(value = "cards", key = "#id")
   public void deactivateCard(Long id) {
     log.info("Deactivating payment card with id: {}", id);
     PaymentCard card = getCardEntityById(id);
     paymentCardRepository.updateActiveStatus(id, false);
-    cacheService.evictUserCaches(card.getUser().getId());
+    userCacheWriter.refreshAfterCommit(card.getUser().getId());
+    pageCache.invalidateAfterCommit(CacheNames.CARD_PAGES);
     log.info("Payment card deactivated with id: {}", id);
   }
 
@@ -160,21 +305,42 @@ public class PaymentCardService {
   }
 
   public PaymentCardResponseDTO getCardByNumber(String number) {
+    PaymentCardResponseDTO cached =
+        secondaryKeyCache.resolve(
+            CacheNames.CARD_IDS_BY_NUMBER,
+            number,
+            CacheNames.CARDS,
+            PaymentCardResponseDTO.class,
+            id -> paymentCardMapper.toDTO(getCardEntityById(id)));
+    if (cached != null && number.equals(cached.getNumber())) {
+      return cached;
+    }
+    if (negativeCache.isMissing(NegativeCache.CARD_NUMBER, number)) {
+      throw new PaymentCardNotFoundException("Card not found with number: " + number);
+    }
     PaymentCard card =
         paymentCardRepository
             .findByNumber(number)
             .orElseThrow(
-                () -> new PaymentCardNotFoundException("Card not found with number: " + number));
-    return paymentCardMapper.toDTO(card);
+                () -> {
+                  negativeCache.markMissing(NegativeCache.CARD_NUMBER, number);
+                  return new PaymentCardNotFoundException("Card not found with number: " + number);
+                });
+    PaymentCardResponseDTO found = paymentCardMapper.toDTO(card);
+    secondaryKeyCache.remember(
+        CacheNames.CARD_IDS_BY_NUMBER, number, CacheNames.CARDS, card.getId(), found);
+    return found;
   }
 
   @Transactional
+  @CacheEvict(value = "cards", key = "#id")
   public void deleteCard(Long id) {
     log.info("Deleting payment card with id: {}", id);
     PaymentCard card = getCardEntityById(id);
     Long userId = card.getUser().getId();
     paymentCardRepository.deleteById(id);
-    cacheService.evictUserCaches(userId);
+    userCacheWriter.refreshAfterCommit(userId);
+    pageCache.invalidateAfterCommit(CacheNames.CARD_PAGES);
     log.info("Payment card deleted with id: {} for user: {}", id, userId);
   }
 
@@ -0,0 +1,164 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.TransactionalEvictionCache;
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-through для представлений пользователя: после коммита транзакции в кэши кладутся свежие
+ * {@code users}, {@code usersWithCards} и {@code userCards}, чтобы чтение после записи не уходило в
+ * БД.
+ *
+ * <p>Пользователи собираются за всю транзакцию, поэтому несколько изменений карт одного
+ * пользователя перестраивают его кэш один раз. Отдельно вытеснять эти записи при изменении не
+ * нужно: если перестроить не удалось или write-through выключен, записи удаляет этот класс.
+ */
+@Slf4j
+@Component
+public class UserCacheWriter {
+
+  private final CacheManager cacheManager;
+  private final UserRepository userRepository;
+  private final UserMapper userMapper;
+  private final PaymentCardMapper paymentCardMapper;
+  private final TransactionTemplate readTransaction;
+  private final boolean enabled;
+
+  public UserCacheWriter(
+      CacheManager cacheManager,
+      UserRepository userRepository,
+      UserMapper userMapper,
+      PaymentCardMapper paymentCardMapper,
+      PlatformTransactionManager transactionManager,
+      UserCacheProperties properties) {
+    this.cacheManager = cacheManager;
+    this.userRepository = userRepository;
+    this.userMapper = userMapper;
+    this.paymentCardMapper = paymentCardMapper;
+    // Транзакция после коммита уже завершена, перечитываем данные в отдельной
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction.setReadOnly(true);
+    this.enabled = properties.getWriteThrough().isEnabled();
+  }
+
+  /**
+   * Перестраивает кэш пользователя после коммита текущей транзакции (или сразу, если её нет). С
+   * выключенным write-through записи пользователя удаляются, тоже после коммита.
+   */
+  public void refreshAfterCommit(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    if (!enabled) {
+      // Удаление через цепочку кэша откладывается до коммита, см. TransactionalEvictionCache
+      for (String cacheName : CacheNames.USER_CACHES) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+          cache.evict(userId);
+        }
+      }
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refresh(List.of(userId));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(new PendingRefresh(pending));
+    }
+    pending.add(userId);
+  }
+
+  private void refresh(Collection<Long> userIds) {
+    for (Long userId : userIds) {
+      try {
+        Optional<User> user = readTransaction.execute(status -> loadUserWithCards(userId));
+        if (user == null || user.isEmpty()) {
+          evict(userId);
+          continue;
+        }
+        UserWithCardsResponseDTO userWithCards =
+            UserService.toUserWithCardsDTO(user.get(), paymentCardMapper);
+        List<PaymentCardResponseDTO> cards = new ArrayList<>(userWithCards.getPaymentCards());
+        put(CacheNames.USERS, userId, userMapper.toDTO(user.get()));
+        put(CacheNames.USERS_WITH_CARDS, userId, userWithCards);
+        put(CacheNames.USER_CARDS, userId, cards);
+        log.debug("Write-through refreshed caches for user: {}", userId);
+      } catch (Exception e) {
+        // Без записей в кэше следующее чтение загрузит их из БД
+        log.warn("Write-through failed for user {}: {}", userId, e.getMessage());
+        evict(userId);
+      }
+    }
+  }
+
+  private Optional<User> loadUserWithCards(Long userId) {
+    Optional<User> user = userRepository.findByIdWithCards(userId);
+    // Коллекция карт должна быть прочитана внутри транзакции
+    user.ifPresent(u -> u.getPaymentCards().size());
+    return user;
+  }
+
+  private void put(String cacheName, Long userId, Object value) {
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache != null) {
+      cache.put(userId, value);
+    }
+  }
+
+  private void evict(Long userId) {
+    for (String cacheName : CacheNames.USER_CACHES) {
+      Cache cache = cacheManager.getCache(cacheName);
+      if (cache instanceof TransactionalEvictionCache deferred) {
+        // Транзакция уже завершена, откладывать удаление до коммита некуда
+        cache = deferred.getDelegate();
+      }
+      if (cache != null) {
+        cache.evictIfPresent(userId);
+      }
+    }
+  }
+
+  private class PendingRefresh implements TransactionSynchronization {
+
+    private final Set<Long> userIds;
+
+    PendingRefresh(Set<Long> userIds) {
+      this.userIds = userIds;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(UserCacheWriter.this);
+      if (status == STATUS_COMMITTED) {
+        refresh(userIds);
+      }
+    }
+  }
+}
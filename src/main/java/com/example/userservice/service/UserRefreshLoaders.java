@@ -0,0 +1,65 @@
+package com.example.userservice.service;
+
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.CacheRefreshLoader;
+import com.example.userservice.exception.UserNotFoundException;
+import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.PaymentCardRepository;
+import com.example.userservice.repository.UserRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Загрузчики представлений пользователя для refresh-ahead. Читают данные так же, как методы {@link
+ * UserService} с {@code @Cacheable}, но в обход кэша: перезагрузка должна получить значение из БД.
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserRefreshLoaders {
+
+  @Bean
+  public CacheRefreshLoader usersRefreshLoader(
+      UserRepository userRepository, UserMapper userMapper) {
+    return CacheRefreshLoader.of(
+        CacheNames.USERS,
+        key -> {
+          Long id = (Long) key;
+          return userMapper.toDTO(userRepository.findById(id).orElseThrow(() -> notFound(id)));
+        });
+  }
+
+  @Bean
+  public CacheRefreshLoader usersWithCardsRefreshLoader(
+      UserRepository userRepository, PaymentCardMapper paymentCardMapper) {
+    return CacheRefreshLoader.of(
+        CacheNames.USERS_WITH_CARDS,
+        key -> {
+          Long id = (Long) key;
+          return UserService.toUserWithCardsDTO(
+              userRepository.findByIdWithCards(id).orElseThrow(() -> notFound(id)),
+              paymentCardMapper);
+        });
+  }
+
+  @Bean
+  public CacheRefreshLoader userCardsRefreshLoader(
+      UserRepository userRepository,
+      PaymentCardRepository paymentCardRepository,
+      PaymentCardMapper paymentCardMapper) {
+    return CacheRefreshLoader.of(
+        CacheNames.USER_CARDS,
+        key -> {
+          Long userId = (Long) key;
+          if (!userRepository.existsById(userId)) {
+            throw notFound(userId);
+          }
+          return paymentCardRepository.findByUserId(userId).stream()
+              .map(paymentCardMapper::toDTO)
+              .toList();
+        });
+  }
+
+  private static UserNotFoundException notFound(Long id) {
+    return new UserNotFoundException(UserService.USER_NOT_FOUND_MESSAGE + id);
+  }
+}
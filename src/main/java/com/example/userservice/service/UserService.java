@@ -1,6 +1,15 @@
 package com.example.userservice.service;
 
+import com.example.userservice.cache.CacheBatchOperations;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.PageCacheEndpoint;
+import com.example.userservice.cache.SecondaryKeyCache;
+import com.example.userservice.dto.KeysetPageDTO;
 import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserBatchItemDTO;
+import com.example.userservice.dto.UserBatchResponseDTO;
 import com.example.userservice.dto.UserRequestDTO;
 import com.example.userservice.dto.UserResponseDTO;
 import com.example.userservice.dto.UserWithCardsResponseDTO;
@@ -10,13 +19,23 @@ import com.example.userservice.exception.DuplicateEmailException;
 import com.example.userservice.exception.UserNotFoundException;
 import com.example.userservice.mapper.PaymentCardMapper;
 import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.pagination.KeysetPaginator;
+import com.example.userservice.pagination.KeysetRequest;
+import com.example.userservice.pagination.PageTotals;
+import com.example.userservice.pagination.SliceReader;
+import com.example.userservice.pagination.TotalMode;
 import com.example.userservice.repository.PaymentCardRepository;
 import com.example.userservice.repository.UserRepository;
 import com.example.userservice.specification.UserSpecifications;
 import jakarta.transaction.Transactional;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -24,19 +43,33 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
-  private static final String USER_NOT_FOUND_MESSAGE = "User not found with id: ";
+  static final String USER_NOT_FOUND_MESSAGE = "User not found with id: ";
+  // Столбцы без NULL, по которым есть индексы (столбец, id)
+  private static final Set<String> KEYSET_SORTABLE = Set.of("id", "name", "surname");
+  private static final String USERS_TABLE = "users";
 
   private final UserRepository userRepository;
   private final PaymentCardRepository paymentCardRepository;
   private final UserMapper userMapper;
   private final PaymentCardMapper paymentCardMapper;
+  private final NegativeCache negativeCache;
+  private final UserCacheWriter userCacheWriter;
+  private final CacheBatchOperations cacheBatchOperations;
+  private final SecondaryKeyCache secondaryKeyCache;
+  private final CacheService cacheService;
+  private final PageCache pageCache;
+  private final KeysetPaginator keysetPaginator;
+  private final SliceReader sliceReader;
+  private final PageTotals pageTotals;
 
   @Transactional
   public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
@@ -48,56 +81,150 @@ public class UserService {
     }
     User user = userMapper.toEntity(userRequestDTO);
     User savedUser = userRepository.save(user);
+    negativeCache.forget(NegativeCache.USER, savedUser.getId());
+    secondaryKeyCache.forget(CacheNames.USER_IDS_BY_EMAIL, userRequestDTO.getEmail());
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
     log.info("User created with id: {}", savedUser.getId());
     return userMapper.toDTO(savedUser);
   }
 
-  @Cacheable(value = "users", key = "#id")
+  @Cacheable(value = "users", key = "#id", sync = true)
   public UserResponseDTO getUserById(Long id) {
     log.debug("Fetching user by id: {}", id);
-    User user =
-        userRepository
-            .findById(id)
-            .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id));
+    if (negativeCache.isMissing(NegativeCache.USER, id)) {
+      throw new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id);
+    }
+    User user = userRepository.findById(id).orElseThrow(() -> userNotFound(id));
     return userMapper.toDTO(user);
   }
 
-  @Cacheable(value = "usersWithCards", key = "#id")
+  /**
+   * Пакетное чтение пользователей: один MGET по кэшу {@code users}, один запрос в БД по промахам и
+   * дозапись отсутствующих в кэше одним pipeline. Результаты идут в порядке запроса.
+   */
+  public UserBatchResponseDTO getUsersByIds(List<Long> ids) {
+    Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+    Map<Long, UserResponseDTO> users =
+        cacheBatchOperations.getAll(CacheNames.USERS, uniqueIds, UserResponseDTO.class);
+
+    List<Long> misses = uniqueIds.stream().filter(id -> !users.containsKey(id)).toList();
+    if (!misses.isEmpty()) {
+      log.debug("Batch lookup: {} cached, {} loading from database", users.size(), misses.size());
+      Map<Long, UserResponseDTO> loaded = new HashMap<>();
+      for (User user : userRepository.findAllById(misses)) {
+        loaded.put(user.getId(), userMapper.toDTO(user));
+      }
+      // Запись, сделанная после нашего чтения из БД, новее загруженной и не перезаписывается
+      cacheBatchOperations.putAllIfAbsent(CacheNames.USERS, loaded);
+      users.putAll(loaded);
+    }
+
+    List<UserBatchItemDTO> results = new ArrayList<>(ids.size());
+    int found = 0;
+    for (Long id : ids) {
+      UserResponseDTO user = users.get(id);
+      if (user != null) {
+        found++;
+      }
+      results.add(new UserBatchItemDTO(id, user != null, user));
+    }
+    return new UserBatchResponseDTO(results, found, ids.size() - found);
+  }
+
+  @Cacheable(value = "usersWithCards", key = "#id", sync = true)
   public UserWithCardsResponseDTO getUserWithCardsById(Long id) {
     User user =
         userRepository
             .findByIdWithCards(id)
             .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id));
-    UserWithCardsResponseDTO userWithCards = new UserWithCardsResponseDTO();
-    userWithCards.setId(user.getId());
-    userWithCards.setName(user.getName());
-    userWithCards.setSurname(user.getSurname());
-    userWithCards.setBirthDate(user.getBirthDate());
-    userWithCards.setEmail(user.getEmail());
-    userWithCards.setActive(user.getActive());
-    userWithCards.setCreatedAt(user.getCreatedAt());
-    userWithCards.setUpdatedAt(user.getUpdatedAt());
-
-    List<PaymentCardResponseDTO> cards =
-        user.getPaymentCards().stream().map(paymentCardMapper::toDTO).toList();
-    userWithCards.setPaymentCards(cards);
-
-    return userWithCards;
+    return toUserWithCardsDTO(user, paymentCardMapper);
   }
 
   public Page<UserResponseDTO> getAllUsers(
       String name, String surname, Boolean active, Pageable pageable) {
+    Page<UserResponseDTO> cached =
+        pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, name, surname, active);
+    if (cached != null) {
+      return cached;
+    }
 
-    Specification<User> spec =
-        UserSpecifications.hasFirstName(name)
-            .and(UserSpecifications.hasSurname(surname))
-            .and(UserSpecifications.isActive(active));
+    Specification<User> spec = allUsersSpec(name, surname, active);
+
+    Page<UserResponseDTO> users = userRepository.findAll(spec, pageable).map(userMapper::toDTO);
+    pageCache.store(PageCacheEndpoint.ALL_USERS, pageable, users, name, surname, active);
+    return users;
+  }
+
+  /**
+   * {@link #getAllUsers} с выбранным источником общего числа элементов. Режимы без точного подсчёта
+   * читают базу напрямую, минуя кэш страниц: в нём лежат страницы с точным числом.
+   */
+  public Slice<UserResponseDTO> getAllUsers(
+      String name, String surname, Boolean active, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getAllUsers(name, surname, active, pageable);
+    }
+    Specification<User> spec = allUsersSpec(name, surname, active);
+    boolean filtered = StringUtils.hasText(name) || StringUtils.hasText(surname) || active != null;
+    return sliceReader
+        .read(
+            User.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.ALL_USERS,
+                    filtered ? null : USERS_TABLE,
+                    () -> userRepository.count(spec),
+                    name,
+                    surname,
+                    active))
+        .map(userMapper::toDTO);
+  }
+
+  /** Keyset-вариант {@link #getAllUsers}: без OFFSET и подсчёта, следующая страница по токену. */
+  public KeysetPageDTO<UserResponseDTO> scrollAllUsers(
+      String name, String surname, Boolean active, KeysetRequest request) {
+    Specification<User> spec = allUsersSpec(name, surname, active);
+    return keysetPaginator.page(
+        userRepository, spec, KEYSET_SORTABLE, request, userMapper::toDTO, name, surname, active);
+  }
 
-    return userRepository.findAll(spec, pageable).map(userMapper::toDTO);
+  public KeysetPageDTO<UserResponseDTO> scrollActiveUsers(KeysetRequest request) {
+    return keysetPaginator.page(
+        userRepository,
+        UserSpecifications.isActive(true),
+        KEYSET_SORTABLE,
+        request,
+        userMapper::toDTO);
   }
 
   public Page<UserResponseDTO> getActiveUsers(Pageable pageable) {
-    return userRepository.findByActiveTrue(pageable).map(userMapper::toDTO);
+    Page<UserResponseDTO> cached = pageCache.lookup(PageCacheEndpoint.ACTIVE_USERS, pageable);
+    if (cached != null) {
+      return cached;
+    }
+    Page<UserResponseDTO> users = userRepository.findByActiveTrue(pageable).map(userMapper::toDTO);
+    pageCache.store(PageCacheEndpoint.ACTIVE_USERS, pageable, users);
+    return users;
+  }
+
+  public Slice<UserResponseDTO> getActiveUsers(Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getActiveUsers(pageable);
+    }
+    Specification<User> spec = UserSpecifications.isActive(true);
+    return sliceReader
+        .read(
+            User.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.ACTIVE_USERS, null, () -> userRepository.count(spec)))
+        .map(userMapper::toDTO);
   }
 
   public Page<UserResponseDTO> getUsersByNameAndSurnameContaining(
@@ -107,19 +234,63 @@ public class UserService {
         .map(userMapper::toDTO);
   }
 
+  public Slice<UserResponseDTO> getUsersByNameAndSurnameContaining(
+      String name, String surname, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getUsersByNameAndSurnameContaining(name, surname, pageable);
+    }
+    Specification<User> spec = allUsersSpec(name, surname, null);
+    return sliceReader
+        .read(
+            User.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.USERS_BY_NAME_AND_SURNAME,
+                    null,
+                    () -> userRepository.count(spec),
+                    name,
+                    surname))
+        .map(userMapper::toDTO);
+  }
+
   public Page<UserResponseDTO> getActiveUsersBornBefore(LocalDate birthDate, Pageable pageable) {
     return userRepository
         .findActiveUsersBornBefore(birthDate, true, pageable)
         .map(userMapper::toDTO);
   }
 
+  public Slice<UserResponseDTO> getActiveUsersBornBefore(
+      LocalDate birthDate, Pageable pageable, TotalMode total) {
+    if (total == TotalMode.EXACT) {
+      return getActiveUsersBornBefore(birthDate, pageable);
+    }
+    Specification<User> spec =
+        UserSpecifications.isActive(true).and(UserSpecifications.bornBefore(birthDate));
+    return sliceReader
+        .read(
+            User.class,
+            spec,
+            pageable,
+            total,
+            () ->
+                pageTotals.total(
+                    PageCacheEndpoint.ACTIVE_USERS_BORN_BEFORE,
+                    null,
+                    () -> userRepository.count(spec),
+                    birthDate))
+        .map(userMapper::toDTO);
+  }
+
+  private static Specification<User> allUsersSpec(String name, String surname, Boolean active) {
+    return UserSpecifications.hasFirstName(name)
+        .and(UserSpecifications.hasSurname(surname))
+        .and(UserSpecifications.isActive(active));
+  }
+
   @Transactional
-  @Caching(
-      evict = {
-        @CacheEvict(value = "users", key = "#id"),
-        @CacheEvict(value = "usersWithCards", key = "#id"),
-        @CacheEvict(value = "userCards", key = "#id")
-      })
   public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO) {
     log.info("Updating user with id: {}", id);
     User user =
@@ -134,12 +305,19 @@ public class UserService {
           "User with email " + userRequestDTO.getEmail() + " already exists");
     }
 
+    String previousEmail = user.getEmail();
     user.setName(userRequestDTO.getName());
     user.setSurname(userRequestDTO.getSurname());
     user.setBirthDate(userRequestDTO.getBirthDate());
     user.setEmail(userRequestDTO.getEmail());
 
     User updatedUser = userRepository.save(user);
+    if (!previousEmail.equals(userRequestDTO.getEmail())) {
+      secondaryKeyCache.forget(
+          CacheNames.USER_IDS_BY_EMAIL, previousEmail, userRequestDTO.getEmail());
+    }
+    userCacheWriter.refreshAfterCommit(id);
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
     log.info("User updated with id: {}", id);
     return userMapper.toDTO(updatedUser);
   }
@@ -151,12 +329,6 @@ public class UserService {
   }
 
   @Transactional
-  @Caching(
-      evict = {
-        @CacheEvict(value = "users", key = "#id"),
-        @CacheEvict(value = "usersWithCards", key = "#id"),
-        @CacheEvict(value = "userCards", key = "#id")
-      })
   public void activateUser(Long id) {
     log.info("Activating user with id: {}", id);
     if (!userRepository.existsById(id)) {
@@ -164,16 +336,12 @@ public class UserService {
       throw new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id);
     }
     userRepository.updateActiveStatus(id, true);
+    userCacheWriter.refreshAfterCommit(id);
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
     log.info("User activated with id: {}", id);
   }
 
   @Transactional
-  @Caching(
-      evict = {
-        @CacheEvict(value = "users", key = "#id"),
-        @CacheEvict(value = "usersWithCards", key = "#id"),
-        @CacheEvict(value = "userCards", key = "#id")
-      })
   public void deactivateUser(Long id) {
     log.info("Deactivating user with id: {}", id);
     if (!userRepository.existsById(id)) {
@@ -181,21 +349,42 @@ public class UserService {
       throw new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id);
     }
     userRepository.updateActiveStatus(id, false);
+    userCacheWriter.refreshAfterCommit(id);
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
     log.info("User deactivated with id: {}", id);
   }
 
-  @Cacheable(value = "userCards", key = "#userId")
+  @Cacheable(value = "userCards", key = "#userId", sync = true)
   public List<PaymentCardResponseDTO> getUserCards(Long userId) {
-    if (!userRepository.existsById(userId)) {
+    if (negativeCache.isMissing(NegativeCache.USER, userId)) {
       throw new UserNotFoundException(USER_NOT_FOUND_MESSAGE + userId);
     }
+    if (!userRepository.existsById(userId)) {
+      throw userNotFound(userId);
+    }
 
     List<PaymentCard> cards = paymentCardRepository.findByUserId(userId);
     return cards.stream().map(paymentCardMapper::toDTO).toList();
   }
 
   public Optional<UserResponseDTO> getUserByEmail(String email) {
-    return userRepository.findByEmail(email).map(userMapper::toDTO);
+    UserResponseDTO cached =
+        secondaryKeyCache.resolve(
+            CacheNames.USER_IDS_BY_EMAIL,
+            email,
+            CacheNames.USERS,
+            UserResponseDTO.class,
+            id ->
+                userMapper.toDTO(userRepository.findById(id).orElseThrow(() -> userNotFound(id))));
+    if (cached != null && email.equals(cached.getEmail())) {
+      return Optional.of(cached);
+    }
+    Optional<UserResponseDTO> user = userRepository.findByEmail(email).map(userMapper::toDTO);
+    user.ifPresent(
+        found ->
+            secondaryKeyCache.remember(
+                CacheNames.USER_IDS_BY_EMAIL, email, CacheNames.USERS, found.getId(), found));
+    return user;
   }
 
   @Transactional
@@ -212,7 +401,35 @@ public class UserService {
       throw new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id);
     }
 
+    // Карты удаляются каскадом вместе с пользователем
+    cacheService.evictCardCaches(
+        paymentCardRepository.findByUserId(id).stream().map(PaymentCard::getId).toList());
     userRepository.deleteById(id);
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES, CacheNames.CARD_PAGES);
     log.info("User deleted with id: {}", id);
   }
+
+  static UserWithCardsResponseDTO toUserWithCardsDTO(
+      User user, PaymentCardMapper paymentCardMapper) {
+    UserWithCardsResponseDTO userWithCards = new UserWithCardsResponseDTO();
+    userWithCards.setId(user.getId());
+    userWithCards.setName(user.getName());
+    userWithCards.setSurname(user.getSurname());
+    userWithCards.setBirthDate(user.getBirthDate());
+    userWithCards.setEmail(user.getEmail());
+    userWithCards.setActive(user.getActive());
+    userWithCards.setCreatedAt(user.getCreatedAt());
+    userWithCards.setUpdatedAt(user.getUpdatedAt());
+
+    List<PaymentCardResponseDTO> cards =
+        user.getPaymentCards().stream().map(paymentCardMapper::toDTO).toList();
+    userWithCards.setPaymentCards(cards);
+
+    return userWithCards;
+  }
+
+  private UserNotFoundException userNotFound(Long id) {
+    negativeCache.markMissing(NegativeCache.USER, id);
+    return new UserNotFoundException(USER_NOT_FOUND_MESSAGE + id);
+  }
 }
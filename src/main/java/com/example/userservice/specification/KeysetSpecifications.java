@@ -0,0 +1,81 @@
+package com.example.userservice.specification;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public class KeysetSpecifications {
+  private KeysetSpecifications() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+  }
+
+  /**
+   * Строки строго после строки со значениями {@code values} в порядке {@code orders}: {@code (a >
+   * x) OR (a = x AND b > y) ...}. Последним в {@code orders} должен идти уникальный столбец (id).
+   * Значения переданы строками из токена продолжения и приводятся к типу атрибута.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static <T> Specification<T> after(List<Sort.Order> orders, List<String> values) {
+    return (root, query, criteriaBuilder) -> {
+      List<Predicate> alternatives = new ArrayList<>(orders.size());
+      List<Predicate> equalities = new ArrayList<>(orders.size());
+      Predicate leading = null;
+      for (int i = 0; i < orders.size(); i++) {
+        Sort.Order order = orders.get(i);
+        Path<Comparable> path = root.get(order.getProperty());
+        Comparable value = parse(values.get(i), path.getJavaType());
+        Predicate beyond =
+            order.isAscending()
+                ? criteriaBuilder.greaterThan(path, value)
+                : criteriaBuilder.lessThan(path, value);
+        List<Predicate> alternative = new ArrayList<>(equalities);
+        alternative.add(beyond);
+        alternatives.add(criteriaBuilder.and(alternative.toArray(Predicate[]::new)));
+        equalities.add(criteriaBuilder.equal(path, value));
+        if (i == 0) {
+          // Диапазон по первому столбцу позволяет планировщику сразу начать с нужного места индекса
+          leading =
+              order.isAscending()
+                  ? criteriaBuilder.greaterThanOrEqualTo(path, value)
+                  : criteriaBuilder.lessThanOrEqualTo(path, value);
+        }
+      }
+      return criteriaBuilder.and(
+          leading, criteriaBuilder.or(alternatives.toArray(Predicate[]::new)));
+    };
+  }
+
+  /** Строковое представление значения ключа для токена продолжения. */
+  public static String format(Object value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Keyset columns must not be null");
+    }
+    return value.toString();
+  }
+
+  private static Comparable<?> parse(String value, Class<?> type) {
+    if (type == String.class) {
+      return value;
+    }
+    if (type == Long.class) {
+      return Long.valueOf(value);
+    }
+    try {
+      if (type == LocalDate.class) {
+        return LocalDate.parse(value);
+      }
+      if (type == LocalDateTime.class) {
+        return LocalDateTime.parse(value);
+      }
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid keyset value: " + value, e);
+    }
+    throw new IllegalArgumentException("Unsupported keyset column type: " + type.getSimpleName());
+  }
+}
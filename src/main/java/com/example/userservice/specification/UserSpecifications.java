@@ -1,6 +1,7 @@
 package com.example.userservice.specification;
 
 import com.example.userservice.entity.User;
+import java.time.LocalDate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
@@ -37,4 +38,13 @@ public class UserSpecifications {
       return criteriaBuilder.equal(root.get("active"), active);
     };
   }
+
+  public static Specification<User> bornBefore(LocalDate birthDate) {
+    return (root, query, criteriaBuilder) -> {
+      if (birthDate == null) {
+        return criteriaBuilder.conjunction();
+      }
+      return criteriaBuilder.lessThan(root.get("birthDate"), birthDate);
+    };
+  }
 }
@@ -0,0 +1,158 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@ExtendWith(MockitoExtension.class)
+class CacheBatchOperationsTest {
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private CacheGenerations generations;
+
+  @Mock private CacheCircuitBreaker breaker;
+
+  @Mock private RedisCache redisCache;
+
+  @Mock private UserHashCache userHashCache;
+
+  @TempDir Path directory;
+
+  private CacheStatistics statistics;
+  private CacheBatchOperations batchOperations;
+  private MappedSegmentStore store;
+
+  @BeforeEach
+  void setUp() {
+    statistics =
+        new CacheStatistics(mock(CacheEntryIndex.class), generations, new SimpleMeterRegistry());
+    batchOperations =
+        new CacheBatchOperations(cacheManager, stringRedisTemplate, generations, statistics);
+    store = new MappedSegmentStore(directory, 2, 4096);
+  }
+
+  @AfterEach
+  void tearDown() {
+    store.close();
+  }
+
+  @Test
+  void getAll_ShouldCountMissesWithoutCallingRedis_WhenCircuitIsOpen() {
+    // Arrange
+    when(cacheManager.getCache("users")).thenReturn(new CircuitBreakerCache(redisCache, breaker));
+    when(breaker.tryAcquire()).thenReturn(false);
+
+    // Act
+    Map<Long, String> result = batchOperations.getAll("users", List.of(1L, 2L), String.class);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    assertEquals(2, statistics.counters("users").misses());
+    verifyNoInteractions(stringRedisTemplate);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void getAll_ShouldRecordFailureInBreaker_WhenRedisIsUnavailable() {
+    // Arrange
+    when(cacheManager.getCache("users")).thenReturn(new CircuitBreakerCache(redisCache, breaker));
+    when(redisCache.getCacheConfiguration())
+        .thenReturn(RedisCacheConfiguration.defaultCacheConfig());
+    when(breaker.tryAcquire()).thenReturn(true);
+    when(stringRedisTemplate.execute(any(RedisCallback.class)))
+        .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+    // Act
+    Map<Long, String> result = batchOperations.getAll("users", List.of(1L), String.class);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    verify(breaker).onFailure();
+  }
+
+  @Test
+  void putAllIfAbsent_ShouldSkipPipeline_WhenCircuitIsOpen() {
+    // Arrange
+    when(cacheManager.getCache("users")).thenReturn(new CircuitBreakerCache(redisCache, breaker));
+    when(redisCache.getCacheConfiguration())
+        .thenReturn(RedisCacheConfiguration.defaultCacheConfig());
+    when(breaker.tryAcquire()).thenReturn(false);
+
+    // Act
+    batchOperations.putAllIfAbsent("users", Map.of(1L, "user-1"));
+
+    // Assert
+    assertEquals(0, statistics.counters("users").puts());
+    verifyNoInteractions(stringRedisTemplate);
+  }
+
+  @Test
+  void getAll_ShouldServeOffHeapTier_WithoutCallingRedis() {
+    // Arrange
+    MappedCache mappedCache =
+        new MappedCache(
+            new CircuitBreakerCache(redisCache, breaker),
+            store,
+            RedisSerializer.java(),
+            generations,
+            mock(NearCacheInvalidator.class),
+            mock(OffHeapChangeLog.class),
+            60_000,
+            false);
+    mappedCache.putLocal(1L, "user-1");
+    when(cacheManager.getCache("users")).thenReturn(mappedCache);
+
+    // Act
+    Map<Long, String> result = batchOperations.getAll("users", List.of(1L), String.class);
+
+    // Assert
+    assertEquals(Map.of(1L, "user-1"), result);
+    assertEquals(1, statistics.counters("users").hits());
+    verifyNoInteractions(stringRedisTemplate, breaker);
+  }
+
+  @Test
+  void getAll_ShouldReadUserHashesInOneCall_WhenCacheIsUserHash() {
+    // Arrange
+    when(cacheManager.getCache("users"))
+        .thenReturn(new CircuitBreakerCache(userHashCache, breaker));
+    when(breaker.tryAcquire()).thenReturn(true);
+    when(userHashCache.lookupAll(List.of(1L, 2L))).thenReturn(Map.of(1L, "user-1"));
+
+    // Act
+    Map<Long, String> result = batchOperations.getAll("users", List.of(1L, 2L), String.class);
+
+    // Assert
+    assertEquals(Map.of(1L, "user-1"), result);
+    assertEquals(1, statistics.counters("users").hits());
+    assertEquals(1, statistics.counters("users").misses());
+    verify(userHashCache, never()).get(any());
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheCircuitBreakerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserCacheProperties properties = new UserCacheProperties();
+
+  private CacheCircuitBreaker breaker;
+
+  @BeforeEach
+  void setUp() {
+    UserCacheProperties.CircuitBreaker config = properties.getCircuitBreaker();
+    config.setMinimumCalls(4);
+    config.setWindowSize(4);
+    config.setHalfOpenProbes(2);
+    config.setOpenDuration(Duration.ZERO);
+    breaker = new CacheCircuitBreaker(properties, meterRegistry);
+  }
+
+  @Test
+  void onFailure_ShouldOpenBreaker_WhenFailureRateReachesThreshold() {
+    // Act
+    breaker.onSuccess(0);
+    breaker.onSuccess(0);
+    breaker.onFailure();
+    breaker.onFailure();
+
+    // Assert
+    assertEquals(CacheCircuitBreaker.State.OPEN, breaker.getState());
+    assertFalse(breaker.isClosed());
+  }
+
+  @Test
+  void onSuccess_ShouldCountSlowCallAsFailure() {
+    // Arrange
+    long slow = properties.getCircuitBreaker().getSlowCallThreshold().toNanos() + 1;
+
+    // Act
+    for (int i = 0; i < 4; i++) {
+      breaker.onSuccess(slow);
+    }
+
+    // Assert
+    assertEquals(CacheCircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void tryAcquire_ShouldCloseBreaker_WhenHalfOpenProbesSucceed() {
+    // Arrange
+    for (int i = 0; i < 4; i++) {
+      breaker.onFailure();
+    }
+
+    // Act
+    boolean firstProbe = breaker.tryAcquire();
+    boolean secondProbe = breaker.tryAcquire();
+    boolean beyondProbes = breaker.tryAcquire();
+    breaker.onSuccess(0);
+    breaker.onSuccess(0);
+
+    // Assert
+    assertTrue(firstProbe);
+    assertTrue(secondProbe);
+    assertFalse(beyondProbes);
+    assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals(1, meterRegistry.counter("cache.circuit.rejected").count());
+  }
+
+  @Test
+  void onFailure_ShouldReopenBreaker_WhenHalfOpenProbeFails() {
+    // Arrange
+    for (int i = 0; i < 4; i++) {
+      breaker.onFailure();
+    }
+    breaker.tryAcquire();
+
+    // Act
+    breaker.onFailure();
+
+    // Assert
+    assertEquals(CacheCircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void onSuccess_ShouldStayClosedAndKeepFullWindow_WhenCalledConcurrently() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    // Act
+    for (int i = 0; i < 10_000; i++) {
+      executor.execute(() -> breaker.onSuccess(0));
+    }
+    executor.shutdown();
+    boolean finished = executor.awaitTermination(10, TimeUnit.SECONDS);
+
+    // Assert
+    assertTrue(finished);
+    assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals(4, breaker.snapshot().recordedCalls());
+    assertEquals(0.0, breaker.snapshot().failureRate());
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CacheCountersTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CacheCounters counters = new CacheCounters("users", meterRegistry);
+
+  private double count(String result) {
+    return meterRegistry
+        .get("cache.gets")
+        .tags("cache", "users", "result", result)
+        .functionCounter()
+        .count();
+  }
+
+  @Test
+  void recordHit_ShouldBeVisibleThroughMeterRegistry() {
+    // Act
+    counters.recordHit();
+    counters.recordHit();
+    counters.recordMiss();
+    counters.recordEvictions(3);
+
+    // Assert
+    assertEquals(2, count("hit"));
+    assertEquals(1, count("miss"));
+    assertEquals(3, meterRegistry.get("cache.evictions").functionCounter().count());
+  }
+
+  @Test
+  void recordLoad_ShouldFeedLoadTimerAndPayloadSummary() {
+    // Act
+    counters.recordLoad(TimeUnit.MILLISECONDS.toNanos(5));
+    counters.recordPayload(512);
+
+    // Assert
+    assertEquals(1, meterRegistry.get("cache.load.duration").timer().count());
+    assertEquals(
+        5, meterRegistry.get("cache.load.duration").timer().totalTime(TimeUnit.MILLISECONDS));
+    assertEquals(512, meterRegistry.get("cache.payload.size").summary().totalAmount());
+    assertEquals(1, counters.loads());
+  }
+
+  @Test
+  void recordPut_ShouldBeVisibleThroughMeterRegistry() {
+    // Act
+    counters.recordPut();
+    counters.recordEviction();
+    counters.recordEvictions(2);
+
+    // Assert
+    assertEquals(1, meterRegistry.get("cache.puts").functionCounter().count());
+    assertEquals(3, meterRegistry.get("cache.evictions").functionCounter().count());
+    assertEquals(1, counters.puts());
+    assertEquals(3, counters.evictions());
+  }
+
+  @Test
+  void recordLoad_ShouldOnlyAccumulate_WhenNoRegistry() {
+    // Arrange
+    CacheCounters local = new CacheCounters();
+
+    // Act
+    local.recordLoad(TimeUnit.MILLISECONDS.toNanos(5));
+    local.recordPayload(512);
+    local.recordHit();
+
+    // Assert
+    assertEquals(1, local.loads());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(5), local.loadTimeNanos());
+    assertEquals(1, local.payloads());
+    assertEquals(512, local.payloadBytes());
+    assertEquals(1, local.hits());
+  }
+}
@@ -0,0 +1,138 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+@ExtendWith(MockitoExtension.class)
+class CacheEntryIndexTest {
+
+  private static final String INDEX_KEY = "user-service:index:users";
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ZSetOperations<String, String> zSetOperations;
+
+  @InjectMocks private CacheEntryIndex entryIndex;
+
+  @BeforeEach
+  void setUp() {
+    when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+  }
+
+  @Test
+  void record_ShouldScoreEntryByExpiryTime_WhenTtlIsSet() {
+    // Arrange
+    long before = System.currentTimeMillis();
+
+    // Act
+    entryIndex.record("users", 1L, Duration.ofMinutes(5));
+
+    // Assert
+    ArgumentCaptor<Double> score = ArgumentCaptor.forClass(Double.class);
+    verify(zSetOperations).add(eq(INDEX_KEY), eq("1"), score.capture());
+    assertTrue(score.getValue() >= before + Duration.ofMinutes(5).toMillis());
+  }
+
+  @Test
+  void record_ShouldNeverExpireEntry_WhenTtlIsMissing() {
+    // Act
+    entryIndex.record("users", 1L, null);
+
+    // Assert
+    verify(zSetOperations).add(INDEX_KEY, "1", Double.POSITIVE_INFINITY);
+  }
+
+  @Test
+  void remove_ShouldReportWhetherEntryWasIndexed() {
+    // Arrange
+    when(zSetOperations.remove(INDEX_KEY, "1")).thenReturn(1L);
+    when(zSetOperations.remove(INDEX_KEY, "2")).thenReturn(0L);
+
+    // Act & Assert
+    assertTrue(entryIndex.remove("users", 1L));
+    assertFalse(entryIndex.remove("users", 2L));
+  }
+
+  @Test
+  void count_ShouldTrimExpiredEntriesAndCountLiveOnes() {
+    // Arrange
+    when(zSetOperations.count(eq(INDEX_KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+        .thenReturn(7L);
+
+    // Act
+    long count = entryIndex.count("users");
+
+    // Assert
+    assertEquals(7, count);
+    verify(zSetOperations)
+        .removeRangeByScore(eq(INDEX_KEY), eq(Double.NEGATIVE_INFINITY), anyDouble());
+  }
+
+  @Test
+  void count_ShouldReturnMinusOne_WhenRedisIsUnavailable() {
+    // Arrange
+    when(zSetOperations.removeRangeByScore(eq(INDEX_KEY), anyDouble(), anyDouble()))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    // Act
+    long count = entryIndex.count("users");
+
+    // Assert
+    assertEquals(-1, count);
+  }
+
+  @Test
+  void trimTo_ShouldUnlinkEntriesClosestToExpiry_WhenOverBudget() {
+    // Arrange
+    when(zSetOperations.zCard(INDEX_KEY)).thenReturn(5L);
+    Set<String> victims = new LinkedHashSet<>(List.of("1", "2"));
+    when(zSetOperations.range(INDEX_KEY, 0, 1)).thenReturn(victims);
+
+    // Act
+    long evicted = entryIndex.trimTo("users", 3, "user-service:users:v1::");
+
+    // Assert
+    assertEquals(2, evicted);
+    verify(stringRedisTemplate)
+        .unlink(List.of("user-service:users:v1::1", "user-service:users:v1::2"));
+    verify(zSetOperations).remove(INDEX_KEY, "1", "2");
+  }
+
+  @Test
+  void trimTo_ShouldDoNothing_WhenWithinBudget() {
+    // Arrange
+    when(zSetOperations.zCard(INDEX_KEY)).thenReturn(3L);
+
+    // Act
+    long evicted = entryIndex.trimTo("users", 3, "user-service:users:v1::");
+
+    // Assert
+    assertEquals(0, evicted);
+    verify(zSetOperations, never()).range(anyString(), anyLong(), anyLong());
+    verify(stringRedisTemplate, never()).unlink(anyList());
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+@ExtendWith(MockitoExtension.class)
+class CacheGenerationsTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ValueOperations<String, String> valueOperations;
+
+  @Mock private NearCacheInvalidator invalidator;
+
+  private CacheGenerations generations;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getGenerations().setRefreshInterval(Duration.ofMinutes(1));
+    generations = new CacheGenerations(stringRedisTemplate, invalidator, properties);
+  }
+
+  @Test
+  void prefixFor_ShouldStartFromGenerationZero_WhenCounterMissing() {
+    // Arrange
+    when(valueOperations.get("user-service:generation:users")).thenReturn(null);
+
+    // Act
+    String prefix = generations.prefixFor("users");
+
+    // Assert
+    assertEquals("user-service:users:v0::", prefix);
+  }
+
+  @Test
+  void prefixFor_ShouldReadRedisOnce_WhenGenerationIsFresh() {
+    // Arrange
+    when(valueOperations.get("user-service:generation:users")).thenReturn("4");
+
+    // Act
+    generations.prefixFor("users");
+    String prefix = generations.prefixFor("users");
+
+    // Assert
+    assertEquals("user-service:users:v4::", prefix);
+    verify(valueOperations).get("user-service:generation:users");
+  }
+
+  @Test
+  void clear_ShouldIncrementGenerationInsteadOfDeletingKeys() {
+    // Arrange
+    ConcurrentMapCache remote = new ConcurrentMapCache("users");
+    remote.put(1L, "cached");
+    when(valueOperations.increment("user-service:generation:users")).thenReturn(5L);
+    GenerationalCache cache = new GenerationalCache(remote, generations);
+
+    // Act
+    cache.clear();
+
+    // Assert
+    assertEquals("user-service:users:v5::", generations.prefixFor("users"));
+    assertEquals("cached", remote.get(1L, String.class));
+    verify(invalidator).publishClear("users");
+    verify(valueOperations, never()).get(any());
+  }
+}
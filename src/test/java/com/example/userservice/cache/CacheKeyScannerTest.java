@@ -0,0 +1,140 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+@Testcontainers
+@SuppressWarnings("resource")
+class CacheKeyScannerTest {
+
+  @Container
+  static GenericContainer<?> redisContainer =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate template;
+
+  private CacheKeyScanner scanner;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(
+                redisContainer.getHost(), redisContainer.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    template = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    template.execute(
+        (RedisCallback<Object>)
+            connection -> {
+              connection.serverCommands().flushAll();
+              return null;
+            });
+    for (int id = 1; id <= 250; id++) {
+      template.opsForValue().set("user-service:users:v0::" + id, "value");
+    }
+    template.opsForValue().set("user-service:cards:v0::1", "value");
+    template.opsForValue().set("user-service:users:v1::999", "value");
+
+    UserCacheProperties properties = new UserCacheProperties();
+    scanner =
+        new CacheKeyScanner(
+            template,
+            new CacheGenerations(template, mock(NearCacheInvalidator.class), properties),
+            properties);
+  }
+
+  @Test
+  void page_ShouldWalkAllKeysOfCurrentGeneration_WhenFollowingCursor() {
+    // Arrange
+    Set<String> keys = new HashSet<>();
+    String cursor = "0";
+    int pages = 0;
+
+    // Act
+    CacheKeyPage page;
+    do {
+      page = scanner.page(CacheNames.USERS, cursor, null, 50);
+      keys.addAll(page.keys());
+      cursor = page.nextCursor();
+      pages++;
+    } while (!page.finished() && pages < 100);
+
+    // Assert
+    assertTrue(page.finished());
+    assertTrue(pages > 1);
+    assertEquals(250, keys.size());
+    assertTrue(keys.contains("1"));
+    assertTrue(keys.contains("250"));
+  }
+
+  @Test
+  void page_ShouldReturnOnlyMatchingKeys_WhenPrefixGiven() {
+    // Arrange
+    Set<String> keys = new HashSet<>();
+    String cursor = "0";
+    CacheKeyPage page;
+
+    // Act
+    do {
+      page = scanner.page(CacheNames.USERS, cursor, "24", 100);
+      keys.addAll(page.keys());
+      cursor = page.nextCursor();
+    } while (!page.finished());
+
+    // Assert
+    assertEquals(11, keys.size());
+    assertTrue(keys.stream().allMatch(key -> key.startsWith("24")));
+  }
+
+  @Test
+  void page_ShouldRejectPageSizeAboveLimit() {
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class, () -> scanner.page(CacheNames.USERS, "0", null, 5_000));
+  }
+
+  @Test
+  void page_ShouldRejectMalformedCursor() {
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class, () -> scanner.page(CacheNames.USERS, "abc", null, 10));
+  }
+
+  @Test
+  void escape_ShouldEscapeGlobCharacters() {
+    // Act
+    String escaped = CacheKeyScanner.escape("a*b?[c]\\");
+
+    // Assert
+    assertEquals("a\\*b\\?\\[c\\]\\\\", escaped);
+  }
+}
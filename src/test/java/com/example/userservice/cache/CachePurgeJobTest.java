@@ -0,0 +1,69 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CachePurgeJobTest {
+
+  private final CachePurgeJob job = new CachePurgeJob("user-service:*");
+
+  @Test
+  void recordBatch_ShouldAccumulateProgress() {
+    // Act
+    job.recordBatch(500, 480);
+    job.recordBatch(120, 120);
+
+    // Assert
+    assertEquals(620, job.getScannedKeys());
+    assertEquals(600, job.getDeletedKeys());
+    assertEquals(2, job.getBatches());
+    assertEquals(CachePurgeJob.Status.RUNNING, job.getStatus());
+    assertNull(job.getFinishedAt());
+  }
+
+  @Test
+  void cancel_ShouldOnlyRequestStop_UntilPurgeNoticesIt() {
+    // Act
+    boolean accepted = job.cancel();
+
+    // Assert
+    assertTrue(accepted);
+    assertTrue(job.isCancelRequested());
+    assertEquals(CachePurgeJob.Status.RUNNING, job.getStatus());
+
+    job.cancelled();
+
+    assertEquals(CachePurgeJob.Status.CANCELLED, job.getStatus());
+    assertNotNull(job.getFinishedAt());
+  }
+
+  @Test
+  void cancel_ShouldBeRejected_WhenJobAlreadyFinished() {
+    // Arrange
+    job.complete();
+
+    // Act
+    boolean accepted = job.cancel();
+
+    // Assert
+    assertFalse(accepted);
+    assertFalse(job.isCancelRequested());
+    assertEquals(CachePurgeJob.Status.COMPLETED, job.getStatus());
+  }
+
+  @Test
+  void fail_ShouldRecordErrorAndFinishTime() {
+    // Act
+    job.fail("Connection refused");
+
+    // Assert
+    assertEquals(CachePurgeJob.Status.FAILED, job.getStatus());
+    assertEquals("Connection refused", job.getError());
+    assertNotNull(job.getFinishedAt());
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+@Testcontainers
+@SuppressWarnings("resource")
+class CachePurgerTest {
+
+  private static final String PATTERN = "user-service:*";
+  private static final String GENERATION_KEY = CacheGenerations.KEY_PREFIX + "users";
+  private static final String CHANGE_LOG_KEY = OffHeapChangeLog.KEY_PREFIX + "users";
+
+  @Container
+  static GenericContainer<?> redisContainer =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate template;
+
+  private UserCacheProperties properties;
+  private CachePurger purger;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(
+                redisContainer.getHost(), redisContainer.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    template = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    template.execute(
+        (RedisCallback<Object>)
+            connection -> {
+              connection.serverCommands().flushAll();
+              return null;
+            });
+    for (int id = 1; id <= 250; id++) {
+      template.opsForValue().set("user-service:users:v0::" + id, "value");
+    }
+    template.opsForValue().set(GENERATION_KEY, "3");
+    template.opsForZSet().add(CHANGE_LOG_KEY, "1", 1_000);
+    template.opsForValue().set("other-service:key", "value");
+
+    properties = new UserCacheProperties();
+    properties.getPurge().setBatchSize(50);
+    properties.getPurge().setUnlinkChunkSize(20);
+    properties.getPurge().setPauseBetweenBatches(Duration.ZERO);
+    purger = new CachePurger(template, properties);
+  }
+
+  private static int remainingUserKeys() {
+    return template.keys("user-service:users:*").size();
+  }
+
+  @Test
+  void purge_ShouldUnlinkAllKeysInBatchesAndReportProgress() {
+    // Arrange
+    CachePurgeJob job = new CachePurgeJob(PATTERN);
+
+    // Act
+    purger.purge(job);
+
+    // Assert
+    assertEquals(CachePurgeJob.Status.COMPLETED, job.getStatus());
+    assertEquals(250, job.getScannedKeys());
+    assertEquals(250, job.getDeletedKeys());
+    assertEquals(5, job.getBatches());
+    assertNotNull(job.getFinishedAt());
+    assertEquals(0, remainingUserKeys());
+  }
+
+  @Test
+  void purge_ShouldKeepGenerationCountersAndForeignKeys() {
+    // Act
+    purger.purge(new CachePurgeJob(PATTERN));
+
+    // Assert
+    assertEquals("3", template.opsForValue().get(GENERATION_KEY));
+    assertEquals("value", template.opsForValue().get("other-service:key"));
+  }
+
+  @Test
+  void purge_ShouldKeepOffHeapChangeLogs() {
+    // Act
+    purger.purge(new CachePurgeJob(PATTERN));
+
+    // Assert
+    assertEquals(1, template.opsForZSet().size(CHANGE_LOG_KEY));
+  }
+
+  @Test
+  void purge_ShouldStopAfterCurrentBatch_WhenCancelledWhileRunning() {
+    // Arrange
+    CachePurgeJob job =
+        new CachePurgeJob(PATTERN) {
+          @Override
+          void recordBatch(int scanned, long deleted) {
+            super.recordBatch(scanned, deleted);
+            cancel();
+          }
+        };
+
+    // Act
+    purger.purge(job);
+
+    // Assert
+    assertEquals(CachePurgeJob.Status.CANCELLED, job.getStatus());
+    assertEquals(1, job.getBatches());
+    assertEquals(50, job.getDeletedKeys());
+    assertEquals(200, remainingUserKeys());
+  }
+
+  @Test
+  void purge_ShouldDeleteNothing_WhenCancelledBeforeStart() {
+    // Arrange
+    CachePurgeJob job = new CachePurgeJob(PATTERN);
+    job.cancel();
+
+    // Act
+    purger.purge(job);
+
+    // Assert
+    assertEquals(CachePurgeJob.Status.CANCELLED, job.getStatus());
+    assertEquals(0, job.getBatches());
+    assertEquals(250, remainingUserKeys());
+  }
+
+  @Test
+  void purge_ShouldFailAndKeepInterruptFlag_WhenInterruptedBetweenBatches() {
+    // Arrange
+    properties.getPurge().setPauseBetweenBatches(Duration.ofSeconds(1));
+    // Прерывание приходит после первой порции, чтобы его заметила пауза, а не сам SCAN
+    CachePurgeJob job =
+        new CachePurgeJob(PATTERN) {
+          @Override
+          void recordBatch(int scanned, long deleted) {
+            super.recordBatch(scanned, deleted);
+            Thread.currentThread().interrupt();
+          }
+        };
+
+    // Act
+    purger.purge(job);
+
+    // Assert
+    assertTrue(Thread.interrupted());
+    assertEquals(CachePurgeJob.Status.FAILED, job.getStatus());
+    assertEquals("Interrupted", job.getError());
+    assertEquals(1, job.getBatches());
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.config.UserCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerCacheTest {
+
+  @Mock private Cache remote;
+
+  private CacheCircuitBreaker breaker;
+  private CircuitBreakerCache cache;
+
+  @BeforeEach
+  void setUp() {
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getCircuitBreaker().setMinimumCalls(1);
+    properties.getCircuitBreaker().setWindowSize(1);
+    breaker = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+    cache = new CircuitBreakerCache(remote, breaker);
+  }
+
+  @Test
+  void get_ShouldLoadFromLoader_WhenRedisFails() {
+    // Arrange
+    when(remote.get(1L)).thenThrow(new RedisConnectionFailureException("down"));
+
+    // Act
+    String result = cache.get(1L, () -> "user-1");
+
+    // Assert
+    assertEquals("user-1", result);
+    assertFalse(breaker.isClosed());
+    verify(remote, never()).put(any(), any());
+  }
+
+  @Test
+  void get_ShouldSkipRedis_WhenBreakerOpen() {
+    // Arrange
+    breaker.onFailure();
+
+    // Act
+    Cache.ValueWrapper result = cache.get(1L);
+
+    // Assert
+    assertNull(result);
+    verify(remote, never()).get(any());
+  }
+
+  @Test
+  void evict_ShouldMarkCacheStale_WhenRedisFails() {
+    // Arrange
+    doThrow(new RedisConnectionFailureException("down")).when(remote).evict(1L);
+
+    // Act
+    cache.evict(1L);
+
+    // Assert
+    assertTrue(cache.isStale());
+  }
+
+  @Test
+  void get_ShouldReturnProbeToBreaker_WhenHalfOpenCallThrowsNonRedisException() {
+    // Arrange
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getCircuitBreaker().setMinimumCalls(1);
+    properties.getCircuitBreaker().setWindowSize(1);
+    properties.getCircuitBreaker().setHalfOpenProbes(1);
+    properties.getCircuitBreaker().setOpenDuration(Duration.ZERO);
+    CacheCircuitBreaker probing = new CacheCircuitBreaker(properties, new SimpleMeterRegistry());
+    CircuitBreakerCache probed = new CircuitBreakerCache(remote, probing);
+    probing.onFailure();
+    when(remote.get(1L)).thenThrow(new SerializationException("corrupt entry"));
+
+    // Act & Assert
+    assertThrows(SerializationException.class, () -> probed.get(1L));
+    assertTrue(probing.isClosed());
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+@ExtendWith(MockitoExtension.class)
+class EntryTrackingCacheTest {
+
+  @Mock private CacheEntryIndex entryIndex;
+
+  @Mock private CacheGenerations generations;
+
+  private ConcurrentMapCache remote;
+  private CacheCounters counters;
+  private EntryTrackingCache cache;
+
+  @BeforeEach
+  void setUp() {
+    remote = new ConcurrentMapCache("users");
+    counters = new CacheCounters();
+    cache = new EntryTrackingCache(remote, entryIndex, counters, null, generations);
+  }
+
+  @Test
+  void put_ShouldRecordPutAndIndexEntry() {
+    // Act
+    cache.put(1L, "user-1");
+    cache.put(2L, null);
+
+    // Assert
+    assertEquals(1, counters.puts());
+    verify(entryIndex).record(eq("users"), eq(1L), any());
+    verify(entryIndex, never()).record(eq("users"), eq(2L), any());
+  }
+
+  @Test
+  void evict_ShouldRecordEviction_WhenEntryWasIndexed() {
+    // Arrange
+    remote.put(1L, "user-1");
+    when(entryIndex.remove("users", 1L)).thenReturn(true);
+
+    // Act
+    cache.evict(1L);
+
+    // Assert
+    assertEquals(1, counters.evictions());
+  }
+
+  @Test
+  void evict_ShouldNotRecordEviction_WhenEntryWasAbsent() {
+    // Arrange
+    when(entryIndex.remove("users", 1L)).thenReturn(false);
+
+    // Act
+    cache.evict(1L);
+    boolean evicted = cache.evictIfPresent(1L);
+
+    // Assert
+    assertFalse(evicted);
+    assertEquals(0, counters.evictions());
+  }
+
+  @Test
+  void evictIfPresent_ShouldRecordOneEviction_WhenDelegateAndIndexBothHadEntry() {
+    // Arrange
+    remote.put(1L, "user-1");
+    when(entryIndex.remove("users", 1L)).thenReturn(true);
+
+    // Act
+    cache.evictIfPresent(1L);
+
+    // Assert
+    assertEquals(1, counters.evictions());
+  }
+
+  @Test
+  void put_ShouldTrimToBudget_WhenCheckIntervalReached() {
+    // Arrange
+    CacheBudget budget = new CacheBudget(10L, null, counters);
+    EntryTrackingCache budgeted =
+        new EntryTrackingCache(remote, entryIndex, counters, budget, generations);
+    when(generations.prefixFor("users")).thenReturn("user-service:users:v1::");
+    when(entryIndex.trimTo(eq("users"), anyLong(), anyString())).thenReturn(3L);
+
+    // Act
+    for (long i = 0; i < EntryTrackingCache.BUDGET_CHECK_INTERVAL; i++) {
+      budgeted.put(i, "user-" + i);
+    }
+
+    // Assert
+    verify(entryIndex).trimTo("users", 10L, "user-service:users:v1::");
+    assertEquals(3, counters.evictions());
+  }
+}
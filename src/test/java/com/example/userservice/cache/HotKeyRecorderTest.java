@@ -0,0 +1,103 @@
+package com.example.userservice.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.config.UserCacheProperties;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class HotKeyRecorderTest {
+
+  private static final byte[] HOT_KEYS = bytes(HotKeyRecorder.HOT_KEYS_KEY);
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ThreadPoolTaskExecutor cacheMaintenanceExecutor;
+
+  @Mock private RedisConnection connection;
+
+  @Mock private RedisZSetCommands zSetCommands;
+
+  @Mock private RedisKeyCommands keyCommands;
+
+  private final UserCacheProperties properties = new UserCacheProperties();
+
+  @BeforeEach
+  void setUp() {
+    properties.getWarmUp().setFlushInterval(Duration.ofHours(1));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stubPipeline() {
+    when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+        .thenAnswer(
+            invocation -> {
+              invocation.getArgument(0, RedisCallback.class).doInRedis(connection);
+              return List.of();
+            });
+    when(connection.zSetCommands()).thenReturn(zSetCommands);
+    when(connection.keyCommands()).thenReturn(keyCommands);
+  }
+
+  @Test
+  void flush_ShouldSendCountsPerKey_WhenKeysRecordedAsObjects() {
+    // Arrange
+    stubPipeline();
+    HotKeyRecorder recorder =
+        new HotKeyRecorder(stringRedisTemplate, cacheMaintenanceExecutor, properties);
+    recorder.record(1L);
+    recorder.record(1L);
+    recorder.record(1L);
+    recorder.record(2L);
+    recorder.record(null);
+
+    // Act
+    recorder.flush();
+
+    // Assert
+    verify(zSetCommands).zIncrBy(HOT_KEYS, 3, bytes("1"));
+    verify(zSetCommands).zIncrBy(HOT_KEYS, 1, bytes("2"));
+    verify(zSetCommands, never()).zIncrBy(eq(HOT_KEYS), anyDouble(), eq(bytes("null")));
+  }
+
+  @Test
+  void record_ShouldIgnoreNewKeys_WhenTrackedKeyLimitReached() {
+    // Arrange
+    stubPipeline();
+    properties.getWarmUp().setMaxTrackedKeys(1);
+    HotKeyRecorder recorder =
+        new HotKeyRecorder(stringRedisTemplate, cacheMaintenanceExecutor, properties);
+    recorder.record(1L);
+    recorder.record(2L);
+    recorder.record(1L);
+
+    // Act
+    recorder.flush();
+
+    // Assert
+    verify(zSetCommands).zIncrBy(HOT_KEYS, 2, bytes("1"));
+    verify(zSetCommands, never()).zIncrBy(eq(HOT_KEYS), anyDouble(), eq(bytes("2")));
+  }
+}
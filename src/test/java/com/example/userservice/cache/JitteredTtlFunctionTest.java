@@ -0,0 +1,54 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class JitteredTtlFunctionTest {
+
+  private final JitteredTtlFunction ttlFunction =
+      new JitteredTtlFunction(Duration.ofHours(1), 0.1);
+
+  @Test
+  void getTimeToLive_ShouldStayWithinJitterBounds() {
+    // Act & Assert
+    for (long id = 1; id <= 1_000; id++) {
+      Duration ttl = ttlFunction.getTimeToLive(id, null);
+      assertTrue(ttl.compareTo(Duration.ofMinutes(54)) >= 0, "TTL too short: " + ttl);
+      assertTrue(ttl.compareTo(Duration.ofMinutes(66)) <= 0, "TTL too long: " + ttl);
+    }
+  }
+
+  @Test
+  void getTimeToLive_ShouldReturnSameValue_WhenCalledForSameKey() {
+    // Act & Assert
+    assertEquals(ttlFunction.getTimeToLive(42L, null), ttlFunction.getTimeToLive(42L, "other"));
+  }
+
+  @Test
+  void getTimeToLive_ShouldSpreadExpiry_WhenKeysWrittenTogether() {
+    // Arrange
+    Set<Long> distinctMinutes = new HashSet<>();
+
+    // Act
+    for (long id = 1; id <= 100; id++) {
+      distinctMinutes.add(ttlFunction.getTimeToLive(id, null).toMinutes());
+    }
+
+    // Assert
+    assertTrue(distinctMinutes.size() >= 10, "Expiry is not spread: " + distinctMinutes);
+  }
+
+  @Test
+  void getTimeToLive_ShouldReturnBaseTtl_WhenJitterIsZero() {
+    // Arrange
+    JitteredTtlFunction exact = new JitteredTtlFunction(Duration.ofMinutes(30), 0.0);
+
+    // Act & Assert
+    assertEquals(Duration.ofMinutes(30), exact.getTimeToLive(7L, null));
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class LocalTierMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private LocalTierMetrics metrics;
+  private Cache<String, Object> local;
+  private NearCache nearCache;
+
+  @BeforeEach
+  void setUp() {
+    metrics = new LocalTierMetrics("users", meterRegistry);
+    local =
+        Caffeine.newBuilder()
+            .maximumWeight(20_000)
+            .weigher(new LocalCacheWeigher())
+            .removalListener(metrics)
+            .executor(Runnable::run)
+            .build();
+    metrics.bind(local);
+    nearCache =
+        new NearCache(
+            new ConcurrentMapCache("users"),
+            local,
+            mock(NearCacheInvalidator.class),
+            () -> true,
+            metrics);
+  }
+
+  @Test
+  void weigh_ShouldChargeCardListMoreThanSingleUser() {
+    // Arrange
+    LocalCacheWeigher weigher = new LocalCacheWeigher();
+    List<PaymentCardResponseDTO> cards = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      cards.add(card(i));
+    }
+
+    // Act
+    int userWeight = weigher.weigh("1", user(1));
+    int cardsWeight = weigher.weigh("1", cards);
+
+    // Assert
+    assertTrue(cardsWeight > 3 * userWeight);
+  }
+
+  @Test
+  void putLocal_ShouldKeepFrequentEntryAndCountRejections_WhenOneOffKeysAreScanned() {
+    // Arrange: частоты учитываются, когда уровень заполнен хотя бы наполовину
+    for (long id = 1; id <= 100; id++) {
+      nearCache.putLocal(id, user(id));
+    }
+    nearCache.putLocal(0L, user(0));
+    for (int i = 0; i < 20; i++) {
+      nearCache.peekLocal(0L);
+    }
+
+    // Act
+    for (long id = 101; id <= 1_100; id++) {
+      nearCache.putLocal(id, user(id));
+    }
+    local.cleanUp();
+
+    // Assert
+    assertNotNull(nearCache.peekLocal(0L));
+    assertEquals(1_101, metrics.getAdmissions());
+    assertTrue(metrics.getRejections() > 1_000);
+    assertEquals(
+        metrics.getRejections(),
+        meterRegistry
+            .get("cache.local.rejections")
+            .tag("cache", "users")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void bind_ShouldExportCurrentWeightWithinBound() {
+    // Arrange
+    for (long id = 0; id < 500; id++) {
+      nearCache.putLocal(id, user(id));
+    }
+    local.cleanUp();
+
+    // Act
+    double weight = meterRegistry.get("cache.local.weight").tag("cache", "users").gauge().value();
+
+    // Assert
+    assertTrue(weight > 0);
+    assertTrue(weight <= 20_000);
+  }
+
+  private static UserResponseDTO user(long id) {
+    UserResponseDTO user = new UserResponseDTO();
+    user.setId(id);
+    user.setName("Name" + id);
+    user.setSurname("Surname" + id);
+    user.setEmail("user" + id + "@example.com");
+    return user;
+  }
+
+  private static PaymentCardResponseDTO card(long id) {
+    PaymentCardResponseDTO card = new PaymentCardResponseDTO();
+    card.setId(id);
+    card.setUserId(1L);
+    card.setNumber("4000000000000" + id);
+    card.setHolder("NAME SURNAME");
+    return card;
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@ExtendWith(MockitoExtension.class)
+class MappedCacheTest {
+
+  @Mock private CacheGenerations generations;
+
+  @Mock private NearCacheInvalidator invalidator;
+
+  @Mock private OffHeapChangeLog changes;
+
+  @TempDir Path directory;
+
+  private ConcurrentMapCache remote;
+  private MappedSegmentStore store;
+  private MappedCache mappedCache;
+
+  @BeforeEach
+  void setUp() {
+    remote = new ConcurrentMapCache("users");
+    store = new MappedSegmentStore(directory, 2, 4096);
+    mappedCache = mappedCache(store);
+  }
+
+  @AfterEach
+  void tearDown() {
+    store.close();
+  }
+
+  private MappedCache mappedCache(MappedSegmentStore segmentStore) {
+    return new MappedCache(
+        remote,
+        segmentStore,
+        RedisSerializer.java(),
+        generations,
+        invalidator,
+        changes,
+        60_000,
+        true);
+  }
+
+  @Test
+  void get_ShouldServeFromLocalTier_WhenRemoteEntryWasEvictedElsewhere() {
+    // Arrange
+    remote.put(1L, "user-1");
+    mappedCache.get(1L);
+    remote.evict(1L);
+
+    // Act
+    String result = mappedCache.get(1L, String.class);
+
+    // Assert
+    assertEquals("user-1", result);
+  }
+
+  @Test
+  void evict_ShouldDropLocalCopyAndRecordChangeWithInvalidation() {
+    // Arrange
+    byte[] message = {1};
+    when(invalidator.evictMessage("users", List.of("1"))).thenReturn(message);
+    mappedCache.put(1L, "user-1");
+
+    // Act
+    mappedCache.evict(1L);
+
+    // Assert
+    assertNull(mappedCache.get(1L));
+    verify(changes, times(2)).record("users", List.of("1"), message);
+  }
+
+  @Test
+  void put_ShouldRecordChangeButNotPublish_WhenNearCacheAboveIsPublishing() {
+    // Arrange
+    MappedCache silent =
+        new MappedCache(
+            remote,
+            store,
+            RedisSerializer.java(),
+            generations,
+            invalidator,
+            changes,
+            60_000,
+            false);
+
+    // Act
+    silent.put(1L, "user-1");
+
+    // Assert
+    verify(changes).record("users", List.of("1"), null);
+    verify(invalidator, never()).evictMessage(any(), any());
+  }
+
+  @Test
+  void retainUnchanged_ShouldKeepEntries_WhenNothingChangedWhileNodeWasDown() {
+    // Arrange
+    mappedCache.put(1L, "user-1");
+    remote.clear();
+    store.shutdown();
+
+    // Act
+    store = new MappedSegmentStore(directory, 2, 4096);
+    store.retainUnchanged(Set.of());
+
+    // Assert
+    assertEquals("user-1", mappedCache(store).get(1L, String.class));
+  }
+
+  @Test
+  void retainUnchanged_ShouldDropOnlyEvictedKey_WhenKeyWasEvictedWhileNodeWasDown() {
+    // Arrange
+    mappedCache.put(1L, "user-1");
+    mappedCache.put(2L, "user-2");
+    store.shutdown();
+    // Другой узел удалил ключ, пока этот был выключен; рассылка до него не дошла
+    remote.evict(1L);
+    remote.clear();
+
+    // Act
+    store = new MappedSegmentStore(directory, 2, 4096);
+    store.retainUnchanged(Set.of("1"));
+
+    // Assert
+    assertEquals(1, store.size());
+    assertNull(mappedCache(store).get(1L));
+    assertEquals("user-2", mappedCache(store).get(2L, String.class));
+  }
+
+  @Test
+  void get_ShouldReadRemoteTier_WhenLocalCachingIsNotAllowed() {
+    // Arrange
+    AtomicBoolean allowed = new AtomicBoolean(true);
+    MappedCache gated =
+        new MappedCache(
+            remote,
+            store,
+            RedisSerializer.java(),
+            generations,
+            invalidator,
+            changes,
+            60_000,
+            true,
+            allowed::get);
+    gated.put(1L, "user-1");
+    remote.put(1L, "user-1-updated");
+
+    // Act
+    allowed.set(false);
+    String whileDown = gated.get(1L, String.class);
+    gated.get(2L, () -> "user-2");
+
+    // Assert
+    assertEquals("user-1-updated", whileDown);
+    allowed.set(true);
+    assertNull(gated.peekLocal(2L));
+  }
+}
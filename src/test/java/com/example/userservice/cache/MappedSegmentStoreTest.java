@@ -0,0 +1,197 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedSegmentStoreTest {
+
+  private static final long FAR_FUTURE = Long.MAX_VALUE;
+
+  @TempDir Path directory;
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void get_ShouldReturnValue_WhenGenerationMatches() {
+    // Arrange
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 4096)) {
+      store.put("1", bytes("user-1"), 3, FAR_FUTURE);
+
+      // Act & Assert
+      assertArrayEquals(bytes("user-1"), store.get("1", 3, 0));
+      assertNull(store.get("1", 4, 0));
+      assertNull(store.get("1", 3, FAR_FUTURE));
+    }
+  }
+
+  @Test
+  void open_ShouldRestoreEntriesAndRemovals_WhenReopened() {
+    // Arrange
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 4096)) {
+      store.put("1", bytes("user-1"), 0, FAR_FUTURE);
+      store.put("2", bytes("user-2"), 0, FAR_FUTURE);
+      store.put("1", bytes("user-1-updated"), 0, FAR_FUTURE);
+      store.remove(List.of("2"));
+    }
+
+    // Act
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 4096)) {
+
+      // Assert
+      assertEquals(1, reopened.size());
+      assertArrayEquals(bytes("user-1-updated"), reopened.get("1", 0, 0));
+      assertNull(reopened.get("2", 0, 0));
+    }
+  }
+
+  @Test
+  void put_ShouldDropOldestSegment_WhenStoreIsFull() {
+    // Arrange
+    byte[] value = new byte[200];
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 1024)) {
+
+      // Act
+      for (int i = 0; i < 20; i++) {
+        store.put(String.valueOf(i), value, 0, FAR_FUTURE);
+      }
+
+      // Assert
+      assertNull(store.get("0", 0, 0));
+      assertArrayEquals(value, store.get("19", 0, 0));
+    }
+
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 1024)) {
+      assertNull(reopened.get("0", 0, 0));
+      assertArrayEquals(value, reopened.get("19", 0, 0));
+    }
+  }
+
+  @Test
+  void retainUnchanged_ShouldDropEntries_WhenStoreWasNotShutDown() {
+    // Arrange
+    MappedSegmentStore store = new MappedSegmentStore(directory, 2, 4096);
+    store.put("1", bytes("user-1"), 0, FAR_FUTURE);
+    store.shutdown();
+    // Метка читается один раз: после следующего открытия без shutdown её нет, как при падении
+    new MappedSegmentStore(directory, 2, 4096).close();
+
+    // Act
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 4096)) {
+      assertNull(reopened.closedAt());
+      reopened.retainUnchanged(null);
+
+      // Assert
+      assertEquals(0, reopened.size());
+    }
+  }
+
+  @Test
+  void retainUnchanged_ShouldDropOnlyChangedKeys_WhenStoreWasShutDown() {
+    // Arrange
+    MappedSegmentStore store = new MappedSegmentStore(directory, 2, 4096);
+    store.put("1", bytes("user-1"), 0, FAR_FUTURE);
+    store.put("2", bytes("user-2"), 0, FAR_FUTURE);
+    store.shutdown();
+
+    // Act
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 4096)) {
+      assertNotNull(reopened.closedAt());
+      reopened.retainUnchanged(Set.of("1", "3"));
+    }
+
+    // Assert
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 4096)) {
+      assertEquals(1, reopened.size());
+      assertNull(reopened.get("1", 0, 0));
+      assertArrayEquals(bytes("user-2"), reopened.get("2", 0, 0));
+    }
+  }
+
+  @Test
+  void put_ShouldKeepAllEntries_WhenIndexGrowsBeyondInitialCapacity() {
+    // Arrange
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 1024 * 1024)) {
+
+      // Act
+      for (int i = 0; i < 5000; i++) {
+        store.put("user:" + i, bytes("user-" + i), 0, FAR_FUTURE);
+      }
+      for (int i = 0; i < 5000; i += 2) {
+        store.remove(List.of("user:" + i));
+      }
+
+      // Assert
+      assertEquals(2500, store.size());
+      assertNull(store.get("user:0", 0, 0));
+      assertArrayEquals(bytes("user-4999"), store.get("user:4999", 0, 0));
+    }
+
+    try (MappedSegmentStore reopened = new MappedSegmentStore(directory, 2, 1024 * 1024)) {
+      assertEquals(2500, reopened.size());
+      assertArrayEquals(bytes("user-1"), reopened.get("user:1", 0, 0));
+    }
+  }
+
+  @Test
+  void get_ShouldMissAndCountLiveEntries_WhenSegmentIsRecycled() {
+    // Arrange
+    byte[] value = new byte[200];
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 1024)) {
+
+      // Act
+      for (int i = 0; i < 20; i++) {
+        store.put(String.valueOf(i), value, 0, FAR_FUTURE);
+      }
+
+      // Assert
+      // В сегмент 1024 байт помещается четыре записи, живы только два последних сегмента
+      assertEquals(8, store.size());
+      assertNull(store.get("3", 0, 0));
+    }
+  }
+
+  @Test
+  void get_ShouldReturnValue_WhenKeyIsNotAscii() {
+    // Arrange
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 4096)) {
+      store.put("пользователь", bytes("user-1"), 0, FAR_FUTURE);
+
+      // Act & Assert
+      assertArrayEquals(bytes("user-1"), store.get("пользователь", 0, 0));
+      assertNull(store.get("пользователя", 0, 0));
+    }
+  }
+
+  @Test
+  void put_ShouldKeepKeyRewrittenInNewerSegment_WhenOldestSegmentIsRecycled() {
+    // Arrange
+    byte[] value = new byte[200];
+    try (MappedSegmentStore store = new MappedSegmentStore(directory, 2, 1024)) {
+      store.put("kept", value, 0, FAR_FUTURE);
+      for (int i = 0; i < 4; i++) {
+        store.put(String.valueOf(i), value, 0, FAR_FUTURE);
+      }
+      store.put("kept", bytes("rewritten"), 0, FAR_FUTURE);
+
+      // Act
+      for (int i = 4; i < 8; i++) {
+        store.put(String.valueOf(i), value, 0, FAR_FUTURE);
+      }
+
+      // Assert
+      assertNull(store.get("0", 0, 0));
+      assertArrayEquals(bytes("rewritten"), store.get("kept", 0, 0));
+    }
+  }
+}
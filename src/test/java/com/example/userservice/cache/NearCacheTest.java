@@ -0,0 +1,108 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.verify;
+
+import com.example.userservice.dto.UserResponseDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheTest {
+
+  @Mock private NearCacheInvalidator invalidator;
+
+  private ConcurrentMapCache remote;
+  private NearCache nearCache;
+
+  @BeforeEach
+  void setUp() {
+    remote = new ConcurrentMapCache("users");
+    nearCache =
+        new NearCache(remote, Caffeine.newBuilder().maximumSize(100).build(), invalidator);
+  }
+
+  @Test
+  void get_ShouldServeFromLocalTier_WhenRemoteEntryWasEvictedElsewhere() {
+    // Arrange
+    UserResponseDTO user = new UserResponseDTO();
+    user.setId(1L);
+    remote.put(1L, user);
+    nearCache.get(1L);
+    remote.evict(1L);
+
+    // Act
+    UserResponseDTO result = nearCache.get(1L, UserResponseDTO.class);
+
+    // Assert
+    assertSame(user, result);
+  }
+
+  @Test
+  void get_ShouldReturnSameWrapper_WhenServedFromLocalTier() {
+    // Arrange
+    remote.put(1L, new UserResponseDTO());
+    nearCache.get(1L);
+
+    // Act
+    ValueWrapper first = nearCache.get(1L);
+    ValueWrapper second = nearCache.get(1L);
+
+    // Assert
+    assertSame(first, second);
+    assertSame(remote.get(1L).get(), first.get());
+  }
+
+  @Test
+  void evict_ShouldDropLocalCopyAndPublishInvalidation() {
+    // Arrange
+    UserResponseDTO user = new UserResponseDTO();
+    nearCache.put(1L, user);
+
+    // Act
+    nearCache.evict(1L);
+
+    // Assert
+    assertNull(nearCache.get(1L));
+    verify(invalidator).publishEvict("users", List.of("1"));
+  }
+
+  @Test
+  void invalidateLocal_ShouldForceReadFromRemoteTier() {
+    // Arrange
+    UserResponseDTO stale = new UserResponseDTO();
+    stale.setName("Old");
+    UserResponseDTO fresh = new UserResponseDTO();
+    fresh.setName("New");
+    nearCache.put(1L, stale);
+    remote.put(1L, fresh);
+
+    // Act
+    nearCache.invalidateLocal(List.of("1"));
+
+    // Assert
+    assertEquals("New", nearCache.get(1L, UserResponseDTO.class).getName());
+  }
+
+  @Test
+  void clear_ShouldPublishClearForWholeCache() {
+    // Arrange
+    nearCache.put(1L, new UserResponseDTO());
+
+    // Act
+    nearCache.clear();
+
+    // Assert
+    assertEquals(0, nearCache.localSize());
+    verify(invalidator).publishClear("users");
+  }
+}
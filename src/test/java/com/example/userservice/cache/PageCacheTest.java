@@ -0,0 +1,144 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponseDTO;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class PageCacheTest {
+
+  private final ConcurrentMapCacheManager cacheManager =
+      new ConcurrentMapCacheManager(CacheNames.USER_PAGES, CacheNames.CARD_PAGES);
+
+  private PageCache pageCache;
+
+  @BeforeEach
+  void setUp() {
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getPages().setEndpoints(Set.of(PageCacheEndpoint.ALL_USERS));
+    properties.getPages().setMaxPageSize(50);
+    pageCache = new PageCache(cacheManager, properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(pageCache);
+  }
+
+  @Test
+  void lookup_ShouldReturnStoredPage_WhenFilterAndPageableMatch() {
+    // Arrange
+    Pageable pageable = PageRequest.of(1, 10, Sort.by("surname"));
+    pageCache.store(PageCacheEndpoint.ALL_USERS, pageable, page(pageable, 25), "Ivan", null, true);
+
+    // Act
+    Page<UserResponseDTO> hit =
+        pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, "Ivan", null, true);
+    Page<UserResponseDTO> otherFilter =
+        pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, "Petr", null, true);
+    Page<UserResponseDTO> otherSort =
+        pageCache.lookup(
+            PageCacheEndpoint.ALL_USERS, PageRequest.of(1, 10), "Ivan", null, true);
+
+    // Assert
+    assertNotNull(hit);
+    assertEquals(25, hit.getTotalElements());
+    assertEquals(1, hit.getContent().size());
+    assertNull(otherFilter);
+    assertNull(otherSort);
+  }
+
+  @Test
+  void lookup_ShouldMiss_WhenFilterValuesOnlyLookAlikeWhenJoined() {
+    // Arrange
+    Pageable pageable = PageRequest.of(0, 10);
+    pageCache.store(PageCacheEndpoint.ALL_USERS, pageable, page(pageable, 1), "a,b", "c", null);
+
+    // Act
+    Page<UserResponseDTO> shifted =
+        pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, "a", "b,c", null);
+    Page<UserResponseDTO> nullAsText =
+        pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, "a,b", "c", "null");
+
+    // Assert
+    assertNull(shifted);
+    assertNull(nullAsText);
+    assertNotNull(pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable, "a,b", "c", null));
+  }
+
+  @Test
+  void store_ShouldSkipPage_WhenEndpointNotOptedInOrPageTooLarge() {
+    // Arrange
+    Pageable small = PageRequest.of(0, 10);
+    Pageable large = PageRequest.of(0, 100);
+
+    // Act
+    pageCache.store(PageCacheEndpoint.ACTIVE_USERS, small, page(small, 1));
+    pageCache.store(PageCacheEndpoint.ALL_USERS, large, page(large, 1));
+
+    // Assert
+    assertNull(pageCache.lookup(PageCacheEndpoint.ACTIVE_USERS, small));
+    assertNull(pageCache.lookup(PageCacheEndpoint.ALL_USERS, large));
+  }
+
+  @Test
+  void invalidateAfterCommit_ShouldDropPagesOnlyAfterCommit() {
+    // Arrange
+    Pageable pageable = PageRequest.of(0, 10);
+    pageCache.store(PageCacheEndpoint.ALL_USERS, pageable, page(pageable, 1));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
+
+    // Assert
+    assertNotNull(pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable));
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    assertNull(pageCache.lookup(PageCacheEndpoint.ALL_USERS, pageable));
+  }
+
+  @Test
+  void lookupTotal_ShouldReturnStoredTotalUntilInvalidated_WhenEndpointNotOptedIn() {
+    // Arrange
+    pageCache.storeTotal(PageCacheEndpoint.ACTIVE_USERS, 42, "Ivan");
+
+    // Act
+    Long hit = pageCache.lookupTotal(PageCacheEndpoint.ACTIVE_USERS, "Ivan");
+    Long otherFilter = pageCache.lookupTotal(PageCacheEndpoint.ACTIVE_USERS, "Petr");
+    pageCache.invalidateAfterCommit(CacheNames.USER_PAGES);
+
+    // Assert
+    assertEquals(42L, hit);
+    assertNull(otherFilter);
+    assertNull(pageCache.lookupTotal(PageCacheEndpoint.ACTIVE_USERS, "Ivan"));
+  }
+
+  private static Page<UserResponseDTO> page(Pageable pageable, long total) {
+    return new PageImpl<>(List.of(new UserResponseDTO()), pageable, total);
+  }
+
+  private static void completeTransaction(int status) {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+  }
+}
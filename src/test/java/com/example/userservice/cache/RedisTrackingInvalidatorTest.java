@@ -0,0 +1,161 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+@Testcontainers
+@SuppressWarnings("resource")
+class RedisTrackingInvalidatorTest {
+
+  @Container
+  static GenericContainer<?> redisContainer =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private final RecordingTier usersTier = new RecordingTier();
+
+  private LettuceConnectionFactory connectionFactory;
+  private RedisTrackingInvalidator trackingInvalidator;
+
+  @AfterEach
+  void tearDown() {
+    if (trackingInvalidator != null) {
+      trackingInvalidator.stop();
+    }
+    if (connectionFactory != null) {
+      connectionFactory.destroy();
+    }
+  }
+
+  @Test
+  void onPushMessage_ShouldInvalidateLocalKey_WhenKeyChangedByAnotherClient() {
+    // Arrange
+    StringRedisTemplate template = start(ClientOptions.create());
+
+    // Act
+    template.opsForValue().set("user-service:users:v0::42", "value");
+
+    // Assert
+    assertTrue(trackingInvalidator.isLocalCachingAllowed());
+    assertTrue(awaitCondition(() -> usersTier.keys.contains("42")));
+  }
+
+  @Test
+  void onPushMessage_ShouldInvalidateAllUserViews_WhenUserHashChanged() {
+    // Arrange
+    StringRedisTemplate template = start(ClientOptions.create());
+
+    // Act
+    template.opsForHash().put("user-service:user::7", "users:v0", "value");
+
+    // Assert
+    assertTrue(awaitCondition(() -> usersTier.keys.contains("7")));
+  }
+
+  @Test
+  void onPushMessage_ShouldClearLocalTier_WhenGenerationAdvanced() {
+    // Arrange
+    StringRedisTemplate template = start(ClientOptions.create());
+
+    // Act
+    template.opsForValue().increment(CacheGenerations.KEY_PREFIX + "users");
+
+    // Assert
+    assertTrue(awaitCondition(() -> usersTier.clears.get() > 0));
+  }
+
+  @Test
+  void onPushMessage_ShouldIgnoreKeysOutsidePrefix() {
+    // Arrange
+    StringRedisTemplate template = start(ClientOptions.create());
+
+    // Act
+    template.opsForValue().set("other-service:users::1", "value");
+    template.opsForValue().set("user-service:users:v0::2", "value");
+
+    // Assert
+    assertTrue(awaitCondition(() -> usersTier.keys.contains("2")));
+    assertEquals(List.of("2"), List.copyOf(usersTier.keys));
+  }
+
+  @Test
+  void start_ShouldDisableLocalCaching_WhenResp3Unavailable() {
+    // Act
+    start(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+
+    // Assert
+    assertFalse(trackingInvalidator.isLocalCachingAllowed());
+  }
+
+  private StringRedisTemplate start(ClientOptions clientOptions) {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(
+                redisContainer.getHost(), redisContainer.getMappedPort(6379)),
+            LettuceClientConfiguration.builder().clientOptions(clientOptions).build());
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getNearCache().setInvalidationMode(UserCacheProperties.InvalidationMode.TRACKING);
+    NearCacheInvalidator invalidator =
+        new NearCacheInvalidator(template, new ObjectMapper(), properties);
+    invalidator.register(CacheNames.USERS, usersTier);
+    trackingInvalidator = new RedisTrackingInvalidator(connectionFactory, invalidator, properties);
+    trackingInvalidator.start();
+    return template;
+  }
+
+  private static boolean awaitCondition(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (System.currentTimeMillis() < deadline) {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return condition.getAsBoolean();
+  }
+
+  private static class RecordingTier implements LocalCacheTier {
+
+    private final List<String> keys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clears = new AtomicInteger();
+
+    @Override
+    public void invalidateLocal(Collection<String> invalidated) {
+      keys.addAll(invalidated);
+    }
+
+    @Override
+    public void clearLocal() {
+      clears.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.dto.UserResponseDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshAheadCacheTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private CacheGenerations generations;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final com.github.benmanes.caffeine.cache.Cache<String, Long> expiries =
+      Caffeine.newBuilder().build();
+
+  private ConcurrentMapCache remote;
+  private RefreshAheadCache cache;
+  private Function<Object, ?> reload;
+
+  @BeforeEach
+  void setUp() {
+    remote = new ConcurrentMapCache("users");
+    reload = key -> new UserResponseDTO();
+    // Фоновая перезагрузка выполняется в вызывающем потоке, TTL записей - 10 секунд
+    cache =
+        new RefreshAheadCache(
+            remote,
+            CacheRefreshLoader.of("users", key -> reload.apply(key)),
+            expiries,
+            0.2,
+            Runnable::run,
+            stringRedisTemplate,
+            generations,
+            meterRegistry) {
+          @Override
+          protected Duration redisTtl(Object key, Object value) {
+            return Duration.ofSeconds(10);
+          }
+        };
+  }
+
+  @Test
+  void get_ShouldReturnCachedValueAndReloadInBackground_WhenEntryNearExpiry() {
+    // Arrange
+    UserResponseDTO stale = new UserResponseDTO();
+    UserResponseDTO fresh = new UserResponseDTO();
+    remote.put(1L, stale);
+    expiries.put("1", System.currentTimeMillis() + 1_000);
+    reload = key -> fresh;
+
+    // Act
+    // Загрузчик вызывающего кода к моменту перезагрузки уже отработал и не должен вызываться снова
+    UserResponseDTO result =
+        cache.get(
+            1L,
+            () -> {
+              throw new IllegalStateException("Caller loader must not be replayed");
+            });
+
+    // Assert
+    assertSame(stale, result);
+    assertSame(fresh, remote.get(1L, UserResponseDTO.class));
+    assertEquals(1.0, refreshCount("success"));
+  }
+
+  @Test
+  void get_ShouldKeepCachedValue_WhenBackgroundReloadFails() {
+    // Arrange
+    UserResponseDTO stale = new UserResponseDTO();
+    remote.put(1L, stale);
+    expiries.put("1", System.currentTimeMillis() + 1_000);
+    reload =
+        key -> {
+          throw new IllegalStateException("Database unavailable");
+        };
+
+    // Act
+    UserResponseDTO result = cache.get(1L, UserResponseDTO::new);
+
+    // Assert
+    assertSame(stale, result);
+    assertSame(stale, remote.get(1L, UserResponseDTO.class));
+    assertEquals(1.0, refreshCount("failure"));
+  }
+
+  @Test
+  void get_ShouldNotReload_WhenEntryIsFresh() {
+    // Arrange
+    AtomicInteger loads = new AtomicInteger();
+    remote.put(1L, new UserResponseDTO());
+    expiries.put("1", System.currentTimeMillis() + 9_000);
+    reload =
+        key -> {
+          loads.incrementAndGet();
+          return new UserResponseDTO();
+        };
+
+    // Act
+    cache.get(1L, UserResponseDTO::new);
+
+    // Assert
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  void get_ShouldProbeUserHashKey_WhenBaseCacheIsUserHash() {
+    // Arrange
+    UserHashCache userHash = mock(UserHashCache.class);
+    when(userHash.getName()).thenReturn("users");
+    when(userHash.get(1L)).thenReturn(new SimpleValueWrapper(new UserResponseDTO()));
+    when(stringRedisTemplate.getExpire("user-service:user::1", TimeUnit.MILLISECONDS))
+        .thenReturn(5_000L);
+    RefreshAheadCache hashCache =
+        new RefreshAheadCache(
+            userHash,
+            CacheRefreshLoader.of("users", key -> new UserResponseDTO()),
+            expiries,
+            0.2,
+            Runnable::run,
+            stringRedisTemplate,
+            generations,
+            meterRegistry);
+
+    // Act
+    hashCache.get(1L, UserResponseDTO::new);
+
+    // Assert
+    assertNotNull(expiries.getIfPresent("1"));
+    verify(generations, never()).prefixFor("users");
+  }
+
+  @Test
+  void get_ShouldReloadInBackground_WhenEntryNearExpiryIsReadWithoutLoader() {
+    // Arrange
+    UserResponseDTO fresh = new UserResponseDTO();
+    remote.put(1L, new UserResponseDTO());
+    expiries.put("1", System.currentTimeMillis() + 1_000);
+    reload = key -> fresh;
+
+    // Act
+    cache.get(1L, UserResponseDTO.class);
+
+    // Assert
+    assertSame(fresh, remote.get(1L, UserResponseDTO.class));
+    assertEquals(1.0, refreshCount("success"));
+  }
+
+  private double refreshCount(String result) {
+    return meterRegistry.counter("cache.refresh.ahead", "cache", "users", "result", result).count();
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class SecondaryKeyCacheTest {
+
+  private static final String EMAIL = "test@example.com";
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private ConcurrentMapCacheManager cacheManager;
+  private SecondaryKeyCache secondaryKeyCache;
+
+  @BeforeEach
+  void setUp() {
+    cacheManager = new ConcurrentMapCacheManager();
+    secondaryKeyCache = new SecondaryKeyCache(cacheManager);
+  }
+
+  private Cache users() {
+    return cacheManager.getCache(CacheNames.USERS);
+  }
+
+  private String loadUser(Long id) {
+    loads.incrementAndGet();
+    return "user-" + id;
+  }
+
+  private String resolve() {
+    return secondaryKeyCache.resolve(
+        CacheNames.USER_IDS_BY_EMAIL, EMAIL, CacheNames.USERS, String.class, this::loadUser);
+  }
+
+  @Test
+  void resolve_ShouldLoadByIdAndFillPrimaryCache_WhenIndexHitsButPrimaryMisses() {
+    // Arrange
+    secondaryKeyCache.remember(CacheNames.USER_IDS_BY_EMAIL, EMAIL, CacheNames.USERS, 1L, null);
+
+    // Act
+    String first = resolve();
+    String second = resolve();
+
+    // Assert
+    assertEquals("user-1", first);
+    assertEquals("user-1", second);
+    assertEquals(1, loads.get());
+    assertEquals("user-1", users().get(1L, String.class));
+  }
+
+  @Test
+  void resolve_ShouldReadPrimaryCache_WhenBothCachesHit() {
+    // Arrange
+    secondaryKeyCache.remember(
+        CacheNames.USER_IDS_BY_EMAIL, EMAIL, CacheNames.USERS, 1L, "cached-user-1");
+
+    // Act
+    String result = resolve();
+
+    // Assert
+    assertEquals("cached-user-1", result);
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  void resolve_ShouldReturnNull_WhenIndexedRecordNoLongerExists() {
+    // Arrange
+    secondaryKeyCache.remember(CacheNames.USER_IDS_BY_EMAIL, EMAIL, CacheNames.USERS, 1L, null);
+
+    // Act
+    String result =
+        secondaryKeyCache.resolve(
+            CacheNames.USER_IDS_BY_EMAIL,
+            EMAIL,
+            CacheNames.USERS,
+            String.class,
+            id -> {
+              throw new IllegalStateException("deleted");
+            });
+
+    // Assert
+    assertNull(result);
+    assertNull(users().get(1L));
+  }
+
+  @Test
+  void resolve_ShouldReturnNull_WhenIndexMisses() {
+    // Act
+    String result = resolve();
+
+    // Assert
+    assertNull(result);
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  void remember_ShouldKeepNewerPrimaryValue_WhenAlreadyCached() {
+    // Arrange
+    users().put(1L, "updated-user-1");
+
+    // Act
+    secondaryKeyCache.remember(
+        CacheNames.USER_IDS_BY_EMAIL, EMAIL, CacheNames.USERS, 1L, "stale-user-1");
+
+    // Assert
+    assertEquals("updated-user-1", users().get(1L, String.class));
+    assertEquals(1L, cacheManager.getCache(CacheNames.USER_IDS_BY_EMAIL).get(EMAIL).get());
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightCacheTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private ValueOperations<String, String> valueOperations;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  private ConcurrentMapCache remote;
+  private SingleFlightCache cache;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    lenient()
+        .when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(true);
+    remote = new ConcurrentMapCache("users");
+    cache =
+        new SingleFlightCache(
+            remote,
+            stringRedisTemplate,
+            new CacheCircuitBreaker(new UserCacheProperties(), meterRegistry),
+            Duration.ofMillis(200),
+            Duration.ofMillis(10),
+            meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void get_ShouldRunLoaderOnce_WhenConcurrentMissesForSameKey() throws Exception {
+    // Arrange
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    UserResponseDTO user = new UserResponseDTO();
+
+    // Act
+    Future<UserResponseDTO> first =
+        executor.submit(
+            () ->
+                cache.get(
+                    1L,
+                    () -> {
+                      loads.incrementAndGet();
+                      release.await(5, TimeUnit.SECONDS);
+                      return user;
+                    }));
+    while (loads.get() == 0) {
+      Thread.sleep(5);
+    }
+    Future<UserResponseDTO> second =
+        executor.submit(
+            () ->
+                cache.get(
+                    1L,
+                    () -> {
+                      loads.incrementAndGet();
+                      return new UserResponseDTO();
+                    }));
+    while (meterRegistry.counter("cache.coalesced.waiters", "cache", "users", "scope", "local")
+            .count()
+        == 0) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    // Assert
+    assertSame(user, first.get(5, TimeUnit.SECONDS));
+    assertSame(user, second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+    assertSame(user, remote.get(1L, UserResponseDTO.class));
+  }
+
+  @Test
+  void get_ShouldWaitForRemoteLoad_WhenLeaseHeldByAnotherInstance() {
+    // Arrange
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(false);
+    lenient().when(stringRedisTemplate.hasKey("user-service:lease:users::1")).thenReturn(true);
+    UserResponseDTO user = new UserResponseDTO();
+    executor.submit(
+        () -> {
+          Thread.sleep(30);
+          remote.put(1L, user);
+          return null;
+        });
+
+    // Act
+    UserResponseDTO result =
+        cache.get(
+            1L,
+            () -> {
+              throw new IllegalStateException("loader must not run");
+            });
+
+    // Assert
+    assertSame(user, result);
+  }
+
+  @Test
+  void get_ShouldLoadLocallyWithoutWaitingForExpiry_WhenLeaseReleasedWithoutValue() {
+    // Arrange
+    when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenReturn(false);
+    when(stringRedisTemplate.hasKey("user-service:lease:users::1")).thenReturn(false);
+    SingleFlightCache longLease =
+        new SingleFlightCache(
+            remote,
+            stringRedisTemplate,
+            new CacheCircuitBreaker(new UserCacheProperties(), meterRegistry),
+            Duration.ofSeconds(30),
+            Duration.ofMillis(10),
+            meterRegistry);
+    UserResponseDTO user = new UserResponseDTO();
+
+    // Act
+    UserResponseDTO result =
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> longLease.get(1L, () -> user));
+
+    // Assert
+    assertSame(user, result);
+    assertSame(user, remote.get(1L, UserResponseDTO.class));
+  }
+
+  @Test
+  void get_ShouldPropagateLoaderFailure_AsValueRetrievalException() {
+    // Act & Assert
+    Cache.ValueRetrievalException ex =
+        assertThrows(
+            Cache.ValueRetrievalException.class,
+            () ->
+                cache.get(
+                    999L,
+                    () -> {
+                      throw new UserNotFoundException("User not found with id: 999");
+                    }));
+    assertEquals(UserNotFoundException.class, ex.getCause().getClass());
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class StatisticsCacheTest {
+
+  private Cache remote;
+  private CacheCounters counters;
+  private StatisticsCache statisticsCache;
+
+  @BeforeEach
+  void setUp() {
+    remote = spy(new ConcurrentMapCache("users"));
+    counters = new CacheCounters();
+    statisticsCache = new StatisticsCache(remote, counters);
+  }
+
+  @Test
+  void get_ShouldRecordMissAndLoad_WhenLoaderRuns() {
+    // Act
+    String result = statisticsCache.get(1L, () -> "user-1");
+
+    // Assert
+    assertEquals("user-1", result);
+    assertEquals(0, counters.hits());
+    assertEquals(1, counters.misses());
+    assertEquals(1, counters.loads());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldRecordHitWithoutWrappingLoader_WhenValueIsCached() {
+    // Arrange
+    remote.put(1L, "user-1");
+
+    // Act
+    String result = statisticsCache.get(1L, () -> "user-2");
+
+    // Assert
+    assertEquals("user-1", result);
+    assertEquals(1, counters.hits());
+    assertEquals(0, counters.misses());
+    assertEquals(0, counters.loads());
+    verify(remote, never()).get(eq(1L), any(Callable.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldRecordHit_WhenAnotherLoadServedTheValue() {
+    // Arrange
+    // Так ведёт себя SingleFlightCache для ожидающего: значение есть, свой загрузчик не вызван
+    Cache coalescing = mock(Cache.class);
+    when(coalescing.get(eq(1L), any(Callable.class))).thenReturn("user-1");
+    StatisticsCache cache = new StatisticsCache(coalescing, counters);
+
+    // Act
+    String result = cache.get(1L, () -> "user-2");
+
+    // Assert
+    assertEquals("user-1", result);
+    assertEquals(1, counters.hits());
+    assertEquals(0, counters.misses());
+  }
+
+  @Test
+  void get_ShouldRecordHitAndMiss_WhenReadWithoutLoader() {
+    // Arrange
+    remote.put(1L, "user-1");
+
+    // Act
+    statisticsCache.get(1L);
+    statisticsCache.get(2L);
+
+    // Assert
+    assertEquals(1, counters.hits());
+    assertEquals(1, counters.misses());
+  }
+}
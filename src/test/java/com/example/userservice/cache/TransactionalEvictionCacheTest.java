@@ -0,0 +1,136 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionalEvictionCacheTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private CacheGenerations generations;
+
+  @Mock private CacheStatistics statistics;
+
+  @Mock private NearCacheInvalidator invalidator;
+
+  @Mock private CacheCircuitBreaker circuitBreaker;
+
+  @Mock private OffHeapChangeLog changes;
+
+  private PostCommitEvictions evictions;
+  private ConcurrentMapCache remote;
+  private TransactionalEvictionCache cache;
+
+  @BeforeEach
+  void setUp() {
+    evictions =
+        new PostCommitEvictions(
+            stringRedisTemplate, generations, statistics, invalidator, circuitBreaker, changes);
+    remote = new ConcurrentMapCache("users");
+    cache = new TransactionalEvictionCache(remote, evictions);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(evictions);
+  }
+
+  @Test
+  void evict_ShouldRemoveEntryOnlyAfterCommit_WhenTransactionActive() {
+    // Arrange
+    remote.put(1L, "user-1");
+    remote.put(2L, "user-2");
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    cache.evict(1L);
+    boolean evictedImmediately = cache.evictIfPresent(2L);
+
+    // Assert
+    assertFalse(evictedImmediately);
+    assertNotNull(remote.get(1L));
+    assertNotNull(remote.get(2L));
+
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertNull(remote.get(1L));
+    assertNull(remote.get(2L));
+  }
+
+  @Test
+  void evict_ShouldKeepEntry_WhenTransactionRolledBack() {
+    // Arrange
+    remote.put(1L, "user-1");
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    cache.evict(1L);
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // Assert
+    assertNotNull(remote.get(1L));
+  }
+
+  @Test
+  void evictIfPresent_ShouldEvictImmediately_WhenNoTransaction() {
+    // Arrange
+    remote.put(1L, "user-1");
+
+    // Act
+    boolean evicted = cache.evictIfPresent(1L);
+
+    // Assert
+    assertTrue(evicted);
+    assertNull(remote.get(1L));
+  }
+
+  @Test
+  void evict_ShouldRemoveKeyFromEveryViewAfterCommit_WhenTransactionActive() {
+    // Arrange
+    ConcurrentMapCache cardsRemote = new ConcurrentMapCache("userCards");
+    TransactionalEvictionCache cards = new TransactionalEvictionCache(cardsRemote, evictions);
+    remote.put(1L, "user-1");
+    cardsRemote.put(1L, "cards-1");
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    evictions.evict(List.of(cache, cards), 1L);
+
+    // Assert
+    assertNotNull(remote.get(1L));
+    assertNotNull(cardsRemote.get(1L));
+
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertNull(remote.get(1L));
+    assertNull(cardsRemote.get(1L));
+  }
+
+  private static void completeTransaction(int status) {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+      synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+  }
+}
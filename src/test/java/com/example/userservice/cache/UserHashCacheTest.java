@@ -0,0 +1,132 @@
+package com.example.userservice.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.cache.codec.BinaryCacheValueSerializer;
+import com.example.userservice.config.RedisConfig;
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@ExtendWith(MockitoExtension.class)
+class UserHashCacheTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  @Mock private CacheGenerations generations;
+
+  private final BinaryCacheValueSerializer serializer =
+      new BinaryCacheValueSerializer(
+          new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper()));
+
+  private UserHashCache cache(String name) {
+    return new UserHashCache(
+        name,
+        stringRedisTemplate,
+        generations,
+        serializer,
+        new JitteredTtlFunction(Duration.ofHours(2), 0));
+  }
+
+  private static UserWithCardsResponseDTO userWithCards() {
+    PaymentCardResponseDTO card = new PaymentCardResponseDTO();
+    card.setId(7L);
+    card.setUserId(1L);
+    card.setNumber("4111111111111111");
+    UserWithCardsResponseDTO user = new UserWithCardsResponseDTO();
+    user.setId(1L);
+    user.setEmail("john@example.com");
+    user.setActive(true);
+    user.setPaymentCards(List.of(card));
+    return user;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldDeriveUserView_WhenOnlyUserWithCardsFieldPresent() {
+    // Arrange
+    when(stringRedisTemplate.execute(any(RedisCallback.class)))
+        .thenReturn(Arrays.asList(null, serializer.serialize(userWithCards())));
+
+    // Act
+    UserResponseDTO result = cache(CacheNames.USERS).get(1L, UserResponseDTO.class);
+
+    // Assert
+    assertEquals(1L, result.getId());
+    assertEquals("john@example.com", result.getEmail());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldDeriveCardsView_WhenOnlyUserWithCardsFieldPresent() {
+    // Arrange
+    when(stringRedisTemplate.execute(any(RedisCallback.class)))
+        .thenReturn(Arrays.asList(null, serializer.serialize(userWithCards())));
+
+    // Act
+    Object result = cache(CacheNames.USER_CARDS).get(1L).get();
+
+    // Assert
+    List<?> cards = assertInstanceOf(List.class, result);
+    assertEquals(7L, ((PaymentCardResponseDTO) cards.get(0)).getId());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void get_ShouldReturnNull_WhenHashMissing() {
+    // Arrange
+    when(stringRedisTemplate.execute(any(RedisCallback.class)))
+        .thenReturn(Arrays.asList(null, null));
+
+    // Act & Assert
+    assertNull(cache(CacheNames.USERS).get(1L));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void lookupAll_ShouldReadAllHashesInOnePipeline_WhenSomeKeysMissing() {
+    // Arrange
+    when(stringRedisTemplate.executePipelined(
+            any(RedisCallback.class), any(RedisSerializer.class)))
+        .thenReturn(
+            List.of(
+                Arrays.asList(null, serializer.serialize(userWithCards())),
+                Arrays.asList(null, null)));
+
+    // Act
+    Map<Object, Object> result = cache(CacheNames.USERS).lookupAll(List.of(1L, 2L));
+
+    // Assert
+    assertEquals(1L, ((UserResponseDTO) result.get(1L)).getId());
+    assertFalse(result.containsKey(2L));
+    verify(stringRedisTemplate)
+        .executePipelined(any(RedisCallback.class), any(RedisSerializer.class));
+  }
+
+  @Test
+  void evict_ShouldUnlinkWholeUserHash() {
+    // Act
+    cache(CacheNames.USER_CARDS).evict(1L);
+
+    // Assert
+    verify(stringRedisTemplate).unlink("user-service:user::1");
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.userservice.cache.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.userservice.config.RedisConfig;
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+class BinaryCacheValueSerializerTest {
+
+  private final RedisSerializer<Object> json =
+      new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper());
+  private final BinaryCacheValueSerializer serializer = new BinaryCacheValueSerializer(json);
+
+  static UserWithCardsResponseDTO userWithCards(int cardCount) {
+    UserWithCardsResponseDTO user = new UserWithCardsResponseDTO();
+    user.setId(42L);
+    user.setName("Иван");
+    user.setSurname("Petrov");
+    user.setBirthDate(LocalDate.of(1990, 5, 17));
+    user.setEmail("ivan.petrov@example.com");
+    user.setActive(true);
+    user.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_000));
+    user.setUpdatedAt(LocalDateTime.of(2024, 6, 7, 8, 9, 10));
+    List<PaymentCardResponseDTO> cards = new ArrayList<>();
+    for (int i = 0; i < cardCount; i++) {
+      PaymentCardResponseDTO card = new PaymentCardResponseDTO();
+      card.setId(100L + i);
+      card.setUserId(42L);
+      card.setNumber("411111111111111" + i);
+      card.setHolder("IVAN PETROV");
+      card.setExpirationDate(LocalDate.of(2030, 1, 1).plusMonths(i));
+      card.setActive(i % 2 == 0);
+      card.setCreatedAt(LocalDateTime.of(2024, 2, 1, 0, 0));
+      card.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 0, 0));
+      cards.add(card);
+    }
+    user.setPaymentCards(cards);
+    return user;
+  }
+
+  @Test
+  void serialize_ShouldRoundTripUserWithCards() {
+    // Arrange
+    UserWithCardsResponseDTO user = userWithCards(5);
+
+    // Act
+    byte[] bytes = serializer.serialize(user);
+    UserWithCardsResponseDTO result = (UserWithCardsResponseDTO) serializer.deserialize(bytes);
+
+    // Assert
+    assertEquals(BinaryCacheValueSerializer.FORMAT_V1, bytes[0]);
+    assertEquals("Иван", result.getName());
+    assertEquals(user.getBirthDate(), result.getBirthDate());
+    assertEquals(user.getCreatedAt(), result.getCreatedAt());
+    assertEquals(5, result.getPaymentCards().size());
+    assertEquals("4111111111111114", result.getPaymentCards().get(4).getNumber());
+    assertEquals(false, result.getPaymentCards().get(1).getActive());
+  }
+
+  @Test
+  void serialize_ShouldWriteJsonAndReadBinary_WhenBinaryWritesAreOff() {
+    // Arrange
+    BinaryCacheValueSerializer jsonWriter = new BinaryCacheValueSerializer(json, false);
+    UserWithCardsResponseDTO user = userWithCards(2);
+    byte[] binary = serializer.serialize(user);
+
+    // Act
+    byte[] written = jsonWriter.serialize(user);
+    UserWithCardsResponseDTO fromBinary = (UserWithCardsResponseDTO) jsonWriter.deserialize(binary);
+
+    // Assert
+    assertEquals('{', written[0]);
+    assertEquals("Иван", fromBinary.getName());
+    assertEquals(2, fromBinary.getPaymentCards().size());
+  }
+
+  @Test
+  void serialize_ShouldKeepNullFieldsAndEmptyCardList() {
+    // Arrange
+    UserWithCardsResponseDTO user = new UserWithCardsResponseDTO();
+    user.setId(1L);
+    user.setPaymentCards(List.of());
+
+    // Act
+    UserWithCardsResponseDTO result =
+        (UserWithCardsResponseDTO) serializer.deserialize(serializer.serialize(user));
+
+    // Assert
+    assertNull(result.getEmail());
+    assertNull(result.getCreatedAt());
+    assertTrue(result.getPaymentCards().isEmpty());
+  }
+
+  @Test
+  void serialize_ShouldRoundTripCardList() {
+    // Arrange
+    List<PaymentCardResponseDTO> cards = userWithCards(3).getPaymentCards();
+
+    // Act
+    Object result = serializer.deserialize(serializer.serialize(cards));
+
+    // Assert
+    assertInstanceOf(List.class, result);
+    assertEquals(3, ((List<?>) result).size());
+    assertEquals(101L, ((PaymentCardResponseDTO) ((List<?>) result).get(1)).getId());
+  }
+
+  @Test
+  void serialize_ShouldRoundTripSingleCard() {
+    // Arrange
+    PaymentCardResponseDTO card = userWithCards(1).getPaymentCards().get(0);
+
+    // Act
+    byte[] bytes = serializer.serialize(card);
+    PaymentCardResponseDTO result = (PaymentCardResponseDTO) serializer.deserialize(bytes);
+
+    // Assert
+    assertEquals(BinaryCacheValueSerializer.FORMAT_V1, bytes[0]);
+    assertEquals(card.getId(), result.getId());
+    assertEquals(card.getNumber(), result.getNumber());
+    assertEquals(card.getExpirationDate(), result.getExpirationDate());
+  }
+
+  @Test
+  void deserialize_ShouldReadLegacyJsonEntries() {
+    // Arrange
+    UserResponseDTO user = new UserResponseDTO();
+    user.setId(7L);
+    user.setEmail("legacy@example.com");
+    byte[] legacy = json.serialize(user);
+
+    // Act
+    Object result = serializer.deserialize(legacy);
+
+    // Assert
+    assertInstanceOf(UserResponseDTO.class, result);
+    assertEquals("legacy@example.com", ((UserResponseDTO) result).getEmail());
+  }
+}
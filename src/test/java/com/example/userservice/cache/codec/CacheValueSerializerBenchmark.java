@@ -0,0 +1,79 @@
+package com.example.userservice.cache.codec;
+
+import com.example.userservice.config.RedisConfig;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Сравнение JSON и бинарного формата значений кэша: время encode/decode и размер записи.
+ *
+ * <p>Запуск: {@code ./gradlew benchmark}. В обычный {@code test} не входит.
+ */
+@Tag("benchmark")
+class CacheValueSerializerBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int MEASURED_ITERATIONS = 100_000;
+
+  private static volatile long blackhole;
+
+  private final RedisSerializer<Object> json =
+      new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper());
+  private final RedisSerializer<Object> binary = new BinaryCacheValueSerializer(json);
+
+  @Test
+  void compareFormats() {
+    UserWithCardsResponseDTO userWithCards = BinaryCacheValueSerializerTest.userWithCards(5);
+    UserResponseDTO user = new UserResponseDTO();
+    user.setId(userWithCards.getId());
+    user.setName(userWithCards.getName());
+    user.setSurname(userWithCards.getSurname());
+    user.setBirthDate(userWithCards.getBirthDate());
+    user.setEmail(userWithCards.getEmail());
+    user.setActive(userWithCards.getActive());
+    user.setCreatedAt(userWithCards.getCreatedAt());
+    user.setUpdatedAt(userWithCards.getUpdatedAt());
+
+    List<Object> values = List.of(user, userWithCards, userWithCards.getPaymentCards());
+    List<String> names = List.of("UserResponseDTO", "UserWithCardsResponseDTO(5)", "userCards(5)");
+
+    System.out.printf(
+        "%-28s %-7s %8s %12s %12s%n", "value", "format", "bytes", "encode ns", "decode ns");
+    for (int i = 0; i < values.size(); i++) {
+      report(names.get(i), "json", json, values.get(i));
+      report(names.get(i), "binary", binary, values.get(i));
+    }
+  }
+
+  private static void report(
+      String name, String format, RedisSerializer<Object> serializer, Object value) {
+    byte[] bytes = serializer.serialize(value);
+    long sink = 0;
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sink += serializer.serialize(value).length;
+      sink += serializer.deserialize(bytes) != null ? 1 : 0;
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      sink += serializer.serialize(value).length;
+    }
+    long encodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+    start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      sink += serializer.deserialize(bytes) != null ? 1 : 0;
+    }
+    long decodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+    blackhole = sink;
+
+    System.out.printf(
+        "%-28s %-7s %8d %12d %12d%n", name, format, bytes.length, encodeNanos, decodeNanos);
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.userservice.cache.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.userservice.config.RedisConfig;
+import com.example.userservice.dto.UserWithCardsResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class CompressingCacheValueSerializerTest {
+
+  private final BinaryCacheValueSerializer binary =
+      new BinaryCacheValueSerializer(
+          new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper()));
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private CompressingCacheValueSerializer serializer(boolean compress, int thresholdBytes) {
+    return new CompressingCacheValueSerializer(
+        binary, compress, thresholdBytes, "usersWithCards", meterRegistry);
+  }
+
+  @Test
+  void serialize_ShouldCompressAndRoundTrip_WhenValueAboveThreshold() {
+    // Arrange
+    UserWithCardsResponseDTO user = BinaryCacheValueSerializerTest.userWithCards(5);
+    byte[] plain = binary.serialize(user);
+
+    // Act
+    byte[] bytes = serializer(true, 64).serialize(user);
+    Object result = serializer(true, 64).deserialize(bytes);
+
+    // Assert
+    assertEquals(CompressingCacheValueSerializer.FORMAT_COMPRESSED, bytes[0]);
+    assertTrue(bytes.length < plain.length);
+    assertArrayEquals(plain, binary.serialize(result));
+    assertEquals(
+        1, meterRegistry.summary("cache.compression.ratio", "cache", "usersWithCards").count());
+  }
+
+  @Test
+  void serialize_ShouldKeepValueAsIs_WhenBelowThreshold() {
+    // Arrange
+    UserWithCardsResponseDTO user = BinaryCacheValueSerializerTest.userWithCards(0);
+
+    // Act
+    byte[] bytes = serializer(true, 4096).serialize(user);
+
+    // Assert
+    assertArrayEquals(binary.serialize(user), bytes);
+  }
+
+  @Test
+  void deserialize_ShouldReadCompressedEntry_WhenCompressionDisabled() {
+    // Arrange
+    UserWithCardsResponseDTO user = BinaryCacheValueSerializerTest.userWithCards(5);
+    byte[] bytes = serializer(true, 0).serialize(user);
+
+    // Act
+    Object result = serializer(false, 0).deserialize(bytes);
+
+    // Assert
+    assertArrayEquals(binary.serialize(user), binary.serialize(result));
+  }
+
+  @Test
+  void deserialize_ShouldThrow_WhenCompressedEntryTruncated() {
+    // Arrange
+    byte[] bytes = serializer(true, 0).serialize(BinaryCacheValueSerializerTest.userWithCards(5));
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+    // Act & Assert
+    assertThrows(SerializationException.class, () -> serializer(true, 0).deserialize(truncated));
+  }
+}
@@ -14,6 +14,7 @@ public class TestCacheConfig {
   @Bean
   @Primary
   public CacheManager testCacheManager() {
-    return new ConcurrentMapCacheManager("users", "usersWithCards", "userCards");
+    return new ConcurrentMapCacheManager(
+        "users", "usersWithCards", "userCards", "cards", "userIdsByEmail", "cardIdsByNumber");
   }
 }
@@ -0,0 +1,105 @@
+package com.example.userservice.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.userservice.dto.UserRequestDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.CacheService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc
+class CacheControllerIntegrationTest extends AbstractIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private CacheService cacheService;
+
+  @Autowired private UserRepository userRepository;
+
+  @BeforeEach
+  void setUp() {
+    cacheService.evictAllUserCaches();
+    userRepository.deleteAll();
+  }
+
+  private Long createUser() throws Exception {
+    UserRequestDTO request = new UserRequestDTO();
+    request.setName("Cache");
+    request.setSurname("Stats");
+    request.setEmail("stats." + UUID.randomUUID().toString().substring(0, 8) + "@example.com");
+
+    String response =
+        mockMvc
+            .perform(
+                post("/api/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(response, UserResponseDTO.class).getId();
+  }
+
+  private JsonNode usersStats() throws Exception {
+    String response =
+        mockMvc
+            .perform(get("/api/cache/stats"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response).path("caches").path("users");
+  }
+
+  private static long delta(JsonNode before, JsonNode after, String field) {
+    return after.path(field).asLong() - before.path(field).asLong();
+  }
+
+  @Test
+  void getCacheStats_ShouldCountOneMissThenOneHit_WhenUserIsReadTwice() throws Exception {
+    // Arrange
+    Long userId = createUser();
+    cacheService.evictUserCaches(userId);
+    JsonNode before = usersStats();
+
+    // Act
+    mockMvc.perform(get("/api/users/{id}", userId)).andExpect(status().isOk());
+    mockMvc.perform(get("/api/users/{id}", userId)).andExpect(status().isOk());
+
+    // Assert
+    JsonNode after = usersStats();
+    assertEquals(1, delta(before, after, "misses"));
+    assertEquals(1, delta(before, after, "hits"));
+    assertEquals(1, delta(before, after, "loads"));
+  }
+
+  @Test
+  void getCacheStats_ShouldExposeKeyCountsAndPerCacheSnapshots() throws Exception {
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/cache/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.userCacheKeys").exists())
+        .andExpect(jsonPath("$.userWithCardsCacheKeys").exists())
+        .andExpect(jsonPath("$.userCardsCacheKeys").exists())
+        .andExpect(jsonPath("$.totalKeys").exists())
+        .andExpect(jsonPath("$.caches.users.cacheName").value("users"))
+        .andExpect(jsonPath("$.caches.users.hitRatio").exists());
+  }
+}
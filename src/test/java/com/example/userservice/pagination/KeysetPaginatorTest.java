@@ -0,0 +1,154 @@
+package com.example.userservice.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.userservice.dto.KeysetPageDTO;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+@ExtendWith(MockitoExtension.class)
+class KeysetPaginatorTest {
+
+  private static final Set<String> SORTABLE = Set.of("id", "surname");
+  private static final Specification<User> ALL = (root, query, criteriaBuilder) -> null;
+
+  @Mock private UserRepository userRepository;
+
+  private KeysetPaginator paginator;
+
+  @BeforeEach
+  void setUp() {
+    paginator = new KeysetPaginator(new ObjectMapper());
+  }
+
+  @Test
+  void page_ShouldReturnTokenAndTrimExtraRow_WhenMoreRowsExist() {
+    // Arrange
+    doReturn(List.of(user(1L, "Adams"), user(2L, "Brown"), user(3L, "Clark")))
+        .when(userRepository)
+        .findBy(any(Specification.class), any());
+
+    // Act
+    KeysetPageDTO<Long> page =
+        paginator.page(
+            userRepository,
+            ALL,
+            SORTABLE,
+            new KeysetRequest(Sort.by("surname"), 2, null),
+            User::getId,
+            "filter");
+
+    // Assert
+    assertEquals(List.of(1L, 2L), page.getContent());
+    assertTrue(page.isHasNext());
+    assertNotNull(page.getNextToken());
+  }
+
+  @Test
+  void page_ShouldAcceptOwnToken_WhenFiltersAreUnchanged() {
+    // Arrange
+    doReturn(List.of(user(1L, "Adams"), user(2L, "Brown")))
+        .doReturn(List.of(user(3L, "Clark")))
+        .when(userRepository)
+        .findBy(any(Specification.class), any());
+    String token =
+        paginator
+            .page(
+                userRepository,
+                ALL,
+                SORTABLE,
+                new KeysetRequest(Sort.by("surname"), 1, null),
+                User::getId,
+                "filter")
+            .getNextToken();
+
+    // Act
+    KeysetPageDTO<Long> page =
+        paginator.page(
+            userRepository,
+            ALL,
+            SORTABLE,
+            new KeysetRequest(Sort.unsorted(), 1, token),
+            User::getId,
+            "filter");
+
+    // Assert
+    assertEquals(List.of(3L), page.getContent());
+    assertFalse(page.isHasNext());
+    assertNull(page.getNextToken());
+  }
+
+  @Test
+  void page_ShouldRejectToken_WhenFiltersChanged() {
+    // Arrange
+    doReturn(List.of(user(1L, "Adams"), user(2L, "Brown")))
+        .when(userRepository)
+        .findBy(any(Specification.class), any());
+    String token =
+        paginator
+            .page(
+                userRepository,
+                ALL,
+                SORTABLE,
+                new KeysetRequest(Sort.by("surname"), 1, null),
+                User::getId,
+                "filter")
+            .getNextToken();
+    KeysetRequest request = new KeysetRequest(Sort.unsorted(), 1, token);
+
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> paginator.page(userRepository, ALL, SORTABLE, request, User::getId, "other"));
+  }
+
+  @Test
+  void page_ShouldRejectUnsupportedSort_WithoutQuerying() {
+    // Arrange
+    KeysetRequest request = new KeysetRequest(Sort.by("email"), 10, null);
+
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> paginator.page(userRepository, ALL, SORTABLE, request, User::getId));
+    verify(userRepository, never()).findBy(any(Specification.class), any());
+  }
+
+  @Test
+  void page_ShouldRejectMalformedToken() {
+    // Arrange
+    KeysetRequest request = new KeysetRequest(Sort.unsorted(), 10, "not-a-token");
+
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> paginator.page(userRepository, ALL, SORTABLE, request, User::getId));
+  }
+
+  private static User user(Long id, String surname) {
+    User user = new User();
+    user.setId(id);
+    user.setName("Name" + id);
+    user.setSurname(surname);
+    return user;
+  }
+}
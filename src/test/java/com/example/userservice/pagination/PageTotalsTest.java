@@ -0,0 +1,104 @@
+package com.example.userservice.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.PageCacheEndpoint;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class PageTotalsTest {
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private PageCache pageCache;
+
+  @InjectMocks private PageTotals pageTotals;
+
+  @Test
+  void total_ShouldUsePlannerEstimate_WhenQueryIsUnfiltered() {
+    // Arrange
+    AtomicInteger counts = new AtomicInteger();
+    when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("users")))
+        .thenReturn(100_000L);
+
+    // Act
+    long total = pageTotals.total(PageCacheEndpoint.ALL_USERS, "users", counts::incrementAndGet);
+
+    // Assert
+    assertEquals(100_000L, total);
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void total_ShouldCountOnceAndCache_WhenQueryIsFiltered() {
+    // Arrange
+    when(pageCache.lookupTotal(PageCacheEndpoint.ALL_USERS, "Ivan", null, true)).thenReturn(null);
+
+    // Act
+    long total = pageTotals.total(PageCacheEndpoint.ALL_USERS, null, () -> 7L, "Ivan", null, true);
+
+    // Assert
+    assertEquals(7L, total);
+    verify(pageCache).storeTotal(PageCacheEndpoint.ALL_USERS, 7L, "Ivan", null, true);
+  }
+
+  @Test
+  void total_ShouldReturnCachedTotal_WithoutCounting() {
+    // Arrange
+    when(pageCache.lookupTotal(PageCacheEndpoint.ACTIVE_CARDS)).thenReturn(12L);
+
+    // Act
+    long total =
+        pageTotals.total(
+            PageCacheEndpoint.ACTIVE_CARDS,
+            null,
+            () -> {
+              throw new AssertionError("count must not run");
+            });
+
+    // Assert
+    assertEquals(12L, total);
+    verify(pageCache, never()).storeTotal(eq(PageCacheEndpoint.ACTIVE_CARDS), anyLong());
+  }
+
+  @Test
+  void total_ShouldFallBackToCount_WhenTableWasNeverAnalyzed() {
+    // Arrange
+    when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("payment_cards")))
+        .thenReturn(-1L);
+    when(pageCache.lookupTotal(PageCacheEndpoint.ALL_CARDS)).thenReturn(null);
+
+    // Act
+    long total = pageTotals.total(PageCacheEndpoint.ALL_CARDS, "payment_cards", () -> 3L);
+
+    // Assert
+    assertEquals(3L, total);
+  }
+
+  @Test
+  void estimateRows_ShouldReturnMinusOne_WhenStatisticsUnavailable() {
+    // Arrange
+    when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("users")))
+        .thenThrow(new DataAccessResourceFailureException("no pg_class"));
+
+    // Act
+    long estimate = pageTotals.estimateRows("users");
+
+    // Assert
+    assertEquals(-1L, estimate);
+  }
+}
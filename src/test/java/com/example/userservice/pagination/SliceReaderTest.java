@@ -0,0 +1,160 @@
+package com.example.userservice.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+@ExtendWith(MockitoExtension.class)
+class SliceReaderTest {
+
+  private static final Specification<User> ALL = (root, query, criteriaBuilder) -> null;
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private CriteriaBuilder criteriaBuilder;
+
+  @Mock private CriteriaQuery<User> criteriaQuery;
+
+  @Mock private Root<User> root;
+
+  @Mock private TypedQuery<User> typedQuery;
+
+  @InjectMocks private SliceReader sliceReader;
+
+  private final AtomicInteger counts = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
+    when(criteriaBuilder.createQuery(User.class)).thenReturn(criteriaQuery);
+    when(criteriaQuery.from(User.class)).thenReturn(root);
+    when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
+  }
+
+  private static List<User> users(int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      users.add(new User());
+    }
+    return users;
+  }
+
+  private long count() {
+    counts.incrementAndGet();
+    return 42L;
+  }
+
+  @Test
+  void slice_ShouldFetchOneExtraRowAndTrimIt_WhenMoreRowsExist() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(3));
+
+    // Act
+    Slice<User> slice = sliceReader.slice(User.class, ALL, PageRequest.of(1, 2));
+
+    // Assert
+    assertEquals(2, slice.getNumberOfElements());
+    assertTrue(slice.hasNext());
+    verify(typedQuery).setFirstResult(2);
+    verify(typedQuery).setMaxResults(3);
+  }
+
+  @Test
+  void read_ShouldReturnSliceWithoutCounting_WhenModeIsNone() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(3));
+
+    // Act
+    Slice<User> result =
+        sliceReader.read(User.class, ALL, PageRequest.of(0, 2), TotalMode.NONE, this::count);
+
+    // Assert
+    assertFalse(result instanceof Page);
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void read_ShouldDeriveTotalWithoutCounting_WhenLastPageIsExactlyFull() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(2));
+
+    // Act
+    Slice<User> result =
+        sliceReader.read(User.class, ALL, PageRequest.of(1, 2), TotalMode.ESTIMATED, this::count);
+
+    // Assert
+    Page<User> page = assertInstanceOf(Page.class, result);
+    assertEquals(4L, page.getTotalElements());
+    assertFalse(page.hasNext());
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void read_ShouldDeriveTotalWithoutCounting_WhenLastPageIsShort() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(1));
+
+    // Act
+    Slice<User> result =
+        sliceReader.read(User.class, ALL, PageRequest.of(2, 2), TotalMode.ESTIMATED, this::count);
+
+    // Assert
+    Page<User> page = assertInstanceOf(Page.class, result);
+    assertEquals(5L, page.getTotalElements());
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void read_ShouldUseTotalSupplier_WhenOffsetIsPastLastRow() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(0));
+
+    // Act
+    Slice<User> result =
+        sliceReader.read(User.class, ALL, PageRequest.of(5, 2), TotalMode.ESTIMATED, this::count);
+
+    // Assert
+    Page<User> page = assertInstanceOf(Page.class, result);
+    assertTrue(page.getContent().isEmpty());
+    assertEquals(42L, page.getTotalElements());
+    assertEquals(1, counts.get());
+  }
+
+  @Test
+  void read_ShouldReturnZeroTotalWithoutCounting_WhenFirstPageIsEmpty() {
+    // Arrange
+    when(typedQuery.getResultList()).thenReturn(users(0));
+
+    // Act
+    Slice<User> result =
+        sliceReader.read(User.class, ALL, PageRequest.of(0, 2), TotalMode.ESTIMATED, this::count);
+
+    // Assert
+    Page<User> page = assertInstanceOf(Page.class, result);
+    assertEquals(0L, page.getTotalElements());
+    assertEquals(0, counts.get());
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.userservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.userservice.cache.CacheGenerations;
+import com.example.userservice.cache.CacheKeyScanner;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.CachePurger;
+import com.example.userservice.cache.CacheStatistics;
+import com.example.userservice.cache.NearCacheInvalidator;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PostCommitEvictions;
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.exception.CacheKeyScanRateLimitedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class CacheServiceTest {
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private CacheStatistics cacheStatistics;
+
+  @Mock private CacheGenerations cacheGenerations;
+
+  @Mock private CachePurger cachePurger;
+
+  @Mock private NegativeCache negativeCache;
+
+  @Mock private CacheKeyScanner cacheKeyScanner;
+
+  @Mock private NearCacheInvalidator nearCacheInvalidator;
+
+  @Mock private PostCommitEvictions postCommitEvictions;
+
+  @Mock private ThreadPoolTaskExecutor cacheMaintenanceExecutor;
+
+  private final UserCacheProperties properties = new UserCacheProperties();
+
+  private CacheService cacheService;
+
+  @BeforeEach
+  void setUp() {
+    cacheService =
+        new CacheService(
+            cacheManager,
+            cacheStatistics,
+            cacheGenerations,
+            properties,
+            cachePurger,
+            negativeCache,
+            cacheKeyScanner,
+            nearCacheInvalidator,
+            postCommitEvictions,
+            cacheMaintenanceExecutor);
+  }
+
+  @Test
+  void getCacheKeys_ShouldRejectPage_WhenPagesPerSecondExceeded() {
+    // Arrange
+    properties.getStats().setMaxKeyPagesPerSecond(2);
+    cacheService.getCacheKeys(CacheNames.USERS, "0", null, 100);
+    cacheService.getCacheKeys(CacheNames.USERS, "0", null, 100);
+
+    // Act & Assert
+    assertThrows(
+        CacheKeyScanRateLimitedException.class,
+        () -> cacheService.getCacheKeys(CacheNames.USERS, "0", null, 100));
+    verify(cacheKeyScanner, times(2)).page(CacheNames.USERS, "0", null, 100);
+  }
+
+  @Test
+  void getCacheKeys_ShouldNotLimitPages_WhenLimitDisabled() {
+    // Arrange
+    properties.getStats().setMaxKeyPagesPerSecond(0);
+
+    // Act
+    for (int i = 0; i < 10; i++) {
+      cacheService.getCacheKeys(CacheNames.USERS, "0", null, 100);
+    }
+
+    // Assert
+    verify(cacheKeyScanner, times(10)).page(CacheNames.USERS, "0", null, 100);
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.userservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.cache.CacheBatchOperations;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.HotKeyRecorder;
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmUpTest {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private UserMapper userMapper;
+
+  @Mock private PaymentCardMapper paymentCardMapper;
+
+  @Mock private CacheBatchOperations cacheBatchOperations;
+
+  @Mock private HotKeyRecorder hotKeyRecorder;
+
+  private final UserCacheProperties properties = new UserCacheProperties();
+
+  private CacheWarmUp warmUp;
+
+  @BeforeEach
+  void setUp() {
+    warmUp =
+        new CacheWarmUp(
+            userRepository,
+            userMapper,
+            paymentCardMapper,
+            cacheBatchOperations,
+            hotKeyRecorder,
+            properties);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void run_ShouldPopulateUserCachesInBatches_WhenHotKeysRecorded() {
+    // Arrange
+    properties.getWarmUp().setBatchSize(2);
+    when(hotKeyRecorder.hotKeys(10_000)).thenReturn(List.of("1", "2", "not-a-key", "3"));
+    User first = new User();
+    first.setId(1L);
+    User second = new User();
+    second.setId(2L);
+    User third = new User();
+    third.setId(3L);
+    when(userRepository.findAllByIdWithCards(List.of(1L, 2L))).thenReturn(List.of(first, second));
+    when(userRepository.findAllByIdWithCards(List.of(3L))).thenReturn(List.of(third));
+    when(userMapper.toDTO(any(User.class))).thenReturn(new UserResponseDTO());
+
+    // Act
+    warmUp.run(null);
+
+    // Assert
+    ArgumentCaptor<Map<Long, UserResponseDTO>> users = ArgumentCaptor.forClass(Map.class);
+    verify(cacheBatchOperations, times(2))
+        .putAllIfAbsent(eq(CacheNames.USERS), users.capture());
+    assertEquals(3, users.getAllValues().stream().mapToInt(Map::size).sum());
+    verify(cacheBatchOperations, times(2))
+        .putAllIfAbsent(eq(CacheNames.USERS_WITH_CARDS), anyMap());
+    verify(cacheBatchOperations, never()).putAll(any(), anyMap());
+  }
+
+  @Test
+  void run_ShouldSkipWarmUp_WhenDisabled() {
+    // Arrange
+    properties.getWarmUp().setEnabled(false);
+
+    // Act
+    warmUp.run(null);
+
+    // Assert
+    verify(hotKeyRecorder, never()).hotKeys(anyInt());
+    verify(cacheBatchOperations, never()).putAllIfAbsent(any(), anyMap());
+  }
+}
@@ -11,6 +11,11 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.PageCacheEndpoint;
+import com.example.userservice.cache.SecondaryKeyCache;
 import com.example.userservice.dto.PaymentCardRequestDTO;
 import com.example.userservice.dto.PaymentCardResponseDTO;
 import com.example.userservice.entity.PaymentCard;
@@ -32,6 +37,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -44,7 +50,13 @@ class PaymentCardServiceTest {
 
   @Mock private PaymentCardMapper paymentCardMapper;
 
-  @Mock private CacheService cacheService;
+  @Mock private NegativeCache negativeCache;
+
+  @Mock private UserCacheWriter userCacheWriter;
+
+  @Mock private SecondaryKeyCache secondaryKeyCache;
+
+  @Mock private PageCache pageCache;
 
   @InjectMocks private PaymentCardService paymentCardService;
 
@@ -109,6 +121,8 @@ class PaymentCardServiceTest {
     verify(userService).getUserEntityById(userId);
     verify(paymentCardRepository).countCardsByUserId(userId);
     verify(paymentCardRepository).save(testCard);
+    verify(negativeCache).forget(NegativeCache.CARD, testCard.getId());
+    verify(negativeCache).forget(NegativeCache.CARD_NUMBER, testCard.getNumber());
   }
 
   @Test
@@ -250,7 +264,7 @@ class PaymentCardServiceTest {
 
     // Assert
     verify(paymentCardRepository).updateActiveStatus(cardId, true);
-    verify(cacheService).evictUserCaches(testUser.getId());
+    verify(userCacheWriter).refreshAfterCommit(testUser.getId());
   }
 
   @Test
@@ -283,7 +297,7 @@ class PaymentCardServiceTest {
 
     // Assert
     verify(paymentCardRepository).updateActiveStatus(cardId, false);
-    verify(cacheService).evictUserCaches(testUser.getId());
+    verify(userCacheWriter).refreshAfterCommit(testUser.getId());
   }
 
   @Test
@@ -298,7 +312,7 @@ class PaymentCardServiceTest {
 
     // Assert
     verify(paymentCardRepository).deleteById(cardId);
-    verify(cacheService).evictUserCaches(testUser.getId());
+    verify(userCacheWriter).refreshAfterCommit(testUser.getId());
   }
 
   @Test
@@ -310,7 +324,7 @@ class PaymentCardServiceTest {
     // Act & Assert
     assertThrows(PaymentCardNotFoundException.class, () -> paymentCardService.deleteCard(cardId));
     verify(paymentCardRepository, never()).deleteById(anyLong());
-    verify(cacheService, never()).evictUserCaches(anyLong());
+    verify(userCacheWriter, never()).refreshAfterCommit(anyLong());
   }
 
   @Test
@@ -328,6 +342,55 @@ class PaymentCardServiceTest {
     assertNotNull(result);
     assertEquals(cardNumber, result.getNumber());
     verify(paymentCardRepository).findByNumber(cardNumber);
+    verify(secondaryKeyCache)
+        .remember(
+            CacheNames.CARD_IDS_BY_NUMBER,
+            cardNumber,
+            CacheNames.CARDS,
+            1L,
+            testCardResponseDTO);
+  }
+
+  @Test
+  void getCardByNumber_ShouldNotQueryDatabase_WhenResolvedFromSecondaryKeyCache() {
+    // Arrange
+    String cardNumber = "4111111111111111";
+    when(secondaryKeyCache.resolve(
+            eq(CacheNames.CARD_IDS_BY_NUMBER),
+            eq(cardNumber),
+            eq(CacheNames.CARDS),
+            eq(PaymentCardResponseDTO.class),
+            any()))
+        .thenReturn(testCardResponseDTO);
+
+    // Act
+    PaymentCardResponseDTO result = paymentCardService.getCardByNumber(cardNumber);
+
+    // Assert
+    assertEquals(testCardResponseDTO, result);
+    verify(paymentCardRepository, never()).findByNumber(anyString());
+  }
+
+  @Test
+  void updateCard_ShouldForgetOldAndNewNumbers_WhenNumberChanged() {
+    // Arrange
+    Long cardId = 1L;
+    PaymentCardRequestDTO updateRequest = new PaymentCardRequestDTO();
+    updateRequest.setNumber("5111111111111111");
+    updateRequest.setHolder("TEST HOLDER");
+    updateRequest.setExpirationDate(LocalDate.now().plusYears(3));
+
+    when(paymentCardRepository.findById(cardId)).thenReturn(Optional.of(testCard));
+    when(paymentCardRepository.findByNumber(anyString())).thenReturn(Optional.empty());
+    when(paymentCardRepository.save(any(PaymentCard.class))).thenReturn(testCard);
+    when(paymentCardMapper.toDTO(any(PaymentCard.class))).thenReturn(testCardResponseDTO);
+
+    // Act
+    paymentCardService.updateCard(cardId, updateRequest);
+
+    // Assert
+    verify(secondaryKeyCache)
+        .forget(CacheNames.CARD_IDS_BY_NUMBER, "4111111111111111", "5111111111111111");
   }
 
   @Test
@@ -339,6 +402,18 @@ class PaymentCardServiceTest {
     // Act & Assert
     assertThrows(
         PaymentCardNotFoundException.class, () -> paymentCardService.getCardByNumber(cardNumber));
+    verify(negativeCache).markMissing(NegativeCache.CARD_NUMBER, cardNumber);
+  }
+
+  @Test
+  void getCardById_ShouldNotQueryDatabase_WhenTombstoneExists() {
+    // Arrange
+    Long cardId = 999L;
+    when(negativeCache.isMissing(NegativeCache.CARD, cardId)).thenReturn(true);
+
+    // Act & Assert
+    assertThrows(PaymentCardNotFoundException.class, () -> paymentCardService.getCardById(cardId));
+    verify(paymentCardRepository, never()).findById(anyLong());
   }
 
   @Test
@@ -417,6 +492,22 @@ class PaymentCardServiceTest {
     verify(paymentCardRepository).findByActiveTrue(pageable);
   }
 
+  @Test
+  void getActiveCards_ShouldNotQueryDatabase_WhenPageCached() {
+    // Arrange
+    Pageable pageable = PageRequest.of(0, 20);
+    Page<PaymentCardResponseDTO> cached = new PageImpl<>(List.of(testCardResponseDTO), pageable, 1);
+    when(pageCache.<PaymentCardResponseDTO>lookup(PageCacheEndpoint.ACTIVE_CARDS, pageable))
+        .thenReturn(cached);
+
+    // Act
+    Page<PaymentCardResponseDTO> result = paymentCardService.getActiveCards(pageable);
+
+    // Assert
+    assertEquals(cached, result);
+    verify(paymentCardRepository, never()).findByActiveTrue(any(Pageable.class));
+  }
+
   @Test
   void updateCard_ShouldNotThrowException_WhenNumberNotChanged() {
     // Arrange
@@ -0,0 +1,150 @@
+package com.example.userservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.userservice.config.UserCacheProperties;
+import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserResponseDTO;
+import com.example.userservice.entity.PaymentCard;
+import com.example.userservice.entity.User;
+import com.example.userservice.mapper.PaymentCardMapper;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheWriterTest {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private UserMapper userMapper;
+
+  @Mock private PaymentCardMapper paymentCardMapper;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final ConcurrentMapCacheManager cacheManager =
+      new ConcurrentMapCacheManager("users", "usersWithCards", "userCards");
+
+  private UserCacheWriter userCacheWriter;
+
+  @BeforeEach
+  void setUp() {
+    userCacheWriter =
+        new UserCacheWriter(
+            cacheManager,
+            userRepository,
+            userMapper,
+            paymentCardMapper,
+            transactionManager,
+            new UserCacheProperties());
+    lenient().when(userMapper.toDTO(any(User.class))).thenReturn(new UserResponseDTO());
+    lenient()
+        .when(paymentCardMapper.toDTO(any(PaymentCard.class)))
+        .thenReturn(new PaymentCardResponseDTO());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(userCacheWriter);
+  }
+
+  @Test
+  void refreshAfterCommit_ShouldRebuildUserOnce_WhenSeveralChangesInTransaction() {
+    // Arrange
+    when(userRepository.findByIdWithCards(1L)).thenReturn(Optional.of(userWithCards(1L, 2)));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    userCacheWriter.refreshAfterCommit(1L);
+    userCacheWriter.refreshAfterCommit(1L);
+    userCacheWriter.refreshAfterCommit(1L);
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+    // Assert
+    verify(userRepository, times(1)).findByIdWithCards(1L);
+    assertNotNull(cacheManager.getCache("users").get(1L));
+    assertNotNull(cacheManager.getCache("usersWithCards").get(1L));
+    assertEquals(2, ((List<?>) cacheManager.getCache("userCards").get(1L).get()).size());
+  }
+
+  @Test
+  void refreshAfterCommit_ShouldNotTouchCaches_WhenTransactionRolledBack() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    userCacheWriter.refreshAfterCommit(1L);
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // Assert
+    verify(userRepository, times(0)).findByIdWithCards(1L);
+    assertNull(cacheManager.getCache("users").get(1L));
+  }
+
+  @Test
+  void refreshAfterCommit_ShouldEvictUserViews_WhenWriteThroughDisabled() {
+    // Arrange
+    UserCacheProperties properties = new UserCacheProperties();
+    properties.getWriteThrough().setEnabled(false);
+    UserCacheWriter evictingWriter =
+        new UserCacheWriter(
+            cacheManager,
+            userRepository,
+            userMapper,
+            paymentCardMapper,
+            transactionManager,
+            properties);
+    cacheManager.getCache("users").put(1L, new UserResponseDTO());
+    cacheManager.getCache("userCards").put(1L, List.of());
+
+    // Act
+    evictingWriter.refreshAfterCommit(1L);
+
+    // Assert
+    verify(userRepository, times(0)).findByIdWithCards(1L);
+    assertNull(cacheManager.getCache("users").get(1L));
+    assertNull(cacheManager.getCache("userCards").get(1L));
+  }
+
+  private static void completeTransaction(int status) {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+  }
+
+  private static User userWithCards(Long id, int cards) {
+    User user = new User();
+    user.setId(id);
+    user.setPaymentCards(new ArrayList<>());
+    for (int i = 0; i < cards; i++) {
+      PaymentCard card = new PaymentCard();
+      card.setUser(user);
+      user.getPaymentCards().add(card);
+    }
+    return user;
+  }
+}
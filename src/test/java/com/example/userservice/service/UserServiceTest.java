@@ -1,6 +1,7 @@
 package com.example.userservice.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -14,7 +15,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.userservice.cache.CacheBatchOperations;
+import com.example.userservice.cache.CacheNames;
+import com.example.userservice.cache.NegativeCache;
+import com.example.userservice.cache.PageCache;
+import com.example.userservice.cache.SecondaryKeyCache;
 import com.example.userservice.dto.PaymentCardResponseDTO;
+import com.example.userservice.dto.UserBatchResponseDTO;
 import com.example.userservice.dto.UserRequestDTO;
 import com.example.userservice.dto.UserResponseDTO;
 import com.example.userservice.dto.UserWithCardsResponseDTO;
@@ -29,7 +36,9 @@ import com.example.userservice.repository.UserRepository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -52,6 +61,18 @@ class UserServiceTest {
 
   @Mock private PaymentCardMapper paymentCardMapper;
 
+  @Mock private NegativeCache negativeCache;
+
+  @Mock private UserCacheWriter userCacheWriter;
+
+  @Mock private CacheBatchOperations cacheBatchOperations;
+
+  @Mock private SecondaryKeyCache secondaryKeyCache;
+
+  @Mock private CacheService cacheService;
+
+  @Mock private PageCache pageCache;
+
   @InjectMocks private UserService userService;
 
   @Test
@@ -78,6 +99,7 @@ class UserServiceTest {
     // Assert
     assertNotNull(result);
     assertEquals(1L, result.getId());
+    verify(negativeCache).forget(NegativeCache.USER, 1L);
     verify(userRepository).existsByEmail("test@example.com");
     verify(userRepository).save(user);
   }
@@ -124,6 +146,18 @@ class UserServiceTest {
 
     // Act & Assert
     assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
+    verify(negativeCache).markMissing(NegativeCache.USER, userId);
+  }
+
+  @Test
+  void getUserById_ShouldNotQueryDatabase_WhenTombstoneExists() {
+    // Arrange
+    Long userId = 999L;
+    when(negativeCache.isMissing(NegativeCache.USER, userId)).thenReturn(true);
+
+    // Act & Assert
+    assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
+    verify(userRepository, never()).findById(anyLong());
   }
 
   @Test
@@ -214,6 +248,7 @@ class UserServiceTest {
     assertEquals("Updated", result.getName());
     verify(userRepository).findById(userId);
     verify(userRepository).save(existingUser);
+    verify(userCacheWriter).refreshAfterCommit(userId);
   }
 
   @Test
@@ -228,6 +263,7 @@ class UserServiceTest {
     // Assert
     verify(userRepository).existsById(userId);
     verify(userRepository).updateActiveStatus(userId, true);
+    verify(userCacheWriter).refreshAfterCommit(userId);
   }
 
   @Test
@@ -377,6 +413,30 @@ class UserServiceTest {
     verify(userRepository, never()).save(any(User.class));
   }
 
+  @Test
+  void updateUser_ShouldForgetOldAndNewEmails_WhenEmailChanged() {
+    // Arrange
+    Long userId = 1L;
+    UserRequestDTO requestDTO = new UserRequestDTO();
+    requestDTO.setEmail("new@example.com");
+
+    User existingUser = new User();
+    existingUser.setId(userId);
+    existingUser.setEmail("old@example.com");
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+    when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+    when(userRepository.save(any(User.class))).thenReturn(existingUser);
+    when(userMapper.toDTO(any(User.class))).thenReturn(new UserResponseDTO());
+
+    // Act
+    userService.updateUser(userId, requestDTO);
+
+    // Assert
+    verify(secondaryKeyCache)
+        .forget(CacheNames.USER_IDS_BY_EMAIL, "old@example.com", "new@example.com");
+  }
+
   @Test
   void updateUser_ShouldNotThrowException_WhenEmailNotChanged() {
     // Arrange
@@ -499,6 +559,56 @@ class UserServiceTest {
     assertTrue(result.isPresent());
     assertEquals(email, result.get().getEmail());
     verify(userRepository).findByEmail(email);
+    verify(secondaryKeyCache)
+        .remember(CacheNames.USER_IDS_BY_EMAIL, email, CacheNames.USERS, 1L, responseDTO);
+  }
+
+  @Test
+  void getUserByEmail_ShouldNotQueryDatabase_WhenResolvedFromSecondaryKeyCache() {
+    // Arrange
+    String email = "test@example.com";
+    UserResponseDTO cached = new UserResponseDTO();
+    cached.setId(1L);
+    cached.setEmail(email);
+    when(secondaryKeyCache.resolve(
+            eq(CacheNames.USER_IDS_BY_EMAIL),
+            eq(email),
+            eq(CacheNames.USERS),
+            eq(UserResponseDTO.class),
+            any()))
+        .thenReturn(cached);
+
+    // Act
+    Optional<UserResponseDTO> result = userService.getUserByEmail(email);
+
+    // Assert
+    assertTrue(result.isPresent());
+    assertEquals(1L, result.get().getId());
+    verify(userRepository, never()).findByEmail(anyString());
+  }
+
+  @Test
+  void getUserByEmail_ShouldQueryDatabase_WhenCachedUserHasDifferentEmail() {
+    // Arrange
+    String email = "test@example.com";
+    UserResponseDTO stale = new UserResponseDTO();
+    stale.setId(1L);
+    stale.setEmail("changed@example.com");
+    when(secondaryKeyCache.resolve(
+            eq(CacheNames.USER_IDS_BY_EMAIL),
+            eq(email),
+            eq(CacheNames.USERS),
+            eq(UserResponseDTO.class),
+            any()))
+        .thenReturn(stale);
+    when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+
+    // Act
+    Optional<UserResponseDTO> result = userService.getUserByEmail(email);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    verify(userRepository).findByEmail(email);
   }
 
   @Test
@@ -535,4 +645,38 @@ class UserServiceTest {
     assertEquals(1, result.getTotalElements());
     verify(userRepository).findByActiveTrue(pageable);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void getUsersByIds_ShouldLoadOnlyMissesAndKeepRequestOrder() {
+    // Arrange
+    UserResponseDTO cached = new UserResponseDTO();
+    cached.setId(1L);
+    Map<Long, UserResponseDTO> cachedUsers = new HashMap<>();
+    cachedUsers.put(1L, cached);
+
+    User loadedUser = new User();
+    loadedUser.setId(2L);
+    UserResponseDTO loaded = new UserResponseDTO();
+    loaded.setId(2L);
+
+    when(cacheBatchOperations.getAll(eq("users"), any(), eq(UserResponseDTO.class)))
+        .thenReturn(cachedUsers);
+    when(userRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(loadedUser));
+    when(userMapper.toDTO(loadedUser)).thenReturn(loaded);
+
+    // Act
+    UserBatchResponseDTO result = userService.getUsersByIds(List.of(3L, 1L, 2L, 1L));
+
+    // Assert
+    assertEquals(4, result.getResults().size());
+    assertEquals(3L, result.getResults().get(0).getId());
+    assertFalse(result.getResults().get(0).isFound());
+    assertEquals(cached, result.getResults().get(1).getUser());
+    assertEquals(loaded, result.getResults().get(2).getUser());
+    assertEquals(cached, result.getResults().get(3).getUser());
+    assertEquals(3, result.getFound());
+    assertEquals(1, result.getNotFound());
+    verify(cacheBatchOperations).putAllIfAbsent(eq("users"), any(Map.class));
+  }
 }